@@ -0,0 +1,76 @@
+package com.wallet.secure.config;
+
+import com.wallet.secure.security.AuthRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Aplica el límite por IP de {@link AuthRateLimiter} a los POST de login, registro y recuperación
+ * de contraseña.
+ * <p>
+ * Va justo detrás de {@link RequestIdFilter} y antes de Spring Security: una petición rechazada no
+ * lee el cuerpo, no toca la base de datos ni calcula ningún hash. La IP es la del cliente que
+ * reenvía wallet-web en {@code X-Forwarded-For}; Tomcat solo acepta esa cabecera de los proxies de
+ * {@code server.tomcat.remoteip.internal-proxies}, así que un cliente que llame directamente a la
+ * API no puede estrenar cubo cambiándola.
+ * El límite por email lo aplica {@link com.wallet.secure.controller.AuthController}, que es quien
+ * lee el cuerpo.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthRateLimitFilter.class);
+
+    private static final Map<String, String> ENDPOINTS = Map.of(
+            "/api/auth/login", AuthRateLimiter.LOGIN,
+            "/api/auth/register", AuthRateLimiter.REGISTER,
+            "/api/auth/forgot-password", AuthRateLimiter.FORGOT_PASSWORD);
+
+    private static final byte[] BODY = "{\"message\":\"Too many requests, try again later\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final AuthRateLimiter rateLimiter;
+
+    public AuthRateLimitFilter(AuthRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !ENDPOINTS.containsKey(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String endpoint = ENDPOINTS.get(request.getRequestURI());
+        long retryAfter = rateLimiter.acquire(endpoint, AuthRateLimiter.BY_IP, request.getRemoteAddr());
+        if (retryAfter > 0) {
+            logger.warn(LogSamplingFilter.SAMPLED, "Demasiadas peticiones de {} a {}", request.getRemoteAddr(), endpoint);
+            tooManyRequests(response, retryAfter);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static void tooManyRequests(HttpServletResponse response, long retryAfter) throws IOException {
+        response.setStatus(429);
+        response.setHeader("Retry-After", Long.toString(retryAfter));
+        response.setContentType("application/json");
+        response.setContentLength(BODY.length);
+        response.getOutputStream().write(BODY);
+    }
+}
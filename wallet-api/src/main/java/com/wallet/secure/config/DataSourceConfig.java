@@ -0,0 +1,197 @@
+package com.wallet.secure.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import net.ttddyy.observation.tracing.DataSourceObservationListener;
+import net.ttddyy.observation.tracing.JdbcObservationDocumentation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Configuración de los orígenes de datos: primario MySQL y réplicas de lectura opcionales.
+ * <p>
+ * Las transacciones de solo lectura ({@code @Transactional(readOnly = true)}) se envían a las
+ * réplicas listadas en {@code app.datasource.replica-urls}; el resto, al primario. El reparto lo
+ * hace {@link LazyConnectionDataSourceProxy}, que espera a la primera sentencia para pedir la
+ * conexión real y así conoce ya el modo de la transacción. Sin réplicas configuradas, todo va
+ * al primario como antes.
+ * </p>
+ * <p>
+ * Cada destino se instrumenta por debajo del proxy perezoso: la traza muestra un span por
+ * sentencia SQL con el nombre del destino ({@code primary} o {@code replica}) y sin los
+ * valores de los parámetros. En el mismo punto se cuentan las sentencias de cada petición y se
+ * registran las consultas lentas ({@link StatementMetricsListener}).
+ * </p>
+ */
+@Configuration
+@EnableScheduling
+public class DataSourceConfig {
+
+    /**
+     * URLs JDBC de las réplicas, separadas por comas (vacío = sin réplicas).
+     */
+    @Value("${app.datasource.replica-urls:}")
+    private String replicaUrls;
+
+    /**
+     * Consulta para medir el retraso de una réplica; debe devolver {@code Seconds_Behind_Source}.
+     */
+    @Value("${app.datasource.replica-lag-query:SHOW REPLICA STATUS}")
+    private String replicaLagQuery;
+
+    /**
+     * Retraso máximo (segundos) para seguir leyendo de una réplica.
+     */
+    @Value("${app.datasource.replica-max-lag-seconds:5}")
+    private long replicaMaxLagSeconds;
+
+    /**
+     * Tiempo (ms) tras una escritura durante el que el usuario sigue leyendo del primario.
+     */
+    @Value("${app.datasource.read-your-writes-ms:10000}")
+    private long readYourWritesMillis;
+
+    /**
+     * Duración (ms) a partir de la que una sentencia se registra como lenta (0 = desactivado).
+     */
+    @Value("${app.datasource.slow-query-ms:500}")
+    private long slowQueryMillis;
+
+    /**
+     * Sentencias por petición a partir de las que se avisa (0 = sin límite).
+     */
+    @Value("${app.datasource.statement-budget:50}")
+    private int statementBudget;
+
+    /**
+     * Pool de conexiones del primario, configurado con {@code spring.datasource.*} y
+     * {@code spring.datasource.hikari.*}.
+     *
+     * @param properties Propiedades estándar del datasource.
+     * @return Pool Hikari del primario.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Origen de datos de lectura: réplicas sanas con respaldo en el primario.
+     * <p>Cada réplica copia la configuración del pool primario y se abre en modo solo lectura.</p>
+     *
+     * @param primary Pool del primario.
+     * @return Origen de datos de las réplicas.
+     */
+    @Bean
+    public ReplicaDataSource replicaDataSource(HikariDataSource primary) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        List<String> urls = Arrays.stream(replicaUrls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i));
+            config.setPoolName(primary.getPoolName() + "-replica-" + (i + 1));
+            config.setReadOnly(true);
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaDataSource(primary, replicas, replicaLagQuery, replicaMaxLagSeconds);
+    }
+
+    /**
+     * Origen de datos que usan JPA y JdbcTemplate: escrituras al primario, lecturas a las réplicas.
+     *
+     * @param primary Pool del primario.
+     * @param replicaDataSource Origen de datos de lectura.
+     * @param observationRegistry Registro de observaciones para los spans JDBC.
+     * @return Proxy que elige el destino según el modo de la transacción.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primary, ReplicaDataSource replicaDataSource,
+                                 ObjectProvider<ObservationRegistry> observationRegistry) {
+        DataSourceObservationListener listener = new DataSourceObservationListener(observationRegistry::getObject);
+        // Sin spans de conexión: con el proxy perezoso la conexión se abre dentro de un span de repositorio
+        // y se cierra al confirmar la transacción, ya fuera de él, y el cierre desordenado corrompería la traza
+        listener.setSupportedTypes(Set.of(JdbcObservationDocumentation.QUERY));
+        StatementMetricsListener metrics = new StatementMetricsListener(slowQueryMillis);
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(instrument(primary, "primary", listener, metrics));
+        proxy.setReadOnlyDataSource(instrument(replicaDataSource, "replica", listener, metrics));
+        return proxy;
+    }
+
+    private DataSource instrument(DataSource target, String name, DataSourceObservationListener listener,
+                                  StatementMetricsListener metrics) {
+        return ProxyDataSourceBuilder.create(target).name(name)
+                .listener(listener).methodListener(listener)
+                .listener(metrics)
+                .build();
+    }
+
+    /**
+     * Filtro de lectura de las propias escrituras; sin réplicas no hace nada.
+     *
+     * @param replicaDataSource Origen de datos de lectura.
+     * @return Filtro configurado.
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaDataSource replicaDataSource) {
+        return new ReadYourWritesFilter(replicaDataSource, readYourWritesMillis);
+    }
+
+    /**
+     * Filtro que cuenta las sentencias SQL de cada petición.
+     *
+     * @param meterRegistry Registro de métricas.
+     * @return Filtro configurado.
+     */
+    @Bean
+    public StatementBudgetFilter statementBudgetFilter(MeterRegistry meterRegistry) {
+        return new StatementBudgetFilter(statementBudget, meterRegistry);
+    }
+
+    /**
+     * Registra el filtro de recuento justo detrás del de lectura de las propias escrituras, para
+     * incluir también la consulta del usuario que hace Spring Security.
+     *
+     * @param filter Filtro de recuento de sentencias.
+     * @return Registro del filtro.
+     */
+    @Bean
+    public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilterRegistration(StatementBudgetFilter filter) {
+        FilterRegistrationBean<StatementBudgetFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * Registra el filtro antes que Spring Security, que ya consulta el usuario en base de datos.
+     *
+     * @param filter Filtro de lectura de las propias escrituras.
+     * @return Registro del filtro.
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilterRegistration(ReadYourWritesFilter filter) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -41,6 +41,19 @@ public class GlobalExceptionHandler {
         return org.springframework.http.ResponseEntity.notFound().build();
     }
 
+    /**
+     * Maneja los conflictos de bloqueo optimista (otra petición modificó la misma fila).
+     *
+     * @param ex La excepción capturada.
+     * @return Respuesta HTTP 409 Conflict.
+     */
+    @ExceptionHandler(org.springframework.dao.OptimisticLockingFailureException.class)
+    public org.springframework.http.ResponseEntity<java.util.Map<String, String>> handleOptimisticLock(org.springframework.dao.OptimisticLockingFailureException ex) {
+        logger.warn("Conflicto de concurrencia: " + ex.getMessage());
+        return org.springframework.http.ResponseEntity.status(org.springframework.http.HttpStatus.CONFLICT)
+                .body(java.util.Map.of("message", "El recurso ha sido modificado por otra petición. Recarga los datos e inténtalo de nuevo."));
+    }
+
     /**
      * Maneja cualquier excepción no controlada explícitamente.
      *
@@ -50,10 +63,6 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ModelAndView handleException(Exception exc) throws Exception {
-        // Validación DEBUG: Imprimir la excepción real
-        System.out.println("ERROR RUNTIME: " + exc.getClass().getName());
-        exc.printStackTrace();
-
         // Si es un error de seguridad (AccessDenied), lo relanzamos para que Spring Security lo maneje
         if (exc instanceof org.springframework.security.access.AccessDeniedException) {
             throw exc;
@@ -0,0 +1,48 @@
+package com.wallet.secure.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtro de Logback que muestrea las trazas repetitivas de cada petición.
+ * <p>
+ * Solo afecta a los eventos marcados con {@link #SAMPLED}: de cada mensaje (mismo logger y
+ * mismo patrón) deja pasar el primero y luego uno de cada {@code rate}. El resto de trazas
+ * no se toca. Se declara en {@code logback-spring.xml}.
+ * </p>
+ */
+public class LogSamplingFilter extends TurboFilter {
+
+    /**
+     * Marcador para las trazas que se emiten en cada petición y pueden muestrearse.
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private int rate = 100;
+
+    /**
+     * @param rate Se registra una de cada {@code rate} trazas marcadas (1 = todas).
+     */
+    public void setRate(int rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || format == null || rate == 1 || !marker.contains(SAMPLED) || !logger.isEnabledFor(level)) {
+            return FilterReply.NEUTRAL;
+        }
+        long seen = counters.computeIfAbsent(logger.getName() + '|' + format, key -> new AtomicLong())
+                .getAndIncrement();
+        return seen % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
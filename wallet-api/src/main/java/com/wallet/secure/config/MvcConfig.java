@@ -1,22 +1,50 @@
 package com.wallet.secure.config;
 
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * Configuración MVC de la aplicación.
  * <p>
  * Define los manejadores de recursos estáticos, específicamente para
- * servir los archivos subidos al directorio 'uploads'.
+ * servir los archivos subidos al directorio 'uploads', y los conversores
+ * de mensajes adicionales (codec binario Smile).
  * </p>
  */
 @Configuration
 public class MvcConfig implements WebMvcConfigurer {
 
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    public MvcConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    /**
+     * Añade el conversor Smile ({@code application/x-jackson-smile}) al final de la lista.
+     * <p>
+     * Al quedar detrás del conversor JSON, los clientes externos siguen recibiendo JSON;
+     * solo quien pide Smile explícitamente en {@code Accept}/{@code Content-Type} (wallet-web) lo usa.
+     * Reutiliza la configuración de Jackson de Spring Boot para que ambos formatos sean equivalentes.
+     * </p>
+     *
+     * @param converters Lista de conversores ya configurados.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.factory(new SmileFactory()).build()));
+    }
+
     /**
      * Configura el manejador de recursos para servir archivos subidos.
      * <p>
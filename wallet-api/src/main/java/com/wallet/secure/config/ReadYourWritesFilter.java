@@ -0,0 +1,74 @@
+package com.wallet.secure.config;
+
+import com.wallet.secure.security.ServiceTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Garantiza que cada usuario lee sus propias escrituras aunque las réplicas vayan con retraso.
+ * <p>
+ * Las peticiones que modifican datos (todo lo que no sea GET/HEAD/OPTIONS) se resuelven
+ * íntegramente contra el primario y dejan marcado al usuario (email del token de servicio). Durante
+ * la ventana configurada, sus lecturas también van al primario; pasado ese tiempo las réplicas
+ * ya están al día (su retraso está acotado) y vuelven a usarse.
+ * </p>
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final ReplicaDataSource replicaDataSource;
+    private final long windowNanos;
+    private final Map<String, Long> lastWrite = new ConcurrentHashMap<>();
+
+    /**
+     * @param replicaDataSource Origen de datos de lectura.
+     * @param windowMillis Tiempo tras una escritura durante el que el usuario lee del primario.
+     */
+    public ReadYourWritesFilter(ReplicaDataSource replicaDataSource, long windowMillis) {
+        this.replicaDataSource = replicaDataSource;
+        this.windowNanos = windowMillis * 1_000_000L;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // Se lee sin verificar la firma: un email falso solo mandaría sus lecturas al primario
+        String user = ServiceTokenService.unverifiedEmail(request);
+        String method = request.getMethod();
+        boolean write = !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+
+        Long written = user != null ? lastWrite.get(user) : null;
+        boolean recent = written != null && System.nanoTime() - written < windowNanos;
+
+        ReplicaDataSource.forcePrimary(write || recent);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaDataSource.forcePrimary(false);
+            if (write && user != null) {
+                lastWrite.put(user, System.nanoTime());
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !replicaDataSource.hasReplicas();
+    }
+
+    /**
+     * Olvida a los usuarios cuya ventana ya ha expirado.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWrite.values().removeIf(written -> now - written >= windowNanos);
+    }
+}
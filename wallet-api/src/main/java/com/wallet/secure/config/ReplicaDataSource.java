@@ -0,0 +1,168 @@
+package com.wallet.secure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Origen de datos para el trabajo de solo lectura: reparte las conexiones entre las réplicas MySQL.
+ * <p>
+ * Solo se usan las réplicas sanas, es decir, las que responden y cuyo retraso de replicación
+ * ({@code Seconds_Behind_Source}) no supera el máximo configurado. El estado se comprueba
+ * periódicamente. Si no hay ninguna réplica disponible, o la petición en curso debe leer sus
+ * propias escrituras ({@link ReadYourWritesFilter}), la conexión se pide al primario.
+ * </p>
+ * <p>
+ * Como {@link MeterBinder}, publica las métricas {@code hikaricp.*} de cada pool de réplica y el
+ * indicador {@code wallet.db.replica.healthy} (1 si la réplica recibe lecturas).
+ * </p>
+ */
+public class ReplicaDataSource extends AbstractDataSource implements DisposableBean, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param primary Origen de datos del primario (respaldo).
+     * @param replicas Pools de conexiones de las réplicas.
+     * @param lagQuery Consulta que devuelve la columna {@code Seconds_Behind_Source}.
+     * @param maxLagSeconds Retraso máximo admitido para leer de una réplica.
+     */
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> replicas, String lagQuery, long maxLagSeconds) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    /**
+     * Obliga (o deja de obligar) a que las lecturas del hilo actual vayan al primario.
+     *
+     * @param forced true para leer del primario durante la petición en curso.
+     */
+    public static void forcePrimary(boolean forced) {
+        if (forced) {
+            PRIMARY_FORCED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_FORCED.remove();
+        }
+    }
+
+    /**
+     * @return true si hay al menos una réplica configurada.
+     */
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * Devuelve una conexión de una réplica sana (rotando entre ellas) o, si no hay, del primario.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (PRIMARY_FORCED.get() == null) {
+            int size = replicas.size();
+            int start = next.getAndIncrement();
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get(Math.floorMod(start + i, size));
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                    logger.warn("Réplica {} no disponible, se excluye hasta la próxima comprobación: {}",
+                            replica.dataSource.getPoolName(), e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Comprueba la disponibilidad y el retraso de cada réplica.
+     * <p>
+     * Una réplica con la replicación detenida ({@code Seconds_Behind_Source} nulo) o que no
+     * responde se excluye. Si la consulta no devuelve filas, el servidor no es réplica de nadie
+     * y se considera al día.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica-check-interval-ms:2000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                if (rs.next()) {
+                    long lag = rs.getLong("Seconds_Behind_Source");
+                    healthy = !rs.wasNull() && lag <= maxLagSeconds;
+                } else {
+                    healthy = true;
+                }
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                logger.info("Réplica {} {}", replica.dataSource.getPoolName(), healthy ? "disponible" : "excluida (caída o con retraso)");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            replica.dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            Gauge.builder("wallet.db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("pool", replica.dataSource.getPoolName())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Cierra los pools de las réplicas (el del primario lo gestiona su propio bean).
+     */
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private static class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.wallet.secure.config;
+
+import com.wallet.secure.security.ServiceTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Asigna un identificador de correlación a cada petición y lo deja en el MDC de los logs.
+ * <p>
+ * Reutiliza la cabecera {@code X-Request-Id} que envía wallet-web (así una misma acción del
+ * usuario se sigue en los logs de ambas aplicaciones) o genera uno nuevo. También guarda el
+ * email del token de servicio (sin verificar: solo sirve para los logs) y devuelve el
+ * identificador en la respuesta.
+ * </p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(HEADER);
+        if (requestId == null || requestId.isBlank() || requestId.length() > 64) {
+            requestId = UUID.randomUUID().toString();
+        }
+        MDC.put("requestId", requestId);
+        String user = ServiceTokenService.unverifiedEmail(request);
+        if (user != null) {
+            MDC.put("user", user);
+        }
+        response.setHeader(HEADER, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove("requestId");
+            MDC.remove("user");
+        }
+    }
+}
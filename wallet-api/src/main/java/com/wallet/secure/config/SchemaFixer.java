@@ -1,5 +1,10 @@
 package com.wallet.secure.config;
 
+import com.wallet.secure.service.ArchiveService;
+import com.wallet.secure.service.InsuranceSearchService;
+import com.wallet.secure.service.PartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -13,9 +18,17 @@ import org.springframework.stereotype.Component;
 @Component
 public class SchemaFixer implements CommandLineRunner {
 
+    private static final Logger logger = LoggerFactory.getLogger(SchemaFixer.class);
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private PartitionService partitionService;
+
     /**
      * Ejecuta las sentencias SQL de reparación.
      *
@@ -24,46 +37,80 @@ public class SchemaFixer implements CommandLineRunner {
      */
     @Override
     public void run(String... args) throws Exception {
-        System.out.println("INFO: Ejecutando reparación de esquema de base de datos...");
+        logger.info("Ejecutando reparación de esquema de base de datos...");
 
         try {
             // 1. Intentar eliminar las Foreign Keys antiguas (si existen)
             try {
                 jdbcTemplate.execute("ALTER TABLE insurances DROP FOREIGN KEY insurances_ibfk_1");
-                System.out.println("INFO: FK insurances_ibfk_1 eliminada.");
-            } catch (Exception e) { System.out.println("INFO: FK insurances_ibfk_1 no existía o ya fue borrada."); }
+                logger.info("FK insurances_ibfk_1 eliminada.");
+            } catch (Exception e) { logger.info("FK insurances_ibfk_1 no existía o ya fue borrada."); }
 
             try {
                 jdbcTemplate.execute("ALTER TABLE tickets DROP FOREIGN KEY FK4eqsebpimnjen0q46ja6fl2hl");
-                System.out.println("INFO: FK tickets eliminada.");
-            } catch (Exception e) { System.out.println("INFO: FK tickets no existía o ya fue borrada."); }
+                logger.info("FK tickets eliminada.");
+            } catch (Exception e) { logger.info("FK tickets no existía o ya fue borrada."); }
 
             // 2. Corregir tipos de datos a BIGINT
             jdbcTemplate.execute("ALTER TABLE users MODIFY COLUMN id BIGINT NOT NULL AUTO_INCREMENT");
-            System.out.println("INFO: Users.id convertido a BIGINT.");
+            logger.info("Users.id convertido a BIGINT.");
 
             jdbcTemplate.execute("ALTER TABLE insurances MODIFY COLUMN user_id BIGINT NOT NULL");
-            System.out.println("INFO: Insurances.user_id convertido a BIGINT.");
+            logger.info("Insurances.user_id convertido a BIGINT.");
 
             jdbcTemplate.execute("ALTER TABLE tickets MODIFY COLUMN user_id BIGINT");
-            System.out.println("INFO: Tickets.user_id convertido a BIGINT.");
+            logger.info("Tickets.user_id convertido a BIGINT.");
 
             // 3. Recrear las Foreign Keys
             try {
                 jdbcTemplate.execute("ALTER TABLE insurances ADD CONSTRAINT FK_insurances_users FOREIGN KEY (user_id) REFERENCES users(id)");
-                System.out.println("INFO: FK Insurances restaurada.");
-            } catch (Exception e) { System.out.println("WARN: No se pudo restaurar FK Insurances (quizás ya existe)."); }
+                logger.info("FK Insurances restaurada.");
+            } catch (Exception e) { logger.warn("No se pudo restaurar FK Insurances (quizás ya existe)."); }
+
+            // Las entidades no declaran estas dos claves (una tabla particionada no las admite): se crean aquí
+            // mientras la tabla no esté particionada y solo PartitionService las borra al particionarla
+            if (!partitionService.isPartitioned(PartitionService.TICKETS)) {
+                try {
+                    jdbcTemplate.execute("ALTER TABLE tickets ADD CONSTRAINT FK_tickets_users FOREIGN KEY (user_id) REFERENCES users(id)");
+                    logger.info("FK Tickets restaurada.");
+                } catch (Exception e) { logger.warn("No se pudo restaurar FK Tickets (quizás ya existe)."); }
+            }
+            if (!partitionService.isPartitioned(PartitionService.PAYMENTS)) {
+                try {
+                    jdbcTemplate.execute("ALTER TABLE payments ADD CONSTRAINT FK_payments_insurances FOREIGN KEY (insurance_id) REFERENCES insurances(id)");
+                    logger.info("FK Payments restaurada.");
+                } catch (Exception e) { logger.warn("No se pudo restaurar FK Payments (quizás ya existe)."); }
+            }
+
+            // 4. Índice FULLTEXT (parser ngram) de la búsqueda de pólizas. Solo MySQL: en otras bases de datos falla y
+            //    InsuranceSearchService usa la búsqueda por subcadena
+            try {
+                Integer existing = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE()"
+                                + " AND table_name = 'insurances' AND index_name = ?",
+                        Integer.class, InsuranceSearchService.FULLTEXT_INDEX);
+                if (existing != null && existing == 0) {
+                    jdbcTemplate.execute("CREATE FULLTEXT INDEX " + InsuranceSearchService.FULLTEXT_INDEX
+                            + " ON insurances (title, company, policy_number, category) WITH PARSER ngram");
+                    logger.info("Índice FULLTEXT de pólizas creado.");
+                }
+            } catch (Exception e) { logger.info("Índice FULLTEXT de pólizas no disponible en esta base de datos."); }
+
+            // 5. Tablas de archivo de pólizas caducadas y tickets cerrados
+            try {
+                archiveService.createTables();
+                logger.info("Tablas de archivo comprobadas.");
+            } catch (Exception e) { logger.error("No se pudieron crear las tablas de archivo", e); }
 
+            // 6. Particionado por año de pagos y tickets (opcional, solo MySQL)
             try {
-                jdbcTemplate.execute("ALTER TABLE tickets ADD CONSTRAINT FK_tickets_users FOREIGN KEY (user_id) REFERENCES users(id)");
-                System.out.println("INFO: FK Tickets restaurada.");
-            } catch (Exception e) { System.out.println("WARN: No se pudo restaurar FK Tickets (quizás ya existe)."); }
+                partitionService.partitionTables();
+            } catch (Exception e) { logger.error("No se pudieron particionar pagos y tickets", e); }
 
-            System.out.println("INFO: Reparación de esquema completada.");
+            logger.info("Reparación de esquema completada.");
 
         } catch (Exception e) {
-            System.err.println("ERROR FATAL REPARANDO ESQUEMA: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fatal reparando el esquema", e);
         }
     }
 }
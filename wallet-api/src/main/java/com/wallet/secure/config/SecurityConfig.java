@@ -1,16 +1,20 @@
 package com.wallet.secure.config;
 
-import com.wallet.secure.security.CustomUserDetailsService;
+import com.wallet.secure.security.ServiceTokenService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -20,6 +24,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Clase de configuración principal para la seguridad de Spring.
@@ -33,10 +38,18 @@ import java.io.IOException;
 @org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity
 public class SecurityConfig {
 
-    private final CustomUserDetailsService userDetailsService;
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
 
-    public SecurityConfig(CustomUserDetailsService userDetailsService) {
-        this.userDetailsService = userDetailsService;
+    private final ServiceTokenService tokenService;
+
+    /**
+     * Puerto de Actuator ({@code management.server.port}); -1 si comparte el de la aplicación.
+     */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    public SecurityConfig(ServiceTokenService tokenService) {
+        this.tokenService = tokenService;
     }
 
     /**
@@ -46,7 +59,7 @@ public class SecurityConfig {
      * - Configura CORS.<br>
      * - Establece sesión STATELESS.<br>
      * - Define reglas de autorización de endpoints.<br>
-     * - Añade el filtro personalizado (TrustedHeaderFilter) para autenticación entre microservicios.
+     * - Añade el filtro de tokens de servicio (ServiceTokenFilter) para autenticación entre microservicios.
      * </p>
      *
      * @param http Objeto HttpSecurity para configurar la seguridad.
@@ -61,9 +74,15 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/**", "/api/upload/**", "/uploads/**", "/api/users/approve-role", "/api/users/reject-role").permitAll()
+                // Sondas de salud públicas. Prometheus solo por el puerto de gestión, que no se publica;
+                // el resto de Actuator solo para ADMIN
+                .requestMatchers("/actuator/health/**").permitAll()
+                .requestMatchers(request -> request.getLocalPort() == managementPort
+                        && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
-            .addFilterBefore(new TrustedHeaderFilter(userDetailsService), UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(new ServiceTokenFilter(tokenService), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -92,41 +111,75 @@ public class SecurityConfig {
 
     /**
      * Define el bean para la encriptación de contraseñas usando BCrypt.
+     * <p>
+     * El coste es {@code app.auth.bcrypt-cost}. Si se fija {@code app.auth.bcrypt-target-ms}, se
+     * mide este servidor al arrancar y se sube el coste mientras un hash siga por debajo de ese
+     * tiempo. Los hashes con coste menor se rehacen en el siguiente login correcto
+     * ({@link com.wallet.secure.security.PasswordVerifier}); nunca se rebajan.
+     * </p>
      *
+     * @param cost Coste fijo, o mínimo si se calibra.
+     * @param targetMillis Tiempo objetivo por hash (0 = sin calibrar).
      * @return Instancia de BCryptPasswordEncoder.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt-cost:10}") int cost,
+                                           @Value("${app.auth.bcrypt-target-ms:0}") long targetMillis) {
+        int strength = targetMillis > 0 ? calibrateBcryptCost(cost, targetMillis) : cost;
+        return new BCryptPasswordEncoder(strength);
     }
 
     /**
-     * Filtro personalizado para confiar en el header de autenticación entre Gateway/Cliente y API.
-     * <p>Permite la autenticación basada en el header 'X-Auth-User' sin necesidad de tokens JWT complejos en esta capa.</p>
+     * Busca el mayor coste BCrypt (hasta 16) cuyo hash tarda como mucho {@code targetMillis} en esta máquina.
+     * Cada punto de coste duplica el tiempo, así que basta con medir el coste mínimo.
      */
-    public static class TrustedHeaderFilter extends OncePerRequestFilter {
-        private final CustomUserDetailsService userDetailsService;
+    private static int calibrateBcryptCost(int minCost, long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode("calibracion"); // Calentamiento del JIT
+        long start = System.nanoTime();
+        probe.encode("calibracion");
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
 
-        public TrustedHeaderFilter(CustomUserDetailsService userDetailsService) {
-            this.userDetailsService = userDetailsService;
+        int cost = minCost;
+        while (cost < 16 && millis * 2 <= targetMillis) {
+            cost++;
+            millis *= 2;
+        }
+        logger.info("Coste BCrypt calibrado: {} (~{} ms por hash, objetivo {} ms)", cost, Math.round(millis), targetMillis);
+        return cost;
+    }
+
+    /**
+     * Autentica cada petición con el token de servicio de la cabecera {@code Authorization: Bearer}.
+     * <p>
+     * Solo verifica la firma HMAC y la caducidad ({@link ServiceTokenService}); el email y el rol
+     * salen del propio token, sin consultar la base de datos. Sin token válido la petición sigue
+     * como anónima.
+     * </p>
+     */
+    public static class ServiceTokenFilter extends OncePerRequestFilter {
+        private final ServiceTokenService tokenService;
+
+        public ServiceTokenFilter(ServiceTokenService tokenService) {
+            this.tokenService = tokenService;
         }
 
         @Override
         protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
                 throws ServletException, IOException {
-            
-            String userEmail = request.getHeader("X-Auth-User");
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                try {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
+
+            String token = ServiceTokenService.bearerToken(request);
+            if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                ServiceTokenService.Claims claims = tokenService.verify(token);
+                if (claims != null) {
+                    List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(claims.role()));
+                    UserDetails userDetails = new org.springframework.security.core.userdetails.User(claims.email(), "", authorities);
+                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
+                    auth.setDetails(claims);
                     SecurityContextHolder.getContext().setAuthentication(auth);
-                } catch (Exception e) {
-                    // Si el usuario no existe, sigue como anónimo
                 }
             }
             filterChain.doFilter(request, response);
         }
     }
-}
\ No newline at end of file
+}
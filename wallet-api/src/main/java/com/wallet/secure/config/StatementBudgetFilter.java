@@ -0,0 +1,61 @@
+package com.wallet.secure.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Cuenta las sentencias SQL de cada petición y avisa cuando superan el presupuesto.
+ * <p>
+ * Un endpoint que pasa de unas pocas sentencias a decenas suele tener un problema N+1 o una
+ * carga perezosa olvidada. El recuento se publica en la métrica {@code wallet.db.statements}
+ * y queda en la petición ({@link StatementStats#ATTRIBUTE}) para los tests.
+ * </p>
+ */
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementBudgetFilter.class);
+
+    private final int budget;
+    private final DistributionSummary statements;
+
+    /**
+     * @param budget Máximo de sentencias por petición antes de avisar (0 = sin límite).
+     * @param meterRegistry Registro de métricas.
+     */
+    public StatementBudgetFilter(int budget, MeterRegistry meterRegistry) {
+        this.budget = budget;
+        this.statements = DistributionSummary.builder("wallet.db.statements")
+                .description("Sentencias SQL por petición")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementStats stats = StatementStats.begin();
+        request.setAttribute(StatementStats.ATTRIBUTE, stats);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StatementStats.end();
+            statements.record(stats.getCount());
+            if (budget > 0 && stats.getCount() > budget) {
+                logger.warn("{} {} ejecutó {} sentencias SQL ({} ms, {} lentas); el presupuesto es {}",
+                        request.getMethod(), request.getRequestURI(), stats.getCount(), stats.getElapsedMillis(),
+                        stats.getSlowCount(), budget);
+            } else {
+                logger.debug("{} {}: {} sentencias SQL en {} ms", request.getMethod(), request.getRequestURI(),
+                        stats.getCount(), stats.getElapsedMillis());
+            }
+        }
+    }
+}
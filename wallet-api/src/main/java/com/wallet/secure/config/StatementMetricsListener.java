@@ -0,0 +1,61 @@
+package com.wallet.secure.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Escucha cada sentencia JDBC: la suma a {@link StatementStats} y avisa de las consultas lentas.
+ * <p>
+ * El aviso incluye el SQL, pero nunca los valores enlazados; además, los literales de texto y
+ * numéricos que lleve la propia sentencia se sustituyen por {@code ?}, para que los logs no
+ * contengan datos personales.
+ * </p>
+ */
+public class StatementMetricsListener implements QueryExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementMetricsListener.class);
+
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+
+    private final long slowQueryMillis;
+
+    /**
+     * @param slowQueryMillis Duración (ms) a partir de la que una sentencia se considera lenta (0 = nunca).
+     */
+    public StatementMetricsListener(long slowQueryMillis) {
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        boolean slow = slowQueryMillis > 0 && elapsed >= slowQueryMillis;
+        StatementStats.record(elapsed, slow);
+        if (slow) {
+            logger.warn("Sentencia lenta ({} ms, {}{}): {}", elapsed, execInfo.getDataSourceName(),
+                    execInfo.isBatch() ? ", lote de " + execInfo.getBatchSize() : "",
+                    queryInfoList.stream().map(query -> redact(query.getQuery())).collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * Sustituye los literales de una sentencia por {@code ?}.
+     *
+     * @param sql Sentencia original.
+     * @return Sentencia sin literales.
+     */
+    static String redact(String sql) {
+        return LITERALS.matcher(sql).replaceAll("?");
+    }
+}
@@ -0,0 +1,82 @@
+package com.wallet.secure.config;
+
+/**
+ * Sentencias SQL ejecutadas durante una petición: número y tiempo total en base de datos.
+ * <p>
+ * {@link StatementBudgetFilter} abre el recuento al empezar la petición y lo deja en el
+ * atributo {@link #ATTRIBUTE}; {@link StatementMetricsListener} suma cada sentencia del hilo.
+ * Los tests de integración lo leen de la petición para fallar si un endpoint supera su presupuesto.
+ * </p>
+ */
+public final class StatementStats {
+
+    /**
+     * Atributo de la petición donde queda el recuento.
+     */
+    public static final String ATTRIBUTE = StatementStats.class.getName();
+
+    private static final ThreadLocal<StatementStats> CURRENT = new ThreadLocal<>();
+
+    private int count;
+    private int slowCount;
+    private long elapsedMillis;
+
+    private StatementStats() {
+    }
+
+    /**
+     * Empieza a contar las sentencias del hilo actual.
+     *
+     * @return Recuento vacío asociado al hilo.
+     */
+    static StatementStats begin() {
+        StatementStats stats = new StatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Deja de contar en el hilo actual.
+     */
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Suma una sentencia al recuento del hilo, si hay uno abierto.
+     *
+     * @param elapsedMillis Duración de la sentencia.
+     * @param slow true si ha superado el umbral de consulta lenta.
+     */
+    static void record(long elapsedMillis, boolean slow) {
+        StatementStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.count++;
+            stats.elapsedMillis += elapsedMillis;
+            if (slow) {
+                stats.slowCount++;
+            }
+        }
+    }
+
+    /**
+     * @return Número de sentencias ejecutadas (un lote cuenta como una).
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return Sentencias que superaron el umbral de consulta lenta.
+     */
+    public int getSlowCount() {
+        return slowCount;
+    }
+
+    /**
+     * @return Tiempo total en base de datos, en milisegundos.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
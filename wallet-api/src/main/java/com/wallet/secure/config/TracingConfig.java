@@ -0,0 +1,89 @@
+package com.wallet.secure.config;
+
+import com.wallet.secure.tracing.FileSpanExporter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+/**
+ * Configuración de las trazas distribuidas (Micrometer Tracing sobre OpenTelemetry).
+ * <p>
+ * Spring Boot ya crea un span por petición HTTP (uno por endpoint de controlador) y continúa
+ * la traza que llega de wallet-web en la cabecera {@code traceparent}. Aquí se añaden los
+ * spans de cada método de repositorio, se descartan las peticiones a {@code /actuator} y se
+ * ofrece la exportación a fichero. Los spans JDBC se configuran en {@link DataSourceConfig} y
+ * los de correo en {@link com.wallet.secure.service.EmailService}.
+ * </p>
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Envuelve cada repositorio Spring Data en una observación {@code wallet.repository}
+     * (span {@code UserRepository.findByEmail}, etc.), de la que cuelgan las sentencias SQL.
+     *
+     * @param observationRegistry Registro de observaciones (se resuelve en la primera llamada).
+     * @return Post-procesador de las factorías de repositorios.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        Supplier<ObservationRegistry> registry = SingletonSupplier.of(observationRegistry::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> {
+                                String repository = information.getRepositoryInterface().getSimpleName();
+                                // La primera del proxy: el span debe envolver también la transacción del repositorio
+                                proxyFactory.addAdvice(0, (MethodInterceptor) invocation ->
+                                        Observation.createNotStarted("wallet.repository", registry.get())
+                                                .contextualName(repository + "." + invocation.getMethod().getName())
+                                                .lowCardinalityKeyValue("repository", repository)
+                                                .lowCardinalityKeyValue("method", invocation.getMethod().getName())
+                                                .observeChecked(invocation::proceed));
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * No traza las peticiones a Actuator (sondas y Prometheus), que solo añadirían ruido.
+     *
+     * @return Predicado de observaciones.
+     */
+    @Bean
+    public ObservationPredicate actuatorObservationPredicate() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                && request.getCarrier().getRequestURI().startsWith("/actuator"));
+    }
+
+    /**
+     * Exportador a fichero, activo solo si se define {@code app.tracing.file}.
+     *
+     * @param file Ruta del fichero de spans.
+     * @return Exportador que Spring Boot añade al procesador por lotes de OpenTelemetry.
+     * @throws IOException Si no se puede abrir el fichero.
+     */
+    @Bean
+    @ConditionalOnProperty("app.tracing.file")
+    public FileSpanExporter fileSpanExporter(@Value("${app.tracing.file}") Path file) throws IOException {
+        return new FileSpanExporter(file);
+    }
+}
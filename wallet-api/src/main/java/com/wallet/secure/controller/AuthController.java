@@ -1,64 +1,180 @@
 package com.wallet.secure.controller;
 
+import com.wallet.secure.config.LogSamplingFilter;
 import com.wallet.secure.entity.User;
+import com.wallet.secure.security.AuthRateLimiter;
+import com.wallet.secure.security.PasswordVerifier;
+import com.wallet.secure.security.ServiceTokenService;
 import com.wallet.secure.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Controlador REST para gestionar la autenticación y el registro de usuarios.
- * Provee endpoints para login, registro, verificación de cuenta y recuperación de contraseña.
+ * Provee endpoints para login, renovación del token de servicio, registro, verificación de cuenta
+ * y recuperación de contraseña.
+ * <p>
+ * Publica los contadores {@code wallet.logins} y {@code wallet.registrations}, etiquetados
+ * con el resultado de cada intento ({@code busy} si el login se rechaza por saturación,
+ * {@code throttled} si el email ha superado su límite de intentos).
+ * </p>
+ * <p>
+ * Login, registro y recuperación de contraseña están limitados por IP ({@link com.wallet.secure.config.AuthRateLimitFilter})
+ * y por email (aquí, tras leer el cuerpo); al superar el límite se responde 429 con {@code Retry-After}.
+ * </p>
  */
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
     
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder; 
+    private final PasswordVerifier passwordVerifier;
+    private final ServiceTokenService tokenService;
+    private final AuthRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
 
-    public AuthController(UserService userService, PasswordEncoder passwordEncoder) {
+    public AuthController(UserService userService, PasswordVerifier passwordVerifier, ServiceTokenService tokenService,
+                          AuthRateLimiter rateLimiter, MeterRegistry meterRegistry) {
         this.userService = userService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordVerifier = passwordVerifier;
+        this.tokenService = tokenService;
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
      * Autentica a un usuario verificando sus credenciales.
+     * <p>
+     * La comprobación BCrypt se hace en {@link PasswordVerifier} y la respuesta se completa de forma
+     * asíncrona, sin retener el hilo de Tomcat. Si el verificador está saturado se responde 503 con
+     * {@code Retry-After}; si el hash guardado tiene un coste antiguo, se actualiza.
+     * </p>
+     * <p>
+     * Si el login es correcto, la cabecera {@code X-Auth-Token} lleva el token de servicio con el que
+     * wallet-web firmará las siguientes peticiones del usuario.
+     * </p>
      *
      * @param credentials Mapa que contiene el email y la contraseña.
      * @return ResponseEntity con el usuario autenticado o un mensaje de error.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Map<String, String> credentials) {
         String email = credentials.get("email");
         String password = credentials.get("password");
 
-        System.out.println("INFO: Intento de inicio de sesión: " + email);
-        
+        logger.debug("Intento de inicio de sesión: {}", email);
+
+        long retryAfter = rateLimiter.acquire(AuthRateLimiter.LOGIN, AuthRateLimiter.BY_EMAIL, email);
+        if (retryAfter > 0) {
+            logger.warn(LogSamplingFilter.SAMPLED, "Demasiados intentos de inicio de sesión: {}", email);
+            meterRegistry.counter("wallet.logins", "result", "throttled").increment();
+            return CompletableFuture.completedFuture(tooManyRequests(retryAfter));
+        }
+
         User user = userService.findUserByEmail(email);
         
-        if (user == null) {
-             System.out.println("WARN: Usuario no encontrado: " + email);
-             return ResponseEntity.status(401).body(Map.of("message", "User not found")); 
+        // Una cuenta en proceso de borrado ya no existe para el usuario
+        if (user == null || user.getDeletionRequestedAt() != null) {
+             logger.warn(LogSamplingFilter.SAMPLED, "Inicio de sesión de un usuario inexistente: {}", email);
+             meterRegistry.counter("wallet.logins", "result", "unknown_user").increment();
+             return CompletableFuture.completedFuture(ResponseEntity.status(401).body(Map.of("message", "User not found")));
         }
-        
-        System.out.println("INFO: Usuario encontrado. Rol: " + user.getRole() + ", Activo: " + user.isEnabled());
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
-             System.out.println("WARN: Contraseña incorrecta para el usuario: " + email);
-             return ResponseEntity.status(401).body(Map.of("message", "Invalid credentials"));
+        CompletableFuture<PasswordVerifier.Result> verification;
+        try {
+            verification = passwordVerifier.verify(password, user.getPassword());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busy(email));
         }
-        
-        if (!user.isEnabled()) {
-             System.out.println("WARN: Cuenta no verificada: " + email);
-             return ResponseEntity.status(401).body(Map.of("message", "Account not verified"));
+
+        return verification.<ResponseEntity<?>>thenApply(result -> {
+            if (!result.matches()) {
+                 logger.warn(LogSamplingFilter.SAMPLED, "Contraseña incorrecta para {}", email);
+                 meterRegistry.counter("wallet.logins", "result", "bad_credentials").increment();
+                 return ResponseEntity.status(401).body(Map.of("message", "Invalid credentials"));
+            }
+            if (result.upgradedHash() != null) {
+                userService.upgradePasswordHash(user, result.upgradedHash());
+            }
+
+            if (!user.isEnabled()) {
+                 logger.info("Inicio de sesión con la cuenta sin verificar: {}", email);
+                 meterRegistry.counter("wallet.logins", "result", "not_verified").increment();
+                 return ResponseEntity.status(401).body(Map.of("message", "Account not verified"));
+            }
+
+            logger.info(LogSamplingFilter.SAMPLED, "Inicio de sesión correcto: {} ({})", email, user.getRole());
+            meterRegistry.counter("wallet.logins", "result", "success").increment();
+            return ResponseEntity.ok()
+                    .header(ServiceTokenService.TOKEN_HEADER, tokenService.issue(user))
+                    .body(user);
+        }).exceptionally(e -> {
+            if (e instanceof CompletionException && e.getCause() != null) {
+                e = e.getCause();
+            }
+            if (e instanceof TimeoutException) {
+                return busy(email);
+            }
+            throw new CompletionException(e);
+        });
+    }
+
+    /**
+     * Renueva el token de servicio con el rol actual del usuario.
+     * <p>
+     * Acepta tokens caducados dentro de la ventana de renovación; a cambio comprueba en la base de
+     * datos que el usuario sigue existiendo y activo. Es la única consulta de usuario que exige el
+     * token, una vez por renovación en lugar de una por petición.
+     * </p>
+     *
+     * @param request Petición con {@code Authorization: Bearer <token>}.
+     * @return 204 con el nuevo token en {@code X-Auth-Token}, o 401.
+     */
+    @PostMapping("/token")
+    public ResponseEntity<?> refreshToken(jakarta.servlet.http.HttpServletRequest request) {
+        String token = ServiceTokenService.bearerToken(request);
+        ServiceTokenService.Claims claims = token != null ? tokenService.verifyForRefresh(token) : null;
+        if (claims == null) {
+            return ResponseEntity.status(401).body(Map.of("message", "Invalid token"));
+        }
+        User user = userService.findUserByEmail(claims.email());
+        if (user == null || !user.isEnabled() || !user.getId().equals(claims.userId())) {
+            logger.info("Renovación de token rechazada para {}", claims.email());
+            return ResponseEntity.status(401).body(Map.of("message", "Invalid token"));
         }
+        return ResponseEntity.noContent().header(ServiceTokenService.TOKEN_HEADER, tokenService.issue(user)).build();
+    }
 
-        System.out.println("INFO: Inicio de sesión exitoso: " + email);
-        return ResponseEntity.ok(user);
+    /**
+     * Respuesta cuando no se puede verificar la contraseña a tiempo por exceso de inicios de sesión.
+     */
+    private ResponseEntity<?> busy(String email) {
+        logger.warn(LogSamplingFilter.SAMPLED, "Verificador de contraseñas saturado, login rechazado: {}", email);
+        meterRegistry.counter("wallet.logins", "result", "busy").increment();
+        return ResponseEntity.status(503)
+                .header("Retry-After", "2")
+                .body(Map.of("message", "Too many login attempts, try again later"));
+    }
+
+    /**
+     * Respuesta cuando un email supera su límite de intentos.
+     */
+    private ResponseEntity<?> tooManyRequests(long retryAfter) {
+        return ResponseEntity.status(429)
+                .header("Retry-After", Long.toString(retryAfter))
+                .body(Map.of("message", "Too many requests, try again later"));
     }
 
     /**
@@ -69,10 +185,17 @@ public class AuthController {
      */
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody User user) {
+        long retryAfter = rateLimiter.acquire(AuthRateLimiter.REGISTER, AuthRateLimiter.BY_EMAIL, user.getEmail());
+        if (retryAfter > 0) {
+            meterRegistry.counter("wallet.registrations", "result", "throttled").increment();
+            return tooManyRequests(retryAfter);
+        }
         try {
             userService.registerUser(user);
+            meterRegistry.counter("wallet.registrations", "result", "success").increment();
             return ResponseEntity.ok(Map.of("message", "User registered successfully"));
         } catch (Exception e) {
+            meterRegistry.counter("wallet.registrations", "result", "rejected").increment();
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         }
     }
@@ -101,6 +224,11 @@ public class AuthController {
      */
     @PostMapping("/forgot-password")
     public ResponseEntity<?> forgotPassword(@RequestParam("email") String email) {
+        // Cada petición manda un correo: sin este límite se podría inundar el buzón de cualquiera
+        long retryAfter = rateLimiter.acquire(AuthRateLimiter.FORGOT_PASSWORD, AuthRateLimiter.BY_EMAIL, email);
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter);
+        }
         try {
             userService.initiatePasswordRecovery(email);
             return ResponseEntity.ok(Map.of("message", "Recovery email sent"));
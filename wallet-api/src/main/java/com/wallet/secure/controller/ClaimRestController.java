@@ -3,6 +3,7 @@ package com.wallet.secure.controller;
 import com.wallet.secure.entity.Claim;
 import com.wallet.secure.repository.ClaimRepository;
 import com.wallet.secure.repository.InsuranceRepository;
+import com.wallet.secure.repository.UserRepository;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.http.HttpStatus;
@@ -24,10 +25,12 @@ public class ClaimRestController {
 
     private final ClaimRepository claimRepository;
     private final InsuranceRepository insuranceRepository;
+    private final UserRepository userRepository;
 
-    public ClaimRestController(ClaimRepository claimRepository, InsuranceRepository insuranceRepository) {
+    public ClaimRestController(ClaimRepository claimRepository, InsuranceRepository insuranceRepository, UserRepository userRepository) {
         this.claimRepository = claimRepository;
         this.insuranceRepository = insuranceRepository;
+        this.userRepository = userRepository;
     }
 
     /**
@@ -65,13 +68,15 @@ public class ClaimRestController {
      */
     @PostMapping("/insurance/{insuranceId}")
     public ResponseEntity<Claim> createClaim(@PathVariable Long insuranceId, @RequestBody Claim claim, @AuthenticationPrincipal UserDetails userDetails) {
-        return insuranceRepository.findById(insuranceId)
+        return insuranceRepository.findWithUserById(insuranceId)
                 .map(insurance -> {
                     if (!insurance.getUser().getEmail().equals(userDetails.getUsername())) {
                         return ResponseEntity.status(HttpStatus.FORBIDDEN).<Claim>build();
                     }
                     claim.setInsurance(insurance);
-                    return ResponseEntity.ok(claimRepository.save(claim));
+                    Claim saved = claimRepository.save(claim);
+                    userRepository.incrementDataVersion(insurance.getUser().getId());
+                    return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -86,12 +91,13 @@ public class ClaimRestController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteClaim(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
-        return claimRepository.findById(id)
+        return claimRepository.findWithOwnerById(id)
                 .map(claim -> {
                     if (!claim.getInsurance().getUser().getEmail().equals(userDetails.getUsername())) {
                         return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
                     }
                     claimRepository.delete(claim);
+                    userRepository.incrementDataVersion(claim.getInsurance().getUser().getId());
                     return ResponseEntity.ok().build();
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -0,0 +1,87 @@
+package com.wallet.secure.controller;
+
+import com.wallet.secure.entity.User;
+import com.wallet.secure.repository.UserRepository;
+import com.wallet.secure.service.DataExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Controlador REST para descargar todos los datos del usuario autenticado.
+ * <p>
+ * La respuesta se escribe mientras se lee de la base de datos (ver {@link DataExportService}), en
+ * el mismo hilo de la petición: no hay límite de tiempo de petición asíncrona que corte una
+ * exportación larga.
+ * </p>
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private final DataExportService exportService;
+    private final UserRepository userRepository;
+
+    public ExportController(DataExportService exportService, UserRepository userRepository) {
+        this.exportService = exportService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Exporta pólizas, pagos, reclamaciones, beneficiarios y tickets del usuario.
+     *
+     * @param format {@code ndjson} (por defecto) o {@code csv}.
+     * @param dataset Un solo conjunto ({@code insurances}, {@code payments}, {@code claims},
+     *                {@code beneficiaries} o {@code tickets}); sin él, todos (en CSV, un ZIP).
+     * @param userDetails Detalles del usuario autenticado.
+     * @param response Respuesta en la que se escribe la exportación.
+     * @return null una vez escrita la exportación, o 400 si el formato o el conjunto no existen.
+     * @throws IOException Si el cliente corta la descarga.
+     */
+    @GetMapping
+    public ResponseEntity<?> export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                                    @RequestParam(value = "dataset", required = false) String dataset,
+                                    @AuthenticationPrincipal UserDetails userDetails,
+                                    HttpServletResponse response) throws IOException {
+        DataExportService.Format exportFormat;
+        try {
+            exportFormat = DataExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Formato no soportado: " + format));
+        }
+        List<DataExportService.Dataset> datasets = DataExportService.DATASETS;
+        if (dataset != null) {
+            DataExportService.Dataset selected = DataExportService.dataset(dataset);
+            if (selected == null) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Conjunto de datos desconocido: " + dataset));
+            }
+            datasets = List.of(selected);
+        }
+        User user = userRepository.findByEmail(userDetails.getUsername());
+
+        String name = "wallet-" + (dataset != null ? dataset : "export") + "-" + LocalDate.now();
+        if (exportFormat == DataExportService.Format.NDJSON) {
+            response.setContentType("application/x-ndjson;charset=UTF-8");
+            name += ".ndjson";
+        } else if (datasets.size() == 1) {
+            response.setContentType("text/csv;charset=UTF-8");
+            name += ".csv";
+        } else {
+            response.setContentType("application/zip");
+            name += ".zip";
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        exportService.export(user.getId(), exportFormat, datasets, response.getOutputStream());
+        return null;
+    }
+}
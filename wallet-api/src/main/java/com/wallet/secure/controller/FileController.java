@@ -1,5 +1,8 @@
 package com.wallet.secure.controller;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -13,6 +16,7 @@ import java.util.Map;
  * Controlador REST para la gestión de subida de archivos.
  * <p>
  * Gestiona el almacenamiento de archivos (imágenes, documentos) en el servidor.
+ * Publica {@code wallet.uploads} (por resultado) y {@code wallet.uploads.size} (bytes recibidos).
  * </p>
  */
 @RestController
@@ -20,8 +24,16 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class FileController {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileController.class);
+
     private static String UPLOAD_DIR = "uploads/";
 
+    private final MeterRegistry meterRegistry;
+
+    public FileController(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Sube un archivo al servidor.
      *
@@ -31,6 +43,7 @@ public class FileController {
     @PostMapping("/upload")
     public ResponseEntity<?> uploadFile(@RequestParam("file") MultipartFile file) {
         if (file.isEmpty()) {
+            meterRegistry.counter("wallet.uploads", "result", "empty").increment();
             return ResponseEntity.badRequest().body(Map.of("message", "File is empty"));
         }
 
@@ -45,9 +58,12 @@ public class FileController {
             Files.copy(file.getInputStream(), filePath);
 
             String fileUrl = "/uploads/" + fileName;
+            meterRegistry.counter("wallet.uploads", "result", "success").increment();
+            meterRegistry.summary("wallet.uploads.size").record(file.getSize());
             return ResponseEntity.ok(Map.of("url", fileUrl));
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.error("Error guardando el archivo subido", e);
+            meterRegistry.counter("wallet.uploads", "result", "error").increment();
             return ResponseEntity.internalServerError().body(Map.of("message", "Could not upload file: " + e.getMessage()));
         }
         
@@ -2,13 +2,22 @@ package com.wallet.secure.controller;
 
 import com.wallet.secure.entity.Insurance;
 import com.wallet.secure.entity.User;
+import com.wallet.secure.entity.Views;
 import com.wallet.secure.repository.InsuranceRepository;
 import com.wallet.secure.repository.UserRepository;
 import com.wallet.secure.repository.PaymentRepository;
+import com.wallet.secure.service.ArchiveService;
+import com.wallet.secure.service.InsuranceImportService;
+import com.wallet.secure.service.InsuranceSearchService;
+import com.wallet.secure.service.InsuranceSuggestService;
+import org.springframework.data.web.PagedModel;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -28,39 +37,150 @@ public class InsuranceRestController {
     private final UserRepository userRepository;
     private final PaymentRepository paymentRepository;
     private final com.wallet.secure.repository.BeneficiaryRepository beneficiaryRepository;
+    private final InsuranceSearchService searchService;
+    private final InsuranceSuggestService suggestService;
+    private final InsuranceImportService importService;
+    private final ArchiveService archiveService;
 
-    public InsuranceRestController(InsuranceRepository insuranceRepository, UserRepository userRepository, PaymentRepository paymentRepository, com.wallet.secure.repository.BeneficiaryRepository beneficiaryRepository) {
+    public InsuranceRestController(InsuranceRepository insuranceRepository, UserRepository userRepository, PaymentRepository paymentRepository, com.wallet.secure.repository.BeneficiaryRepository beneficiaryRepository,
+                                   InsuranceSearchService searchService, InsuranceSuggestService suggestService, InsuranceImportService importService,
+                                   ArchiveService archiveService) {
         this.insuranceRepository = insuranceRepository;
         this.userRepository = userRepository;
         this.paymentRepository = paymentRepository;
         this.beneficiaryRepository = beneficiaryRepository;
+        this.searchService = searchService;
+        this.suggestService = suggestService;
+        this.importService = importService;
+        this.archiveService = archiveService;
     }
 
     /**
      * Obtiene todos los seguros pertenecientes al usuario autenticado.
+     * <p>Usa la vista {@link Views.Summary}: el listado no incluye reclamaciones, pagos ni beneficiarios.</p>
+     * <p>Responde 304 Not Modified (sin consultar los seguros) si el ETag enviado en If-None-Match sigue vigente.</p>
      *
+     * <p>Las pólizas archivadas (caducadas hace tiempo) solo se incluyen si se piden, al final y con {@code archived: true}.</p>
+     *
+     * @param includeArchived Si se añaden las pólizas archivadas.
      * @param userDetails Detalles del usuario autenticado actual.
-     * @return Lista de seguros del usuario.
+     * @param request Petición web, usada para la validación condicional.
+     * @return Lista de seguros del usuario, o null si no ha cambiado (304).
      */
     @GetMapping
-    public List<Insurance> getAllInsurances(@AuthenticationPrincipal UserDetails userDetails) {
+    @com.fasterxml.jackson.annotation.JsonView(Views.Summary.class)
+    public List<Insurance> getAllInsurances(@RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived,
+                                            @AuthenticationPrincipal UserDetails userDetails, WebRequest request) {
+        User user = userRepository.findByEmail(userDetails.getUsername());
+        if (request.checkNotModified(dataETag(user, includeArchived ? "list-archived" : "list"))) {
+            return null;
+        }
+        List<Insurance> insurances = insuranceRepository.findByUser(user, org.springframework.data.domain.Pageable.unpaged()).getContent();
+        if (!includeArchived) {
+            return insurances;
+        }
+        List<Insurance> all = new java.util.ArrayList<>(insurances);
+        all.addAll(archiveService.findArchivedInsurances(user.getId()));
+        return all;
+    }
+
+    /**
+     * Busca en las pólizas del usuario por título, compañía, número de póliza y categoría.
+     * <p>
+     * Los resultados vienen ordenados por relevancia y paginados ({@code content} y {@code page} con
+     * {@code number}, {@code size}, {@code totalElements} y {@code totalPages}). Como el listado,
+     * responde 304 si los datos del usuario no han cambiado desde el ETag enviado.
+     * </p>
+     *
+     * @param q Texto buscado; se exigen todas sus palabras.
+     * @param page Número de página (desde 0).
+     * @param size Resultados por página (máximo {@value InsuranceSearchService#MAX_PAGE_SIZE}).
+     * @param userDetails Detalles del usuario autenticado.
+     * @param request Petición web, usada para la validación condicional.
+     * @return Página de resultados en la vista resumen, o null si no ha cambiado (304).
+     */
+    @GetMapping("/search")
+    @com.fasterxml.jackson.annotation.JsonView(Views.Summary.class)
+    public PagedModel<Insurance> searchInsurances(@RequestParam("q") String q,
+                                                  @RequestParam(value = "page", defaultValue = "0") int page,
+                                                  @RequestParam(value = "size", defaultValue = "20") int size,
+                                                  @AuthenticationPrincipal UserDetails userDetails, WebRequest request) {
+        User user = userRepository.findByEmail(userDetails.getUsername());
+        if (request.checkNotModified(dataETag(user, "search"))) {
+            return null;
+        }
+        return new PagedModel<>(searchService.search(user, q, page, size));
+    }
+
+    /**
+     * Sugerencias para autocompletar la compañía o la categoría mientras se escribe.
+     * <p>
+     * Se responden desde memoria ({@link InsuranceSuggestService}), sin consultar la base de datos, y el
+     * navegador puede reutilizarlas durante un minuto. Solo incluyen valores que usan varios usuarios.
+     * </p>
+     *
+     * @param field {@code company} o {@code category}.
+     * @param prefix Texto escrito hasta ahora (sin distinguir mayúsculas ni tildes).
+     * @param limit Número máximo de sugerencias.
+     * @return Valores más usados que empiezan por el prefijo, o 400 si el campo no admite sugerencias.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggest(@RequestParam("field") String field,
+                                                @RequestParam(value = "prefix", defaultValue = "") String prefix,
+                                                @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (!InsuranceSuggestService.COMPANY.equals(field) && !InsuranceSuggestService.CATEGORY.equals(field)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(org.springframework.http.CacheControl.maxAge(java.time.Duration.ofMinutes(1)).cachePrivate())
+                .body(suggestService.suggest(field, prefix, limit));
+    }
+
+    /**
+     * Pagos de todas las pólizas del usuario con fecha en {@code [from, to)}, por fecha (calendario de pagos).
+     * <p>Con los pagos particionados por año solo se leen las particiones del periodo.</p>
+     *
+     * @param from Primer día (incluido).
+     * @param to Día final (excluido).
+     * @param userDetails Detalles del usuario autenticado.
+     * @return Pagos del periodo, o 400 si el periodo está vacío.
+     */
+    @GetMapping("/payments")
+    public ResponseEntity<List<com.wallet.secure.entity.Payment>> getPayments(
+            @RequestParam("from") @org.springframework.format.annotation.DateTimeFormat(pattern = "yyyy-MM-dd") java.time.LocalDate from,
+            @RequestParam("to") @org.springframework.format.annotation.DateTimeFormat(pattern = "yyyy-MM-dd") java.time.LocalDate to,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
         User user = userRepository.findByEmail(userDetails.getUsername());
-        return insuranceRepository.findByUser(user, org.springframework.data.domain.Pageable.unpaged()).getContent();
+        return ResponseEntity.ok(paymentRepository.findByUserAndPeriod(user.getId(), from, to));
     }
 
     /**
      * Obtiene una póliza de seguro específica por su ID.
      * <p>Valida que el seguro pertenezca al usuario solicitante.</p>
+     * <p>
+     * Las colecciones de la vista de detalle se cargan dentro de una transacción de solo lectura,
+     * ya que con open-in-view desactivado la serialización JSON ocurre sin conexión abierta.
+     * </p>
      *
      * @param id Identificador del seguro.
      * @param userDetails Detalles del usuario autenticado.
-     * @return ResponseEntity con el seguro si existe y pertenece al usuario, o 404 Not Found.
+     * @return ResponseEntity con el seguro (y su ETag) si existe y pertenece al usuario, o 404 Not Found.
+     *         Si el ETag coincide con If-None-Match, Spring responde 304 sin serializar el cuerpo.
      */
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Insurance> getInsurance(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
-         Insurance insurance = insuranceRepository.findById(id).orElse(null);
+         Insurance insurance = insuranceRepository.findWithUserById(id).orElse(null);
          if (insurance != null && insurance.getUser().getEmail().equals(userDetails.getUsername())) {
-             return ResponseEntity.ok(insurance);
+             org.hibernate.Hibernate.initialize(insurance.getClaims());
+             org.hibernate.Hibernate.initialize(insurance.getPayments());
+             org.hibernate.Hibernate.initialize(insurance.getBeneficiaries());
+             return ResponseEntity.ok()
+                     .eTag(dataETag(insurance.getUser(), "ins-" + id + "-v" + insurance.getVersion()))
+                     .body(insurance);
          }
          return ResponseEntity.notFound().build();
     }
@@ -74,11 +194,15 @@ public class InsuranceRestController {
      * @return La póliza de seguro creada.
      */
     @PostMapping
+    @com.fasterxml.jackson.annotation.JsonView(Views.Summary.class)
     public Insurance createInsurance(@RequestBody Insurance insurance, @AuthenticationPrincipal UserDetails userDetails) {
         User user = userRepository.findByEmail(userDetails.getUsername());
         insurance.setUser(user);
+        insurance.setCompany(suggestService.canonical(InsuranceSuggestService.COMPANY, insurance.getCompany()));
+        insurance.setCategory(suggestService.canonical(InsuranceSuggestService.CATEGORY, insurance.getCategory()));
         
         Insurance saved = insuranceRepository.save(insurance);
+        suggestService.replace(null, null, saved.getCompany(), saved.getCategory());
         
         // Initial Payment Logic (copied from original controller)
         if (insurance.getPremiumAmount() != null) {
@@ -89,36 +213,73 @@ public class InsuranceRestController {
             p.setStatus(com.wallet.secure.entity.Payment.Status.PENDING);
             paymentRepository.save(p);
         }
-        
+        userRepository.incrementDataVersion(user.getId());
+
         return saved;
     }
 
+    /**
+     * Importa en bloque las pólizas de un fichero CSV para el usuario autenticado.
+     * <p>
+     * Las filas válidas se guardan aunque otras tengan errores; el informe indica cuántas se
+     * importaron y por qué se rechazó cada una (ver {@link InsuranceImportService}).
+     * </p>
+     *
+     * @param file Fichero CSV con cabecera.
+     * @param userDetails Detalles del usuario autenticado.
+     * @return Informe de la importación, o 400 si el fichero no tiene las columnas obligatorias.
+     * @throws java.io.IOException Si no se puede leer el fichero subido.
+     */
+    @PostMapping(value = "/import", consumes = org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importInsurances(@RequestParam("file") org.springframework.web.multipart.MultipartFile file,
+                                              @AuthenticationPrincipal UserDetails userDetails) throws java.io.IOException {
+        User user = userRepository.findByEmail(userDetails.getUsername());
+        try (java.io.InputStream input = file.getInputStream()) {
+            return ResponseEntity.ok(importService.importCsv(user, input));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("message", e.getMessage()));
+        }
+    }
+
     /**
      * Actualiza una póliza de seguro existente.
+     * <p>
+     * Si el cuerpo incluye {@code version} y no coincide con la actual, otro cliente ha modificado
+     * la póliza desde que se leyó y se responde 409 Conflict en lugar de sobrescribir sus cambios.
+     * </p>
      *
      * @param id Identificador del seguro a actualizar.
      * @param insuranceDetails Nuevos detalles del seguro.
      * @param userDetails Detalles del usuario autenticado.
-     * @return ResponseEntity con el seguro actualizado o 404 si no se encuentra/autoriza.
+     * @return ResponseEntity con el seguro actualizado (vista resumen), 404 si no se encuentra/autoriza o 409 si la versión no coincide.
      */
     @PutMapping("/{id}")
+    @com.fasterxml.jackson.annotation.JsonView(Views.Summary.class)
     public ResponseEntity<Insurance> updateInsurance(@PathVariable Long id, @RequestBody Insurance insuranceDetails, @AuthenticationPrincipal UserDetails userDetails) {
-        Insurance insurance = insuranceRepository.findById(id).orElse(null);
+        Insurance insurance = insuranceRepository.findWithUserById(id).orElse(null);
         if (insurance == null || !insurance.getUser().getEmail().equals(userDetails.getUsername())) {
             return ResponseEntity.notFound().build();
         }
+        if (insuranceDetails.getVersion() != null && !insuranceDetails.getVersion().equals(insurance.getVersion())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
 
+        String oldCompany = insurance.getCompany();
+        String oldCategory = insurance.getCategory();
         insurance.setTitle(insuranceDetails.getTitle());
         insurance.setPolicyNumber(insuranceDetails.getPolicyNumber());
-        insurance.setCategory(insuranceDetails.getCategory());
-        insurance.setCompany(insuranceDetails.getCompany());
+        insurance.setCategory(suggestService.canonical(InsuranceSuggestService.CATEGORY, insuranceDetails.getCategory()));
+        insurance.setCompany(suggestService.canonical(InsuranceSuggestService.COMPANY, insuranceDetails.getCompany()));
         insurance.setExpiryDate(insuranceDetails.getExpiryDate());
         insurance.setPremiumAmount(insuranceDetails.getPremiumAmount());
         if (insuranceDetails.getImageUrl() != null) {
             insurance.setImageUrl(insuranceDetails.getImageUrl());
         }
 
-        return ResponseEntity.ok(insuranceRepository.save(insurance));
+        Insurance saved = insuranceRepository.save(insurance);
+        suggestService.replace(oldCompany, oldCategory, saved.getCompany(), saved.getCategory());
+        userRepository.incrementDataVersion(insurance.getUser().getId());
+        return ResponseEntity.ok(saved);
     }
 
     /**
@@ -130,9 +291,11 @@ public class InsuranceRestController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteInsurance(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
-        Insurance insurance = insuranceRepository.findById(id).orElse(null);
+        Insurance insurance = insuranceRepository.findWithUserById(id).orElse(null);
         if (insurance != null && insurance.getUser().getEmail().equals(userDetails.getUsername())) {
             insuranceRepository.deleteById(id);
+            suggestService.replace(insurance.getCompany(), insurance.getCategory(), null, null);
+            userRepository.incrementDataVersion(insurance.getUser().getId());
             return ResponseEntity.ok().build();
         }
         return ResponseEntity.notFound().build();
@@ -148,11 +311,24 @@ public class InsuranceRestController {
      */
     @PostMapping("/{id}/beneficiaries")
     public ResponseEntity<com.wallet.secure.entity.Beneficiary> addBeneficiary(@PathVariable Long id, @RequestBody com.wallet.secure.entity.Beneficiary beneficiary, @AuthenticationPrincipal UserDetails userDetails) {
-        Insurance insurance = insuranceRepository.findById(id).orElse(null);
+        Insurance insurance = insuranceRepository.findWithUserById(id).orElse(null);
          if (insurance != null && insurance.getUser().getEmail().equals(userDetails.getUsername())) {
              beneficiary.setInsurance(insurance);
-             return ResponseEntity.ok(beneficiaryRepository.save(beneficiary));
+             com.wallet.secure.entity.Beneficiary saved = beneficiaryRepository.save(beneficiary);
+             userRepository.incrementDataVersion(insurance.getUser().getId());
+             return ResponseEntity.ok(saved);
          }
          return ResponseEntity.notFound().build();
     }
+
+    /**
+     * Construye un ETag débil a partir del contador de cambios de datos del usuario.
+     *
+     * @param user Propietario de los seguros.
+     * @param resource Recurso concreto (listado o ficha) para no compartir ETag entre representaciones.
+     * @return ETag débil, p. ej. {@code W/"u3-list-17"}.
+     */
+    private String dataETag(User user, String resource) {
+        return "W/\"u" + user.getId() + "-" + resource + "-" + user.getDataVersion() + "\"";
+    }
 }
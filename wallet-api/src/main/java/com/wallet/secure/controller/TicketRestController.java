@@ -4,9 +4,13 @@ import com.wallet.secure.entity.Ticket;
 import com.wallet.secure.entity.User;
 import com.wallet.secure.repository.TicketRepository;
 import com.wallet.secure.repository.UserRepository;
+import com.wallet.secure.service.ArchiveService;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -22,35 +26,62 @@ public class TicketRestController {
 
     private final TicketRepository ticketRepository;
     private final UserRepository userRepository;
+    private final ArchiveService archiveService;
 
-    public TicketRestController(TicketRepository ticketRepository, UserRepository userRepository) {
+    public TicketRestController(TicketRepository ticketRepository, UserRepository userRepository, ArchiveService archiveService) {
         this.ticketRepository = ticketRepository;
         this.userRepository = userRepository;
+        this.archiveService = archiveService;
     }
 
     /**
      * Obtiene una lista de todos los tickets existentes ordenados cronológicamente.
+     * <p>Los tickets archivados (cerrados hace tiempo) solo se incluyen si se piden, detrás de los demás.</p>
+     * <p>Con {@code since} solo se devuelven los creados desde ese día, y solo se leen las particiones de esos años.</p>
      *
+     * @param since Día de creación mínimo (opcional).
+     * @param includeArchived Si se añaden los tickets archivados.
      * @return Lista completa de tickets.
      */
     @GetMapping
-    public List<Ticket> getAllTickets() {
-        return ticketRepository.findAllByOrderByCreatedAtDesc();
+    public List<Ticket> getAllTickets(@RequestParam(value = "since", required = false) @org.springframework.format.annotation.DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate since,
+                                      @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
+        LocalDateTime from = since != null ? since.atStartOfDay() : null;
+        List<Ticket> tickets = from != null
+                ? ticketRepository.findByCreatedAtGreaterThanEqualOrderByCreatedAtDesc(from)
+                : ticketRepository.findAllByOrderByCreatedAtDesc();
+        return includeArchived ? withArchived(tickets, archiveService.findArchivedTickets(from)) : tickets;
     }
 
     /**
      * Obtiene los tickets creados por un usuario específico.
      *
      * @param userId Identificador del usuario.
+     * @param since Día de creación mínimo (opcional).
+     * @param includeArchived Si se añaden sus tickets archivados.
      * @return ResponseEntity con la lista de tickets del usuario o 404 Not Found.
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Ticket>> getTicketsByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<Ticket>> getTicketsByUser(@PathVariable Long userId,
+                                                         @RequestParam(value = "since", required = false) @org.springframework.format.annotation.DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate since,
+                                                         @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
         return userRepository.findById(userId)
-                .map(user -> ResponseEntity.ok(ticketRepository.findByUserOrderByCreatedAtDesc(user)))
+                .map(user -> {
+                    LocalDateTime from = since != null ? since.atStartOfDay() : null;
+                    List<Ticket> tickets = from != null
+                            ? ticketRepository.findByUserAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(user, from)
+                            : ticketRepository.findByUserOrderByCreatedAtDesc(user);
+                    return ResponseEntity.ok(includeArchived ? withArchived(tickets, archiveService.findArchivedTickets(userId, from)) : tickets);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    private static List<Ticket> withArchived(List<Ticket> tickets, List<Ticket> archived) {
+        List<Ticket> all = new java.util.ArrayList<>(tickets);
+        all.addAll(archived);
+        return all;
+    }
+
     /**
      * Crea un nuevo ticket asociado a un usuario.
      *
@@ -70,11 +101,13 @@ public class TicketRestController {
 
     /**
      * Cierra un ticket existente marcándolo como resuelto.
+     * <p>Transaccional: el ticket devuelto sigue gestionado y su usuario se serializa ya cargado.</p>
      *
      * @param id Identificador del ticket a cerrar.
      * @return ResponseEntity con el ticket actualizado (estado CLOSED).
      */
     @PutMapping("/{id}/close")
+    @Transactional
     public ResponseEntity<Ticket> closeTicket(@PathVariable Long id) {
         return ticketRepository.findById(id)
                 .map(ticket -> {
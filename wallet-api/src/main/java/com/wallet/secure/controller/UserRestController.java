@@ -2,8 +2,12 @@ package com.wallet.secure.controller;
 
 import com.wallet.secure.entity.User;
 import com.wallet.secure.repository.UserRepository;
+import com.wallet.secure.security.ServiceTokenService;
+import com.wallet.secure.service.AccountDeletionService;
 import com.wallet.secure.service.EmailService;
 import com.wallet.secure.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,14 +24,19 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UserRestController {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserRestController.class);
+
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final UserService userService;
+    private final AccountDeletionService accountDeletionService;
 
-    public UserRestController(UserRepository userRepository, EmailService emailService, UserService userService) {
+    public UserRestController(UserRepository userRepository, EmailService emailService, UserService userService,
+                              AccountDeletionService accountDeletionService) {
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.userService = userService;
+        this.accountDeletionService = accountDeletionService;
     }
 
     /**
@@ -57,6 +66,7 @@ public class UserRestController {
 
     /**
      * Busca un usuario por su dirección de correo electrónico.
+     * <p>Incluye un ETag débil basado en la versión de la fila; si coincide con If-None-Match se responde 304.</p>
      *
      * @param email Email del usuario a buscar.
      * @return ResponseEntity con el usuario o 404 Not Found.
@@ -64,20 +74,29 @@ public class UserRestController {
     @GetMapping("/email/{email}")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
         User user = userRepository.findByEmail(email);
-        return user != null ? ResponseEntity.ok(user) : ResponseEntity.notFound().build();
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .eTag("W/\"user-" + user.getId() + "-" + user.getVersion() + "\"")
+                .body(user);
     }
 
     /**
      * Actualiza la información personal de un usuario.
+     * <p>Si el cuerpo incluye {@code version} y no coincide con la actual se responde 409 Conflict.</p>
      *
      * @param id Identificador del usuario a actualizar.
      * @param userDetails Objeto User con los nuevos datos (nombre, email).
-     * @return ResponseEntity con el usuario actualizado.
+     * @return ResponseEntity con el usuario actualizado, 404 si no existe o 409 si la versión no coincide.
      */
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
         return userRepository.findById(id)
                 .map(user -> {
+                    if (userDetails.getVersion() != null && !userDetails.getVersion().equals(user.getVersion())) {
+                        return ResponseEntity.status(org.springframework.http.HttpStatus.CONFLICT).<User>build();
+                    }
                     user.setName(userDetails.getName());
                     user.setEmail(userDetails.getEmail());
                     return ResponseEntity.ok(userRepository.save(user));
@@ -88,9 +107,13 @@ public class UserRestController {
     /**
      * Elimina un usuario del sistema.
      * <p>Evita explícitamente la eliminación del usuario Administrador principal (ID 1).</p>
+     * <p>
+     * La cuenta queda desactivada en el acto y sus datos se borran por lotes en segundo plano
+     * (ver {@link AccountDeletionService}); el avance se consulta en {@code /{id}/deletion}.
+     * </p>
      *
      * @param id Identificador del usuario a eliminar.
-     * @return ResponseEntity con el resultado de la operación.
+     * @return 202 con el progreso del borrado, 400 para el administrador principal o 404.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
@@ -98,13 +121,33 @@ public class UserRestController {
             return ResponseEntity.badRequest().body(java.util.Map.of("message", "No se puede eliminar al Administrador Principal."));
         }
         return userRepository.findById(id)
-                .map(user -> {
-                    userRepository.delete(user);
-                    return ResponseEntity.ok().build();
-                })
+                .<ResponseEntity<?>>map(user -> ResponseEntity.accepted().body(accountDeletionService.requestDeletion(user)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Consulta el progreso del borrado de una cuenta.
+     * <p>
+     * Solo para el propio usuario o un ADMIN. El usuario sale del token y no de la base de datos,
+     * porque la cuenta ya está desactivada y acaba borrándose.
+     * </p>
+     *
+     * @param id Identificador del usuario.
+     * @param authentication Autenticación de la petición (con los datos del token).
+     * @return Progreso del borrado, 403 si la cuenta es de otro usuario, o 404 si esta instancia no tiene constancia de él.
+     */
+    @GetMapping("/{id}/deletion")
+    public ResponseEntity<AccountDeletionService.Progress> getDeletionProgress(@PathVariable Long id,
+                                                                              org.springframework.security.core.Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        boolean owner = authentication.getDetails() instanceof ServiceTokenService.Claims claims && id.equals(claims.userId());
+        if (!admin && !owner) {
+            return ResponseEntity.status(org.springframework.http.HttpStatus.FORBIDDEN).build();
+        }
+        AccountDeletionService.Progress progress = accountDeletionService.progress(id);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+
     /**
      * Solicita un cambio de rol para un usuario.
      * <p>
@@ -127,7 +170,7 @@ public class UserRestController {
                     try {
                         emailService.sendAdminRoleRequest(user.getEmail(), newRole, user.getRoleChangeToken());
                     } catch (Exception e) {
-                        System.err.println("Error enviando correo al admin: " + e.getMessage());
+                        logger.warn("No se pudo enviar la solicitud de rol de {} al administrador: {}", user.getEmail(), e.getMessage());
                     }
 
                     return ResponseEntity.ok().build();
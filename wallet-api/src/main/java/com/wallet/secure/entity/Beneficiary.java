@@ -10,6 +10,8 @@ import jakarta.persistence.*;
  * </p>
  */
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE, region = "beneficiaries")
 @Table(name = "beneficiaries")
 public class Beneficiary {
 
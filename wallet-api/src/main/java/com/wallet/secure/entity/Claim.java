@@ -21,6 +21,13 @@ public class Claim {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versión para bloqueo optimista; se incrementa en cada actualización.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     private String description;
     
     private LocalDate incidentDate;
@@ -47,6 +54,9 @@ public class Claim {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
@@ -11,7 +11,10 @@ import java.time.LocalDate;
  * </p>
  */
 @Entity
-@Table(name = "insurances")
+@Cacheable
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE, region = "insurances")
+// expiry_date: el archivado busca las pólizas caducadas sin recorrer la tabla
+@Table(name = "insurances", indexes = @Index(name = "idx_insurances_expiry_date", columnList = "expiry_date"))
 public class Insurance {
 
     /**
@@ -21,6 +24,13 @@ public class Insurance {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versión para bloqueo optimista; se incrementa en cada actualización.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @jakarta.validation.constraints.NotBlank(message = "El título es obligatorio")
     private String title;
     
@@ -58,13 +68,25 @@ public class Insurance {
         MONTHLY, QUARTERLY, YEARLY
     }
 
+    /**
+     * Leído de la tabla de archivo (ver {@link com.wallet.secure.service.ArchiveService}); solo se
+     * serializa cuando es true.
+     */
+    @Transient
+    @com.fasterxml.jackson.annotation.JsonInclude(com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT)
+    private boolean archived;
+
+    @com.fasterxml.jackson.annotation.JsonView(Views.Detail.class)
     @OneToMany(mappedBy = "insurance", cascade = CascadeType.ALL, orphanRemoval = true)
     private java.util.List<Claim> claims = new java.util.ArrayList<>();
 
+    @com.fasterxml.jackson.annotation.JsonView(Views.Detail.class)
     @OneToMany(mappedBy = "insurance", cascade = CascadeType.ALL, orphanRemoval = true)
     private java.util.List<Payment> payments = new java.util.ArrayList<>();
 
+    @com.fasterxml.jackson.annotation.JsonView(Views.Detail.class)
     @OneToMany(mappedBy = "insurance", cascade = CascadeType.ALL, orphanRemoval = true)
+    @org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE, region = "insurance-beneficiaries")
     private java.util.List<Beneficiary> beneficiaries = new java.util.ArrayList<>();
 
     // Constructors
@@ -81,11 +103,13 @@ public class Insurance {
     public java.util.List<Beneficiary> getBeneficiaries() { return beneficiaries; }
     public void setBeneficiaries(java.util.List<Beneficiary> beneficiaries) { this.beneficiaries = beneficiaries; }
 
-    // Helper Method
+    // Helper Method (calculados en el cliente, no se serializan)
+    @com.fasterxml.jackson.annotation.JsonIgnore
     public boolean isActive() {
         return expiryDate != null && !expiryDate.isBefore(LocalDate.now());
     }
 
+    @com.fasterxml.jackson.annotation.JsonIgnore
     public boolean isExpiringSoon() {
         if (expiryDate == null) return false;
         LocalDate now = LocalDate.now();
@@ -96,6 +120,9 @@ public class Insurance {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
@@ -125,4 +152,7 @@ public class Insurance {
 
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
+
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
 }
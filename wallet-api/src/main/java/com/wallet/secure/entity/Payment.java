@@ -11,7 +11,9 @@ import java.time.LocalDate;
  * </p>
  */
 @Entity
-@Table(name = "payments")
+// La clave foránea hacia insurances la crea SchemaFixer solo si la tabla no está particionada (MySQL no las
+// admite en tablas particionadas, ver PartitionService): el índice que antes creaba la clave se declara aquí
+@Table(name = "payments", indexes = @Index(name = "idx_payments_insurance_id", columnList = "insurance_id"))
 public class Payment {
 
     /**
@@ -21,14 +23,24 @@ public class Payment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versión para bloqueo optimista; se incrementa en cada actualización.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     private Double amount;
+
+    /** Columna de partición: forma parte de la clave primaria en las tablas particionadas. */
+    @Column(nullable = false)
     private LocalDate paymentDate;
     
     @Enumerated(EnumType.STRING)
     private Status status; // PAID, PENDING, OVERDUE
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "insurance_id")
+    @JoinColumn(name = "insurance_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonIgnore
     private Insurance insurance;
 
@@ -49,6 +61,9 @@ public class Payment {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public Double getAmount() { return amount; }
     public void setAmount(Double amount) { this.amount = amount; }
 
@@ -59,5 +74,8 @@ public class Payment {
     public void setStatus(Status status) { this.status = status; }
 
     public Insurance getInsurance() { return insurance; }
+
+    /** Póliza del pago, para los listados con pagos de varias pólizas (no inicializa la póliza). */
+    public Long getInsuranceId() { return insurance != null ? insurance.getId() : null; }
     public void setInsurance(Insurance insurance) { this.insurance = insurance; }
 }
@@ -11,7 +11,12 @@ import java.time.LocalDateTime;
  * </p>
  */
 @Entity
-@Table(name = "tickets")
+// status + created_at: el archivado busca los tickets cerrados antiguos sin recorrer la tabla.
+// user_id + created_at: los tickets de un usuario, sin depender del índice de la clave foránea, que
+// SchemaFixer solo crea si la tabla no está particionada (MySQL no las admite, ver PartitionService)
+@Table(name = "tickets", indexes = {
+        @Index(name = "idx_tickets_status_created_at", columnList = "status, created_at"),
+        @Index(name = "idx_tickets_user_created_at", columnList = "user_id, created_at")})
 public class Ticket {
 
     /**
@@ -21,6 +26,13 @@ public class Ticket {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versión para bloqueo optimista; se incrementa en cada actualización.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     private String subject;
     
     @Column(columnDefinition = "TEXT")
@@ -29,12 +41,22 @@ public class Ticket {
     @Enumerated(EnumType.STRING)
     private Status status;
 
+    /** Columna de partición: forma parte de la clave primaria en las tablas particionadas. */
+    @Column(nullable = false)
     private LocalDateTime createdAt;
-    
+
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id")
+    @JoinColumn(name = "user_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User user;
 
+    /**
+     * Leído de la tabla de archivo (ver {@link com.wallet.secure.service.ArchiveService}); solo se
+     * serializa cuando es true.
+     */
+    @Transient
+    @com.fasterxml.jackson.annotation.JsonInclude(com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT)
+    private boolean archived;
+
     public enum Status {
         OPEN, CLOSED
     }
@@ -48,6 +70,9 @@ public class Ticket {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public String getSubject() { return subject; }
     public void setSubject(String subject) { this.subject = subject; }
 
@@ -62,4 +87,7 @@ public class Ticket {
 
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
+
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
 }
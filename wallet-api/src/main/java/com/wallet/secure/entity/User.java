@@ -13,6 +13,8 @@ import java.util.List;
  * </p>
  */
 @Entity
+@Cacheable
+@org.hibernate.annotations.Cache(usage = org.hibernate.annotations.CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users")
 public class User {
 
@@ -23,19 +25,45 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versión para bloqueo optimista (se incrementa en cada actualización del usuario).
+     * También es la fuente del ETag del recurso usuario.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Contador de cambios en los datos del usuario (seguros, reclamaciones, beneficiarios).
+     * Fuente del ETag de los listados y fichas de seguros.
+     * <p>Solo lo cambia {@code UserRepository.incrementDataVersion}: no es actualizable desde la entidad,
+     * para que guardar un usuario leído antes del incremento no devuelva el contador a un valor antiguo,
+     * y tras cada UPDATE se vuelve a leer de la base de datos, para que la caché de segundo nivel no se
+     * quede con el valor de la copia guardada.</p>
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    @org.hibernate.annotations.Generated(event = org.hibernate.generator.EventType.UPDATE)
+    @Column(name = "data_version", nullable = false, updatable = false)
+    private long dataVersion;
+
     @jakarta.persistence.Column(length = 50)
     @jakarta.validation.constraints.Size(max = 50, message = "El nombre no puede superar los 50 caracteres")
     private String name;
     private String email;
+
+    // Solo escritura: el hash nunca sale de la API
+    @com.fasterxml.jackson.annotation.JsonProperty(access = com.fasterxml.jackson.annotation.JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     private String role;
 
     private boolean enabled = false;
 
+    @com.fasterxml.jackson.annotation.JsonIgnore
     @Column(name = "verification_code", length = 64)
     private String verificationCode;
 
+    @com.fasterxml.jackson.annotation.JsonIgnore
     @Column(name = "reset_token")
     private String resetToken;
 
@@ -57,6 +85,14 @@ public class User {
     @com.fasterxml.jackson.annotation.JsonIgnore
     private String requestedRole;
 
+    /**
+     * Momento en que se pidió borrar la cuenta. Mientras no sea null la cuenta está desactivada y
+     * {@link com.wallet.secure.service.AccountDeletionService} va borrando sus datos.
+     */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    @Column(name = "deletion_requested_at")
+    private java.time.LocalDateTime deletionRequestedAt;
+
     // Constructors
     public User() {}
 
@@ -71,6 +107,12 @@ public class User {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public long getDataVersion() { return dataVersion; }
+    public void setDataVersion(long dataVersion) { this.dataVersion = dataVersion; }
+
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
@@ -111,6 +153,9 @@ public class User {
 
     public String getRequestedRole() { return requestedRole; }
     public void setRequestedRole(String requestedRole) { this.requestedRole = requestedRole; }
+
+    public java.time.LocalDateTime getDeletionRequestedAt() { return deletionRequestedAt; }
+    public void setDeletionRequestedAt(java.time.LocalDateTime deletionRequestedAt) { this.deletionRequestedAt = deletionRequestedAt; }
     
     // Helper method to add insurance
     public void addInsurance(Insurance insurance) {
@@ -0,0 +1,24 @@
+package com.wallet.secure.entity;
+
+/**
+ * Vistas de serialización JSON (Jackson {@code @JsonView}) para las entidades.
+ * <p>
+ * Permiten que cada endpoint devuelva solo los campos que necesita el cliente:
+ * los listados usan {@link Summary} y las fichas de detalle {@link Detail}.
+ * Los campos sin anotar se incluyen en todas las vistas.
+ * </p>
+ */
+public final class Views {
+
+    private Views() {}
+
+    /**
+     * Vista reducida para listados (sin colecciones anidadas).
+     */
+    public interface Summary {}
+
+    /**
+     * Vista completa para la ficha de detalle (incluye colecciones anidadas).
+     */
+    public interface Detail extends Summary {}
+}
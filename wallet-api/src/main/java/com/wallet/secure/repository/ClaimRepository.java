@@ -1,8 +1,12 @@
 package com.wallet.secure.repository;
 
 import com.wallet.secure.entity.Claim;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 /**
  * Repositorio para la gestión de reclamaciones (claims).
@@ -11,5 +15,15 @@ import org.springframework.stereotype.Repository;
  * </p>
  */
 @Repository
+@Transactional(readOnly = true)
 public interface ClaimRepository extends JpaRepository<Claim, Long> {
+
+    /**
+     * Busca una reclamación cargando su seguro y el propietario de este en la misma consulta.
+     *
+     * @param id Identificador de la reclamación.
+     * @return La reclamación con seguro y usuario inicializados, si existe.
+     */
+    @EntityGraph(attributePaths = "insurance.user")
+    Optional<Claim> findWithOwnerById(Long id);
 }
@@ -2,20 +2,27 @@ package com.wallet.secure.repository;
 
 import com.wallet.secure.entity.Insurance;
 import com.wallet.secure.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para la gestión de pólizas de seguro.
  * <p>
- * Permite realizar operaciones CRUD y búsquedas filtradas por usuario,
- * título y categoría, permitiendo paginación.
+ * Permite realizar operaciones CRUD y búsquedas filtradas por usuario y categoría, y la búsqueda
+ * de texto que usa {@link com.wallet.secure.service.InsuranceSearchService}, con paginación.
  * </p>
  */
 @Repository
-public interface InsuranceRepository extends JpaRepository<Insurance, Long> {
+@Transactional(readOnly = true)
+public interface InsuranceRepository extends JpaRepository<Insurance, Long>, JpaSpecificationExecutor<Insurance> {
 
     /**
      * Obtiene una página de seguros asociados a un usuario.
@@ -26,15 +33,6 @@ public interface InsuranceRepository extends JpaRepository<Insurance, Long> {
      */
     org.springframework.data.domain.Page<Insurance> findByUser(User user, org.springframework.data.domain.Pageable pageable);
     
-    /**
-     * Busca seguros de un usuario que contengan un texto en el título (ignorando mayúsculas/minúsculas).
-     *
-     * @param user El usuario propietario.
-     * @param title El texto a buscar en el título.
-     * @return Lista de seguros que coinciden con el criterio.
-     */
-    List<Insurance> findByUserAndTitleContainingIgnoreCase(User user, String title);
-
     /**
      * Busca seguros de un usuario que pertenezcan a una categoría específica.
      *
@@ -45,12 +43,60 @@ public interface InsuranceRepository extends JpaRepository<Insurance, Long> {
     List<Insurance> findByUserAndCategory(User user, String category);
 
     /**
-     * Busca seguros de un usuario filtrando por título y categoría simultáneamente.
+     * Búsqueda de texto completo (MySQL, índice FULLTEXT con parser ngram) en título, compañía,
+     * número de póliza y categoría, ordenada por relevancia.
+     * <p>
+     * {@code match} filtra en modo booleano (cada palabra como frase obligatoria, p. ej.
+     * {@code +"hogar" +"mapfre"}) y {@code rank} ordena por la puntuación en lenguaje natural.
+     * </p>
      *
-     * @param user El usuario propietario.
-     * @param title El texto a buscar en el título.
-     * @param category La categoría del seguro.
-     * @return Lista de seguros que cumplen ambos criterios.
+     * @param userId Propietario de las pólizas.
+     * @param match Consulta en modo booleano.
+     * @param rank Consulta en lenguaje natural para la puntuación.
+     * @param pageable Página (el orden lo fija la consulta).
+     * @return Página de pólizas de mayor a menor relevancia.
+     */
+    @Query(value = "SELECT i.* FROM insurances i WHERE i.user_id = :userId"
+            + " AND MATCH(i.title, i.company, i.policy_number, i.category) AGAINST (:match IN BOOLEAN MODE)"
+            + " ORDER BY MATCH(i.title, i.company, i.policy_number, i.category) AGAINST (:rank IN NATURAL LANGUAGE MODE) DESC, i.id DESC",
+            countQuery = "SELECT COUNT(*) FROM insurances i WHERE i.user_id = :userId"
+            + " AND MATCH(i.title, i.company, i.policy_number, i.category) AGAINST (:match IN BOOLEAN MODE)",
+            nativeQuery = true)
+    org.springframework.data.domain.Page<Insurance> searchFullText(@Param("userId") Long userId, @Param("match") String match,
+                                                                 @Param("rank") String rank,
+                                                                 org.springframework.data.domain.Pageable pageable);
+
+    /**
+     * Cuenta las pólizas de un usuario (índice de {@code user_id}); decide la estrategia de búsqueda.
+     *
+     * @param user Propietario.
+     * @return Número de pólizas.
+     */
+    long countByUser(User user);
+
+    /**
+     * Cuenta las pólizas de cada compañía y usuario, para el índice de sugerencias.
+     *
+     * @return Filas {@code [compañía, id del usuario, número de pólizas]}.
+     */
+    @Query("SELECT i.company, i.user.id, COUNT(i) FROM Insurance i WHERE i.company IS NOT NULL GROUP BY i.company, i.user.id")
+    List<Object[]> countByCompany();
+
+    /**
+     * Cuenta las pólizas de cada categoría y usuario, para el índice de sugerencias.
+     *
+     * @return Filas {@code [categoría, id del usuario, número de pólizas]}.
+     */
+    @Query("SELECT i.category, i.user.id, COUNT(i) FROM Insurance i WHERE i.category IS NOT NULL GROUP BY i.category, i.user.id")
+    List<Object[]> countByCategory();
+
+    /**
+     * Busca un seguro cargando también su propietario en la misma consulta.
+     * <p>Permite comprobar la propiedad fuera de una transacción (open-in-view desactivado).</p>
+     *
+     * @param id Identificador del seguro.
+     * @return El seguro con su usuario inicializado, si existe.
      */
-    List<Insurance> findByUserAndTitleContainingIgnoreCaseAndCategory(User user, String title, String category);
+    @EntityGraph(attributePaths = "user")
+    Optional<Insurance> findWithUserById(Long id);
 }
@@ -2,7 +2,11 @@ package com.wallet.secure.repository;
 
 import com.wallet.secure.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Repositorio para la gestión de pagos.
@@ -12,4 +16,20 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    /**
+     * Pagos de las pólizas de un usuario con fecha en {@code [from, to)}, por fecha.
+     * <p>
+     * El rango se compara directamente con {@code paymentDate} (sin funciones sobre la columna) para
+     * que MySQL lea solo las particiones de esos años (ver {@link com.wallet.secure.service.PartitionService}).
+     * </p>
+     *
+     * @param userId Usuario dueño de las pólizas.
+     * @param from Primer día (incluido).
+     * @param to Día final (excluido).
+     * @return Pagos del periodo.
+     */
+    @Query("SELECT p FROM Payment p JOIN p.insurance i WHERE i.user.id = :userId"
+            + " AND p.paymentDate >= :from AND p.paymentDate < :to ORDER BY p.paymentDate, p.id")
+    List<Payment> findByUserAndPeriod(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
 }
@@ -2,9 +2,13 @@ package com.wallet.secure.repository;
 
 import com.wallet.secure.entity.Ticket;
 import com.wallet.secure.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio para la gestión de tickets de soporte.
@@ -14,6 +18,7 @@ import java.util.List;
  * </p>
  */
 @Repository
+@Transactional(readOnly = true)
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
     /**
@@ -22,6 +27,7 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
      * @param user El usuario creador de los tickets.
      * @return Lista de tickets del usuario ordenados.
      */
+    @EntityGraph(attributePaths = "user")
     List<Ticket> findByUserOrderByCreatedAtDesc(User user);
 
     /**
@@ -29,5 +35,41 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
      *
      * @return Lista completa de tickets ordenados.
      */
+    @EntityGraph(attributePaths = "user")
     List<Ticket> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Tickets de un usuario creados desde una fecha, más recientes primero.
+     * <p>
+     * La condición sobre {@code createdAt} limita la consulta a las particiones de esos años cuando
+     * la tabla está particionada (ver {@link com.wallet.secure.service.PartitionService}).
+     * </p>
+     *
+     * @param user El usuario creador de los tickets.
+     * @param since Fecha de creación mínima (incluida).
+     * @return Tickets del usuario desde esa fecha.
+     */
+    @EntityGraph(attributePaths = "user")
+    List<Ticket> findByUserAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(User user, LocalDateTime since);
+
+    /**
+     * Tickets de todos los usuarios creados desde una fecha, más recientes primero; como
+     * {@link #findByUserAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc} solo lee las particiones necesarias.
+     *
+     * @param since Fecha de creación mínima (incluida).
+     * @return Tickets desde esa fecha.
+     */
+    @EntityGraph(attributePaths = "user")
+    List<Ticket> findByCreatedAtGreaterThanEqualOrderByCreatedAtDesc(LocalDateTime since);
+
+    /**
+     * Busca un ticket por su ID cargando también el usuario que lo creó.
+     * <p>El usuario se serializa con el ticket, por lo que debe llegar inicializado.</p>
+     *
+     * @param id Identificador del ticket.
+     * @return El ticket con su usuario, si existe.
+     */
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Optional<Ticket> findById(Long id);
 }
@@ -2,7 +2,13 @@ package com.wallet.secure.repository;
 
 import com.wallet.secure.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -12,16 +18,24 @@ import java.util.Optional;
  * Proporciona métodos CRUD y consultas personalizadas para buscar usuarios
  * por email, token de verificación, token de reinicio de contraseña y rol.
  * </p>
+ * <p>
+ * Las consultas declaradas son de solo lectura, de modo que se sirven desde una réplica
+ * (entre ellas la búsqueda por email de cada petición autenticada); las escrituras llevan
+ * su propio {@code @Transactional} y van siempre al primario.
+ * </p>
  */
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
     
     /**
      * Busca un usuario por su correo electrónico.
+     * <p>Consulta cacheable: la mayoría de endpoints resuelven así al usuario autenticado.</p>
      *
      * @param email El correo electrónico del usuario.
      * @return El usuario encontrado o null si no existe.
      */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_CACHEABLE, value = "true"))
     User findByEmail(String email);
     
     /**
@@ -56,4 +70,57 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return El usuario asociado al token o null.
      */
     User findByRoleChangeToken(String roleChangeToken);
+
+    /**
+     * Incrementa de forma atómica el contador de cambios de datos del usuario.
+     * <p>Invalida los ETag de sus seguros; debe llamarse tras cualquier escritura sobre ellos.</p>
+     *
+     * @param userId Identificador del usuario.
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.dataVersion = u.dataVersion + 1 where u.id = :userId")
+    void incrementDataVersion(@Param("userId") Long userId);
+
+    /**
+     * Incrementa el contador de cambios de datos de varios usuarios en una sola sentencia.
+     *
+     * @param userIds Identificadores de los usuarios.
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.dataVersion = u.dataVersion + 1 where u.id in :userIds")
+    void incrementDataVersions(@Param("userIds") java.util.Collection<Long> userIds);
+
+    /**
+     * Sustituye el hash de la contraseña solo si no ha cambiado desde que se leyó.
+     * <p>Evita pisar un restablecimiento de contraseña simultáneo al rehacer el hash tras un login.</p>
+     *
+     * @param userId Identificador del usuario.
+     * @param oldHash Hash leído al verificar.
+     * @param newHash Nuevo hash.
+     * @return Filas modificadas (0 si la contraseña cambió entretanto).
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :newHash where u.id = :userId and u.password = :oldHash")
+    int updatePasswordHash(@Param("userId") Long userId, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    /**
+     * @return Usuarios con el borrado de la cuenta pedido y aún sin completar.
+     */
+    @Query("select u.id from User u where u.deletionRequestedAt is not null")
+    java.util.List<Long> findIdsPendingDeletion();
+
+    /**
+     * Borra el usuario una vez borrados sus datos, solo si sigue marcado para borrar.
+     * <p>Sin cargar la entidad: nada que recorrer en cascada.</p>
+     *
+     * @param userId Identificador del usuario.
+     * @return Filas borradas.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from User u where u.id = :userId and u.deletionRequestedAt is not null")
+    int deletePendingDeletion(@Param("userId") Long userId);
 }
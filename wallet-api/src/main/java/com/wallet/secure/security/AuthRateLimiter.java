@@ -0,0 +1,100 @@
+package com.wallet.secure.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Limita los intentos de login, registro y recuperación de contraseña por email y por IP.
+ * <p>
+ * Cada regla se configura como {@code app.auth.rate-limit.<endpoint>.<clave>=<peticiones>/<periodo>},
+ * por ejemplo {@code app.auth.rate-limit.login.email=10/1m}: ráfaga de 10 y una ficha nueva cada
+ * 6 segundos. Un valor vacío desactiva la regla y {@code app.auth.rate-limit.enabled=false}, todas.
+ * Los cubos viven en un {@link TokenBucketSketch} por regla, así que la memoria no crece con el
+ * número de emails o IP distintos que mande un atacante.
+ * </p>
+ * <p>
+ * Cada rechazo suma en {@code wallet.auth.ratelimit.rejected} (etiquetas {@code endpoint} y {@code key}).
+ * </p>
+ */
+@Component
+public class AuthRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthRateLimiter.class);
+
+    public static final String LOGIN = "login";
+    public static final String REGISTER = "register";
+    public static final String FORGOT_PASSWORD = "forgot-password";
+
+    public static final String BY_IP = "ip";
+    public static final String BY_EMAIL = "email";
+
+    private static final List<String> ENDPOINTS = List.of(LOGIN, REGISTER, FORGOT_PASSWORD);
+
+    private final Map<String, Rule> rules = new HashMap<>();
+    private final long origin = System.nanoTime();
+
+    /**
+     * @param environment Propiedades {@code app.auth.rate-limit.*}.
+     * @param meterRegistry Registro de métricas.
+     */
+    public AuthRateLimiter(Environment environment, MeterRegistry meterRegistry) {
+        if (!environment.getProperty("app.auth.rate-limit.enabled", Boolean.class, true)) {
+            logger.info("Limitación de intentos de autenticación desactivada");
+            return;
+        }
+        int width = environment.getProperty("app.auth.rate-limit.sketch-width", Integer.class, 4096);
+        for (String endpoint : ENDPOINTS) {
+            for (String key : List.of(BY_IP, BY_EMAIL)) {
+                String spec = environment.getProperty("app.auth.rate-limit." + endpoint + "." + key, "");
+                if (spec.isBlank()) {
+                    continue;
+                }
+                int slash = spec.indexOf('/');
+                if (slash <= 0) {
+                    throw new IllegalArgumentException("app.auth.rate-limit." + endpoint + "." + key
+                            + " debe tener la forma <peticiones>/<periodo>, p. ej. 10/1m: " + spec);
+                }
+                int burst = Integer.parseInt(spec.substring(0, slash).trim());
+                long period = DurationStyle.detectAndParse(spec.substring(slash + 1).trim()).toNanos();
+                if (burst > 0 && period > 0) {
+                    rules.put(endpoint + "." + key, new Rule(new TokenBucketSketch(width, burst, period),
+                            meterRegistry.counter("wallet.auth.ratelimit.rejected", "endpoint", endpoint, "key", key)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Consume un intento de la clave en la regla del endpoint.
+     *
+     * @param endpoint {@link #LOGIN}, {@link #REGISTER} o {@link #FORGOT_PASSWORD}.
+     * @param keyType {@link #BY_IP} o {@link #BY_EMAIL}.
+     * @param key IP o email (sin distinguir mayúsculas); null no se limita.
+     * @return 0 si se admite; si no, segundos que debe esperar el cliente ({@code Retry-After}).
+     */
+    public long acquire(String endpoint, String keyType, String key) {
+        Rule rule = rules.get(endpoint + "." + keyType);
+        if (rule == null || key == null) {
+            return 0;
+        }
+        long waitNanos = rule.buckets.acquire(key.trim().toLowerCase(Locale.ROOT), System.nanoTime() - origin + 1);
+        if (waitNanos == 0) {
+            return 0;
+        }
+        rule.rejected.increment();
+        return Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+    }
+
+    private record Rule(TokenBucketSketch buckets, Counter rejected) {
+    }
+}
@@ -1,7 +1,10 @@
 package com.wallet.secure.security;
 
+import com.wallet.secure.config.LogSamplingFilter;
 import com.wallet.secure.entity.User;
 import com.wallet.secure.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,6 +21,8 @@ import java.util.Collections;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
+
     private final UserRepository userRepository;
 
     public CustomUserDetailsService(UserRepository userRepository) {
@@ -35,16 +40,16 @@ public class CustomUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email);
         if (user == null) {
-            System.err.println("LOGIN ERROR: Usuario no encontrado: " + email);
+            logger.warn(LogSamplingFilter.SAMPLED, "Usuario no encontrado: {}", email);
             throw new UsernameNotFoundException("User not found with email: " + email);
         }
 
-        System.out.println("INFO: Intento de inicio de sesión: " + email + " | Rol en BD: " + user.getRole());
-        
+        logger.debug("Cargando usuario {} con rol {}", email, user.getRole());
+
         // Asegurar que el rol tenga el prefijo ROLE_ si falta (verificación de seguridad)
         String roleName = user.getRole();
         if (!roleName.startsWith("ROLE_")) {
-             System.out.println("WARN: Al rol " + roleName + " le falta el prefijo. Agregando ROLE_ temporalmente.");
+             logger.warn(LogSamplingFilter.SAMPLED, "Al rol {} le falta el prefijo ROLE_; se añade temporalmente", roleName);
              roleName = "ROLE_" + roleName;
         }
 
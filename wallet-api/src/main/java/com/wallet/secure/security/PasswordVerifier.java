@@ -0,0 +1,145 @@
+package com.wallet.secure.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifica contraseñas BCrypt en un grupo de hilos propio y acotado.
+ * <p>
+ * Cada verificación consume decenas de milisegundos de CPU. Haciéndolas aquí, una avalancha de
+ * inicios de sesión ocupa como mucho estos hilos y su cola: los hilos de Tomcat quedan libres para
+ * el resto de endpoints. Con la cola llena la petición se rechaza al momento
+ * ({@link RejectedExecutionException}); una tarea que espera más de {@code app.auth.verify-timeout-ms}
+ * se descarta sin calcular el hash, porque el cliente ya ha recibido la respuesta de error.
+ * </p>
+ * <p>
+ * Si el hash guardado tiene un coste menor que el configurado, tras una verificación correcta se
+ * calcula el nuevo hash en la misma tarea ({@link Result#upgradedHash()}).
+ * </p>
+ * <p>
+ * Métricas: {@code wallet.auth.hash} (tiempo de cada hash, por operación),
+ * {@code wallet.auth.verify.rejected} y las de {@code executor.*} con {@code name=password-verifier}
+ * (cola, hilos activos, tareas completadas).
+ * </p>
+ */
+@Component
+public class PasswordVerifier implements DisposableBean {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final Timer verifyTimer;
+    private final Timer rehashTimer;
+    private final Counter rejected;
+
+    /**
+     * @param passwordEncoder Codificador BCrypt con el coste vigente.
+     * @param meterRegistry Registro de métricas.
+     * @param threads Hilos de verificación (0 = uno por núcleo).
+     * @param queueCapacity Verificaciones que pueden esperar turno antes de rechazar.
+     * @param timeoutMillis Espera máxima de una verificación, cola incluida.
+     */
+    public PasswordVerifier(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                            @Value("${app.auth.verify-threads:0}") int threads,
+                            @Value("${app.auth.verify-queue:100}") int queueCapacity,
+                            @Value("${app.auth.verify-timeout-ms:5000}") long timeoutMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMillis = timeoutMillis;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verifier-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        new ExecutorServiceMetrics(executor, "password-verifier", Tags.empty()).bindTo(meterRegistry);
+        this.verifyTimer = Timer.builder("wallet.auth.hash").tag("operation", "verify")
+                .description("Tiempo de cálculo de hashes BCrypt").register(meterRegistry);
+        this.rehashTimer = Timer.builder("wallet.auth.hash").tag("operation", "rehash")
+                .description("Tiempo de cálculo de hashes BCrypt").register(meterRegistry);
+        this.rejected = Counter.builder("wallet.auth.verify.rejected")
+                .description("Verificaciones rechazadas por saturación").register(meterRegistry);
+    }
+
+    /**
+     * Resultado de una verificación.
+     *
+     * @param matches true si la contraseña es correcta.
+     * @param upgradedHash Nuevo hash con el coste vigente, o null si no hace falta cambiarlo.
+     */
+    public record Result(boolean matches, String upgradedHash) {
+    }
+
+    /**
+     * Encola la verificación de una contraseña.
+     * <p>
+     * Las etapas encadenadas al futuro se ejecutan en el hilo de verificación, con el MDC
+     * (identificador de petición) de quien la pidió.
+     * </p>
+     *
+     * @param rawPassword Contraseña recibida.
+     * @param encodedPassword Hash guardado.
+     * @return Futuro con el resultado; falla con {@link TimeoutException} si se supera la espera máxima.
+     * @throws RejectedExecutionException Si la cola está llena.
+     */
+    public CompletableFuture<Result> verify(String rawPassword, String encodedPassword) {
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                if (context != null) {
+                    MDC.setContextMap(context);
+                }
+                try {
+                    if (System.nanoTime() > deadline) {
+                        future.completeExceptionally(new TimeoutException("Verificación descartada tras esperar en la cola"));
+                        return;
+                    }
+                    boolean matches = verifyTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+                    String upgraded = matches && passwordEncoder.upgradeEncoding(encodedPassword)
+                            ? rehashTimer.record(() -> passwordEncoder.encode(rawPassword))
+                            : null;
+                    future.complete(new Result(matches, upgraded));
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    MDC.clear();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+        return future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,194 @@
+package com.wallet.secure.security;
+
+import com.wallet.secure.entity.User;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Emite y verifica los tokens de servicio con los que wallet-web identifica al usuario ante la API.
+ * <p>
+ * Un token es {@code base64url(payload) + "." + base64url(HMAC-SHA256(payload))}, con el payload
+ * {@code id|rol|emitido|caduca|email} (segundos de época). Verificarlo es un cálculo HMAC en memoria:
+ * no consulta la base de datos y su coste no depende del número de usuarios.
+ * </p>
+ * <p>
+ * El secreto ({@code app.auth.token-secret}) debe ser el mismo en todas las instancias de la API.
+ * Si no se configura se genera uno aleatorio al arrancar, y los tokens dejan de valer al reiniciar.
+ * </p>
+ */
+@Component
+public class ServiceTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceTokenService.class);
+
+    /**
+     * Cabecera de respuesta con un token nuevo (login y renovación).
+     */
+    public static final String TOKEN_HEADER = "X-Auth-Token";
+
+    private static final String BEARER = "Bearer ";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> mac;
+    private final long ttlSeconds;
+    private final long refreshWindowSeconds;
+    private final Clock clock;
+
+    /**
+     * Datos firmados del token.
+     *
+     * @param userId Identificador del usuario.
+     * @param email Email (nombre de usuario).
+     * @param role Rol con prefijo {@code ROLE_}.
+     * @param issuedAt Emisión, en segundos de época.
+     * @param expiresAt Caducidad, en segundos de época.
+     */
+    public record Claims(Long userId, String email, String role, long issuedAt, long expiresAt) {
+    }
+
+    /**
+     * @param secret Clave HMAC compartida (vacía = aleatoria).
+     * @param ttlSeconds Validez de cada token.
+     * @param refreshWindowSeconds Tiempo tras la caducidad durante el que aún se puede renovar.
+     */
+    @Autowired
+    public ServiceTokenService(@Value("${app.auth.token-secret:}") String secret,
+                               @Value("${app.auth.token-ttl-seconds:900}") long ttlSeconds,
+                               @Value("${app.auth.token-refresh-window-seconds:43200}") long refreshWindowSeconds) {
+        this(secret, ttlSeconds, refreshWindowSeconds, Clock.systemUTC());
+    }
+
+    ServiceTokenService(String secret, long ttlSeconds, long refreshWindowSeconds, Clock clock) {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            logger.warn("app.auth.token-secret no configurado: se usa una clave aleatoria (los tokens no sobreviven a un reinicio)");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(key, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 no disponible", e);
+            }
+        });
+        this.ttlSeconds = ttlSeconds;
+        this.refreshWindowSeconds = refreshWindowSeconds;
+        this.clock = clock;
+    }
+
+    /**
+     * Emite un token para el usuario con su rol actual.
+     *
+     * @param user Usuario autenticado.
+     * @return Token firmado.
+     */
+    public String issue(User user) {
+        long now = clock.instant().getEpochSecond();
+        String role = user.getRole().startsWith("ROLE_") ? user.getRole() : "ROLE_" + user.getRole();
+        String payload = user.getId() + "|" + role + "|" + now + "|" + (now + ttlSeconds) + "|" + user.getEmail();
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encoded + "." + ENCODER.encodeToString(sign(encoded));
+    }
+
+    /**
+     * Comprueba la firma y la caducidad.
+     *
+     * @param token Token recibido.
+     * @return Sus datos, o null si la firma no es válida o ha caducado.
+     */
+    public Claims verify(String token) {
+        Claims claims = verifySignature(token);
+        return claims != null && clock.instant().getEpochSecond() < claims.expiresAt() ? claims : null;
+    }
+
+    /**
+     * Como {@link #verify}, pero admite tokens caducados dentro de la ventana de renovación.
+     * Quien lo use debe comprobar en la base de datos que el usuario sigue existiendo y activo.
+     *
+     * @param token Token recibido.
+     * @return Sus datos, o null si no se puede renovar.
+     */
+    public Claims verifyForRefresh(String token) {
+        Claims claims = verifySignature(token);
+        return claims != null && clock.instant().getEpochSecond() < claims.expiresAt() + refreshWindowSeconds ? claims : null;
+    }
+
+    /**
+     * Extrae el token de la cabecera {@code Authorization: Bearer ...}.
+     *
+     * @param request Petición entrante.
+     * @return Token o null si no viene.
+     */
+    public static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        return header != null && header.startsWith(BEARER) ? header.substring(BEARER.length()).trim() : null;
+    }
+
+    /**
+     * Email del token de la petición <b>sin verificar la firma</b>.
+     * <p>Solo para usos donde un valor falso no tiene consecuencias (MDC de los logs, enrutado de lecturas).</p>
+     *
+     * @param request Petición entrante.
+     * @return Email o null si no hay token legible.
+     */
+    public static String unverifiedEmail(HttpServletRequest request) {
+        String token = bearerToken(request);
+        Claims claims = token != null ? parse(token) : null;
+        return claims != null ? claims.email() : null;
+    }
+
+    private Claims verifySignature(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(token.substring(0, dot)), signature)) {
+            return null;
+        }
+        return parse(token);
+    }
+
+    private byte[] sign(String encodedPayload) {
+        return mac.get().doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Claims parse(String token) {
+        int dot = token.indexOf('.');
+        try {
+            String payload = new String(DECODER.decode(dot > 0 ? token.substring(0, dot) : token), StandardCharsets.UTF_8);
+            String[] parts = payload.split("\\|", 5);
+            if (parts.length != 5) {
+                return null;
+            }
+            return new Claims(Long.valueOf(parts[0]), parts[4], parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.wallet.secure.security;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cubo de fichas por clave con memoria fija.
+ * <p>
+ * Cada cubo se guarda como un único instante, el "tiempo teórico de llegada" (GCRA): una petición
+ * se admite si ese instante no supera al actual en más de la ráfaga permitida, y al admitirla avanza
+ * un intervalo. Equivale a un cubo de {@code burst} fichas que se rellena a una por intervalo.
+ * </p>
+ * <p>
+ * Las claves no se guardan: como en un count-min sketch, cada una se reparte en {@code DEPTH} celdas
+ * (una por fila, con hashes sembrados al azar) y su estado es el mínimo de ellas. Dos claves solo se
+ * estorban si coinciden en todas las filas, y una celda sin uso reciente ya está "llena" sin
+ * necesidad de borrarla. Si muchas claves distintas saturan la tabla, el error es limitar de más,
+ * nunca de menos.
+ * </p>
+ * <p>
+ * Leer el mínimo y subir las filas tiene que ser atómico para cada clave: si no, dos hilos pueden
+ * elegir filas distintas como mínimo y admitir ambos con la misma ficha. Lo garantiza un cerrojo
+ * elegido por la celda de la primera fila, que es fija para cada clave; las demás filas pueden
+ * compartirse con claves de otro cerrojo, pero solo suben, así que eso nunca admite de más.
+ * </p>
+ */
+final class TokenBucketSketch {
+
+    private static final int DEPTH = 4;
+    private static final int STRIPES = 64;
+
+    private final AtomicLongArray cells;
+    private final int width;
+    private final long[] seeds = new long[2];
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    /**
+     * @param width Celdas por fila (potencia de dos).
+     * @param burst Peticiones seguidas que se admiten con el cubo lleno.
+     * @param periodNanos Tiempo en el que se recuperan {@code burst} fichas.
+     */
+    TokenBucketSketch(int width, int burst, long periodNanos) {
+        this.width = Integer.highestOneBit(Math.max(16, width));
+        this.cells = new AtomicLongArray(DEPTH * this.width);
+        this.intervalNanos = Math.max(1, periodNanos / burst);
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        SecureRandom random = new SecureRandom();
+        seeds[0] = random.nextLong();
+        seeds[1] = random.nextLong() | 1;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Intenta consumir una ficha de la clave.
+     *
+     * @param key Clave (email, IP...).
+     * @param now Instante actual en nanosegundos, siempre positivo y creciente.
+     * @return 0 si se admite; si no, nanosegundos hasta que haya ficha.
+     */
+    long acquire(String key, long now) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int[] index = new int[DEPTH];
+        for (int row = 0; row < DEPTH; row++) {
+            index[row] = row * width + ((h1 + row * h2) & (width - 1));
+        }
+
+        ReentrantLock lock = locks[index[0] & (STRIPES - 1)];
+        lock.lock();
+        try {
+            long tat = cells.get(index[0]);
+            for (int row = 1; row < DEPTH; row++) {
+                tat = Math.min(tat, cells.get(index[row]));
+            }
+            long start = Math.max(tat, now);
+            if (start - now > toleranceNanos) {
+                return start - now - toleranceNanos;
+            }
+            long next = start + intervalNanos;
+            for (int row = 0; row < DEPTH; row++) {
+                raise(index[row], next);
+            }
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Actualización conservadora: la celda solo sube hasta el nuevo valor, nunca baja. Sigue siendo
+     * CAS porque una celda de las filas 1..n puede pertenecer también a una clave de otro cerrojo.
+     */
+    private void raise(int cell, long value) {
+        long current;
+        do {
+            current = cells.get(cell);
+        } while (current < value && !cells.compareAndSet(cell, current, value));
+    }
+
+    /**
+     * FNV-1a de 64 bits sembrado y mezclado, para que no se puedan fabricar colisiones a partir de
+     * {@link String#hashCode()}.
+     */
+    private long hash(String key) {
+        long h = seeds[0];
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h *= seeds[1];
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,282 @@
+package com.wallet.secure.service;
+
+import com.wallet.secure.entity.Beneficiary;
+import com.wallet.secure.entity.Insurance;
+import com.wallet.secure.entity.User;
+import com.wallet.secure.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrado de cuentas de usuario por lotes, fuera de la petición.
+ * <p>
+ * Borrar la entidad {@link User} hace que Hibernate cargue cada póliza con sus pagos,
+ * reclamaciones y beneficiarios y los borre de uno en uno (cascada + {@code orphanRemoval}); con
+ * miles de pólizas son minutos de bloqueos. Aquí la petición solo marca la cuenta
+ * ({@code deletionRequestedAt}) y la desactiva, y un hilo propio borra de abajo arriba con
+ * {@code DELETE ... WHERE insurance_id IN (...)}: {@code app.account-deletion.chunk-size} pólizas
+ * por transacción, de modo que cada una bloquea pocas filas y poco tiempo.
+ * </p>
+ * <p>
+ * El progreso se consulta con {@link #progress(long)} mientras esta instancia lo conserve. Las
+ * cuentas marcadas que nadie está borrando (tras un reinicio o un fallo) se retoman cada
+ * {@code app.account-deletion.purge-interval-ms}.
+ * </p>
+ */
+@Service
+public class AccountDeletionService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountDeletionService.class);
+
+    /** Tiempo que se conserva el progreso de un borrado terminado. */
+    private static final Duration KEEP_FINISHED = Duration.ofHours(1);
+
+    /** Estado de un borrado. */
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    /**
+     * Progreso de un borrado.
+     *
+     * @param userId Usuario.
+     * @param status Estado.
+     * @param insurances Pólizas que tenía al empezar.
+     * @param insurancesDeleted Pólizas borradas (con sus pagos, reclamaciones y beneficiarios).
+     * @param tickets Tickets que tenía al empezar.
+     * @param ticketsDeleted Tickets borrados.
+     * @param startedAt Inicio del borrado (null en cola).
+     * @param finishedAt Fin (null si no ha terminado).
+     * @param error Causa del fallo, si lo hubo.
+     */
+    public record Progress(long userId, Status status, long insurances, long insurancesDeleted, long tickets,
+                           long ticketsDeleted, Instant startedAt, Instant finishedAt, String error) {
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InsuranceSuggestService suggestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.account-deletion.chunk-size:500}")
+    private int chunkSize;
+
+    private final Map<Long, Progress> jobs = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+    private Timer purgeTimer;
+
+    /**
+     * Crea el hilo de borrado: uno solo, para que los borrados no compitan entre sí por el primario.
+     */
+    @PostConstruct
+    void init() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "account-deletion");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        new ExecutorServiceMetrics(pool, "account-deletion", Tags.empty()).bindTo(meterRegistry);
+        executor = pool;
+        purgeTimer = Timer.builder("wallet.account.deletion")
+                .description("Tiempo de borrado de una cuenta con todos sus datos").register(meterRegistry);
+    }
+
+    /**
+     * Marca la cuenta para borrar, la desactiva (no puede iniciar sesión ni renovar el token) y
+     * encola el borrado de sus datos. Pedirlo de nuevo no repite nada que ya esté en marcha.
+     *
+     * @param user Usuario a borrar.
+     * @return Progreso inicial.
+     */
+    public Progress requestDeletion(User user) {
+        if (user.getDeletionRequestedAt() == null) {
+            user.setDeletionRequestedAt(LocalDateTime.now());
+            user.setEnabled(false);
+            userRepository.save(user);
+            logger.info("Borrado de la cuenta {} solicitado", user.getId());
+        }
+        return submit(user.getId());
+    }
+
+    /**
+     * @param userId Usuario.
+     * @return Progreso de su borrado, o null si esta instancia no tiene constancia de él.
+     */
+    public Progress progress(long userId) {
+        return jobs.get(userId);
+    }
+
+    /**
+     * Retoma las cuentas marcadas que no se están borrando y olvida los borrados terminados hace tiempo.
+     */
+    @Scheduled(initialDelayString = "${app.account-deletion.purge-interval-ms:60000}",
+            fixedDelayString = "${app.account-deletion.purge-interval-ms:60000}")
+    public void purgePending() {
+        Instant expired = Instant.now().minus(KEEP_FINISHED);
+        jobs.values().removeIf(job -> job.finishedAt() != null && job.finishedAt().isBefore(expired));
+        for (Long userId : userRepository.findIdsPendingDeletion()) {
+            submit(userId);
+        }
+    }
+
+    private Progress submit(long userId) {
+        Progress queued = new Progress(userId, Status.QUEUED, 0, 0, 0, 0, null, null, null);
+        Progress current = jobs.compute(userId, (id, job) ->
+                job == null || job.status() == Status.FAILED || job.status() == Status.DONE ? queued : job);
+        if (current == queued) {
+            // Con el identificador de la petición que lo pidió, para seguirlo en los logs
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            executor.execute(() -> {
+                if (context != null) {
+                    MDC.setContextMap(context);
+                }
+                try {
+                    purge(userId);
+                } finally {
+                    MDC.clear();
+                }
+            });
+        }
+        return current;
+    }
+
+    /**
+     * Borra pagos, reclamaciones, beneficiarios y pólizas por lotes, luego los tickets, lo archivado
+     * y por último el usuario.
+     */
+    private void purge(long userId) {
+        long started = System.nanoTime();
+        long insurances = count("SELECT COUNT(*) FROM insurances WHERE user_id = ?", userId);
+        long tickets = count("SELECT COUNT(*) FROM tickets WHERE user_id = ?", userId);
+        Progress progress = new Progress(userId, Status.RUNNING, insurances, 0, tickets, 0, Instant.now(), null, null);
+        jobs.put(userId, progress);
+        logger.info("Borrando la cuenta {}: {} pólizas y {} tickets", userId, insurances, tickets);
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+
+            List<Long> ids;
+            // Hasta que no quede ninguna: una póliza creada con un token aún vigente también se borra
+            while (!(ids = chunk("SELECT id FROM insurances WHERE user_id = ? ORDER BY id LIMIT ?", userId)).isEmpty()) {
+                List<Long> chunk = ids;
+                String in = placeholders(chunk.size());
+                Object[] args = chunk.toArray();
+                transaction.executeWithoutResult(status -> {
+                    jdbcTemplate.update("DELETE FROM payments WHERE insurance_id IN (" + in + ")", args);
+                    jdbcTemplate.update("DELETE FROM claims WHERE insurance_id IN (" + in + ")", args);
+                    jdbcTemplate.update("DELETE FROM beneficiaries WHERE insurance_id IN (" + in + ")", args);
+                    jdbcTemplate.update("DELETE FROM insurances WHERE id IN (" + in + ")", args);
+                });
+                for (Long id : chunk) {
+                    cache.evictEntityData(Insurance.class, id);
+                    cache.evictCollectionData(Insurance.class.getName() + ".beneficiaries", id);
+                }
+                progress = withDeleted(progress, chunk.size(), 0);
+            }
+            cache.evictEntityData(Beneficiary.class);
+
+            while (!(ids = chunk("SELECT id FROM tickets WHERE user_id = ? ORDER BY id LIMIT ?", userId)).isEmpty()) {
+                List<Long> chunk = ids;
+                transaction.executeWithoutResult(status ->
+                        jdbcTemplate.update("DELETE FROM tickets WHERE id IN (" + placeholders(chunk.size()) + ")", chunk.toArray()));
+                progress = withDeleted(progress, 0, chunk.size());
+            }
+
+            // Lo archivado no tiene lectores concurrentes: una transacción basta
+            transaction.executeWithoutResult(status -> {
+                for (ArchiveService.ArchiveTable table : List.of(ArchiveService.PAYMENTS, ArchiveService.CLAIMS, ArchiveService.BENEFICIARIES)) {
+                    jdbcTemplate.update("DELETE FROM " + table.archive() + " WHERE insurance_id IN"
+                            + " (SELECT id FROM " + ArchiveService.INSURANCES.archive() + " WHERE user_id = ?)", userId);
+                }
+                jdbcTemplate.update("DELETE FROM " + ArchiveService.INSURANCES.archive() + " WHERE user_id = ?", userId);
+                jdbcTemplate.update("DELETE FROM " + ArchiveService.TICKETS.archive() + " WHERE user_id = ?", userId);
+            });
+
+            // JPQL: Hibernate invalida la caché de usuarios y la de la consulta por email
+            userRepository.deletePendingDeletion(userId);
+            suggestService.rebuild();
+
+            progress = finish(progress, Status.DONE, null);
+            logger.info("Cuenta {} borrada: {} pólizas y {} tickets en {} ms", userId, progress.insurancesDeleted(),
+                    progress.ticketsDeleted(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            finish(progress, Status.FAILED, e.getMessage());
+            logger.error("Borrado de la cuenta {} interrumpido tras {} pólizas; se reintentará", userId,
+                    progress.insurancesDeleted(), e);
+        } finally {
+            purgeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Progress withDeleted(Progress p, int insurances, int tickets) {
+        Progress next = new Progress(p.userId(), p.status(), p.insurances(), p.insurancesDeleted() + insurances,
+                p.tickets(), p.ticketsDeleted() + tickets, p.startedAt(), null, null);
+        jobs.put(p.userId(), next);
+        return next;
+    }
+
+    private Progress finish(Progress p, Status status, String error) {
+        Progress next = new Progress(p.userId(), status, p.insurances(), p.insurancesDeleted(),
+                p.tickets(), p.ticketsDeleted(), p.startedAt(), Instant.now(), error);
+        jobs.put(p.userId(), next);
+        return next;
+    }
+
+    private long count(String sql, long userId) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, userId);
+        return count != null ? count : 0;
+    }
+
+    private List<Long> chunk(String sql, long userId) {
+        return jdbcTemplate.queryForList(sql, Long.class, userId, chunkSize);
+    }
+
+    private static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,341 @@
+package com.wallet.secure.service;
+
+import com.wallet.secure.entity.Beneficiary;
+import com.wallet.secure.entity.Insurance;
+import com.wallet.secure.entity.Ticket;
+import com.wallet.secure.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Archivo de pólizas caducadas y tickets cerrados.
+ * <p>
+ * Cada noche ({@code app.archive.cron}) mueve a tablas {@code *_archive} con las mismas columnas
+ * (más {@code archived_at}) las pólizas caducadas hace más de {@code app.archive.insurance-expired-days}
+ * días, con sus pagos, reclamaciones y beneficiarios, y los tickets cerrados creados hace más de
+ * {@code app.archive.ticket-closed-days}. Se mueven por lotes de {@code app.archive.batch-size}
+ * ({@code INSERT ... SELECT} y {@code DELETE} en la misma transacción), así que las tablas que leen
+ * los listados solo crecen con los datos vigentes: sus índices y las páginas que ocupan en el
+ * buffer pool no dependen de los años de histórico.
+ * </p>
+ * <p>
+ * Lo archivado se sigue leyendo bajo demanda ({@code includeArchived} en los listados), se exporta
+ * y se borra con la cuenta. Las tablas de archivo las crea {@code SchemaFixer} con {@link #createTables()}.
+ * </p>
+ */
+@Service
+public class ArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveService.class);
+
+    /**
+     * Tabla con su copia de archivo.
+     *
+     * @param name Tabla original.
+     * @param columns Definición ({@code nombre TIPO}) de cada columna de la tabla original.
+     * @param indexColumn Columna por la que se leen los datos archivados.
+     */
+    public record ArchiveTable(String name, List<String> columns, String indexColumn) {
+
+        public String archive() {
+            return name + "_archive";
+        }
+
+        /** Nombres de las columnas, separados por comas. */
+        public String columnList() {
+            return columns.stream().map(c -> c.substring(0, c.indexOf(' '))).collect(Collectors.joining(", "));
+        }
+    }
+
+    public static final ArchiveTable INSURANCES = new ArchiveTable("insurances", List.of(
+            "id BIGINT NOT NULL", "version BIGINT", "title VARCHAR(255)", "company VARCHAR(255)",
+            "policy_number VARCHAR(255)", "category VARCHAR(255)", "expiry_date DATE", "phone_number VARCHAR(255)",
+            "image_url TEXT", "premium_amount DOUBLE", "payment_period VARCHAR(20)", "user_id BIGINT NOT NULL"), "user_id");
+    public static final ArchiveTable PAYMENTS = new ArchiveTable("payments", List.of(
+            "id BIGINT NOT NULL", "version BIGINT", "amount DOUBLE", "payment_date DATE", "status VARCHAR(20)",
+            "insurance_id BIGINT"), "insurance_id");
+    public static final ArchiveTable CLAIMS = new ArchiveTable("claims", List.of(
+            "id BIGINT NOT NULL", "version BIGINT", "description VARCHAR(255)", "incident_date DATE",
+            "status VARCHAR(20)", "estimated_cost DOUBLE", "insurance_id BIGINT NOT NULL"), "insurance_id");
+    public static final ArchiveTable BENEFICIARIES = new ArchiveTable("beneficiaries", List.of(
+            "id BIGINT NOT NULL", "full_name VARCHAR(255)", "relation VARCHAR(255)", "dni VARCHAR(255)",
+            "insurance_id BIGINT"), "insurance_id");
+    public static final ArchiveTable TICKETS = new ArchiveTable("tickets", List.of(
+            "id BIGINT NOT NULL", "version BIGINT", "subject VARCHAR(255)", "message TEXT", "status VARCHAR(20)",
+            "created_at DATETIME(6)", "user_id BIGINT"), "user_id");
+
+    /**
+     * Resultado de un archivado.
+     *
+     * @param insurances Pólizas archivadas (con sus pagos, reclamaciones y beneficiarios).
+     * @param tickets Tickets archivados.
+     */
+    public record Result(long insurances, long tickets) {
+    }
+
+    /** Tablas de archivo; las de detalle de póliza van antes que la propia póliza. */
+    public static final List<ArchiveTable> TABLES = List.of(PAYMENTS, CLAIMS, BENEFICIARIES, INSURANCES, TICKETS);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InsuranceSuggestService suggestService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.insurance-expired-days:365}")
+    private int insuranceExpiredDays;
+
+    @Value("${app.archive.ticket-closed-days:90}")
+    private int ticketClosedDays;
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    /** Evita dos archivados a la vez en esta instancia (el planificado y uno lanzado a mano). */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Crea las tablas de archivo que falten y comprueba que recogen todas las columnas de la tabla
+     * original; si a esta se le ha añadido alguna, el archivado se desactiva en lugar de perderla.
+     */
+    public void createTables() {
+        for (ArchiveTable table : TABLES) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table.archive() + " ("
+                    + String.join(", ", table.columns()) + ", archived_at DATETIME(6) NOT NULL, PRIMARY KEY (id), "
+                    + "INDEX idx_" + table.archive() + "_" + table.indexColumn() + " (" + table.indexColumn() + "))");
+            Set<String> live = jdbcTemplate.query("SELECT * FROM " + table.name() + " WHERE 1 = 0", rs -> {
+                Set<String> names = new HashSet<>();
+                for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                    names.add(rs.getMetaData().getColumnLabel(i).toLowerCase(Locale.ROOT));
+                }
+                return names;
+            });
+            live.removeAll(Arrays.asList(table.columnList().split(", ")));
+            if (!live.isEmpty()) {
+                enabled = false;
+                logger.error("La tabla {} tiene columnas que {} no recoge ({}): archivado desactivado",
+                        table.name(), table.archive(), live);
+            }
+        }
+    }
+
+    /**
+     * Archiva lo que ha superado los plazos.
+     *
+     * @return Lo archivado, o null si el archivado está desactivado o ya en marcha.
+     */
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public Result archive() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            long started = System.nanoTime();
+            long insurances = archiveInsurances(LocalDate.now().minusDays(insuranceExpiredDays));
+            long tickets = archiveTickets(LocalDateTime.now().minusDays(ticketClosedDays));
+            if (insurances > 0) {
+                suggestService.rebuild();
+            }
+            logger.info("Archivadas {} pólizas y {} tickets en {} ms", insurances, tickets,
+                    (System.nanoTime() - started) / 1_000_000);
+            return new Result(insurances, tickets);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long archiveInsurances(LocalDate expiredBefore) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+        long total = 0;
+        List<Long> selected;
+        while (!(selected = jdbcTemplate.queryForList("SELECT id FROM insurances WHERE expiry_date < ? ORDER BY expiry_date, id LIMIT ?",
+                Long.class, expiredBefore, batchSize)).isEmpty()) {
+            List<Long> candidates = selected;
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Long> chunk = transaction.execute(status -> {
+                // Bloquea las candidatas que siguen caducadas: una renovación o un pago nuevo sobre
+                // ellas espera a que acabe el lote en lugar de quedar a medias en el archivo
+                List<Long> ids = lock("insurances", candidates, "expiry_date < ?", expiredBefore);
+                if (ids.isEmpty()) {
+                    return ids;
+                }
+                String in = placeholders(ids.size());
+                Object[] args = ids.toArray();
+                List<Long> owners = jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM insurances WHERE id IN (" + in + ")", Long.class, args);
+                for (ArchiveTable table : List.of(PAYMENTS, CLAIMS, BENEFICIARIES)) {
+                    move(table, "insurance_id IN (" + in + ")", now, args);
+                }
+                move(INSURANCES, "id IN (" + in + ")", now, args);
+                userRepository.incrementDataVersions(owners);
+                return ids;
+            });
+            for (Long id : chunk) {
+                cache.evictEntityData(Insurance.class, id);
+                cache.evictCollectionData(Insurance.class.getName() + ".beneficiaries", id);
+            }
+            total += chunk.size();
+            meterRegistry.counter("wallet.archive.rows", "table", "insurances").increment(chunk.size());
+        }
+        if (total > 0) {
+            cache.evictEntityData(Beneficiary.class);
+        }
+        return total;
+    }
+
+    private long archiveTickets(LocalDateTime createdBefore) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long total = 0;
+        List<Long> selected;
+        while (!(selected = jdbcTemplate.queryForList("SELECT id FROM tickets WHERE status = ? AND created_at < ? ORDER BY created_at, id LIMIT ?",
+                Long.class, Ticket.Status.CLOSED.name(), createdBefore, batchSize)).isEmpty()) {
+            List<Long> candidates = selected;
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Long> chunk = transaction.execute(status -> {
+                // Un ticket reabierto entre la selección y el lote se queda donde está
+                List<Long> ids = lock("tickets", candidates, "status = ? AND created_at < ?",
+                        Ticket.Status.CLOSED.name(), createdBefore);
+                if (!ids.isEmpty()) {
+                    move(TICKETS, "id IN (" + placeholders(ids.size()) + ")", now, ids.toArray());
+                }
+                return ids;
+            });
+            total += chunk.size();
+            meterRegistry.counter("wallet.archive.rows", "table", "tickets").increment(chunk.size());
+        }
+        return total;
+    }
+
+    /**
+     * Dentro de la transacción del lote, bloquea ({@code FOR UPDATE}) las filas candidatas que todavía
+     * cumplen la condición de archivado; las que han dejado de cumplirla desde la selección se descartan.
+     *
+     * @return Los ids bloqueados, que son los que se deben mover.
+     */
+    private List<Long> lock(String table, List<Long> candidates, String condition, Object... conditionArgs) {
+        Object[] args = new Object[candidates.size() + conditionArgs.length];
+        System.arraycopy(candidates.toArray(), 0, args, 0, candidates.size());
+        System.arraycopy(conditionArgs, 0, args, candidates.size(), conditionArgs.length);
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " WHERE id IN (" + placeholders(candidates.size())
+                + ") AND " + condition + " ORDER BY id FOR UPDATE", Long.class, args);
+    }
+
+    /**
+     * Copia a la tabla de archivo las filas que cumplen la condición y las borra de la original.
+     */
+    private void move(ArchiveTable table, String where, Timestamp archivedAt, Object[] args) {
+        Object[] insertArgs = new Object[args.length + 1];
+        insertArgs[0] = archivedAt;
+        System.arraycopy(args, 0, insertArgs, 1, args.length);
+        jdbcTemplate.update("INSERT INTO " + table.archive() + " (" + table.columnList() + ", archived_at) SELECT "
+                + table.columnList() + ", ? FROM " + table.name() + " WHERE " + where, insertArgs);
+        jdbcTemplate.update("DELETE FROM " + table.name() + " WHERE " + where, args);
+    }
+
+    /**
+     * @param userId Usuario.
+     * @return Sus pólizas archivadas, sin pagos, reclamaciones ni beneficiarios.
+     */
+    public List<Insurance> findArchivedInsurances(long userId) {
+        return jdbcTemplate.query("SELECT " + INSURANCES.columnList() + " FROM insurances_archive WHERE user_id = ? ORDER BY id",
+                INSURANCE_MAPPER, userId);
+    }
+
+    /**
+     * @param userId Usuario.
+     * @param since Creados desde este momento, o null para todos.
+     * @return Sus tickets archivados, los más recientes primero.
+     */
+    public List<Ticket> findArchivedTickets(long userId, LocalDateTime since) {
+        if (since == null) {
+            return jdbcTemplate.query("SELECT " + TICKETS.columnList() + " FROM tickets_archive WHERE user_id = ? ORDER BY created_at DESC",
+                    TICKET_MAPPER, userId);
+        }
+        return jdbcTemplate.query("SELECT " + TICKETS.columnList() + " FROM tickets_archive WHERE user_id = ? AND created_at >= ? ORDER BY created_at DESC",
+                TICKET_MAPPER, userId, since);
+    }
+
+    /**
+     * @param since Creados desde este momento, o null para todos.
+     * @return Todos los tickets archivados, los más recientes primero.
+     */
+    public List<Ticket> findArchivedTickets(LocalDateTime since) {
+        if (since == null) {
+            return jdbcTemplate.query("SELECT " + TICKETS.columnList() + " FROM tickets_archive ORDER BY created_at DESC", TICKET_MAPPER);
+        }
+        return jdbcTemplate.query("SELECT " + TICKETS.columnList() + " FROM tickets_archive WHERE created_at >= ? ORDER BY created_at DESC",
+                TICKET_MAPPER, since);
+    }
+
+    private static final RowMapper<Insurance> INSURANCE_MAPPER = (rs, rowNum) -> {
+        Insurance insurance = new Insurance();
+        insurance.setId(rs.getLong("id"));
+        insurance.setVersion(rs.getLong("version"));
+        insurance.setTitle(rs.getString("title"));
+        insurance.setCompany(rs.getString("company"));
+        insurance.setPolicyNumber(rs.getString("policy_number"));
+        insurance.setCategory(rs.getString("category"));
+        insurance.setExpiryDate(rs.getObject("expiry_date", LocalDate.class));
+        insurance.setPhoneNumber(rs.getString("phone_number"));
+        insurance.setImageUrl(rs.getString("image_url"));
+        insurance.setPremiumAmount(rs.getObject("premium_amount", Double.class));
+        String period = rs.getString("payment_period");
+        insurance.setPaymentPeriod(period != null ? Insurance.PaymentPeriod.valueOf(period) : null);
+        insurance.setArchived(true);
+        return insurance;
+    };
+
+    private static final RowMapper<Ticket> TICKET_MAPPER = (rs, rowNum) -> {
+        Ticket ticket = new Ticket();
+        ticket.setId(rs.getLong("id"));
+        ticket.setVersion(rs.getLong("version"));
+        ticket.setSubject(rs.getString("subject"));
+        ticket.setMessage(rs.getString("message"));
+        String status = rs.getString("status");
+        ticket.setStatus(status != null ? Ticket.Status.valueOf(status) : null);
+        ticket.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        ticket.setArchived(true);
+        return ticket;
+    };
+
+    private static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
+    }
+}
@@ -0,0 +1,321 @@
+package com.wallet.secure.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exportación completa de los datos de un usuario (pólizas, pagos, reclamaciones, beneficiarios y
+ * tickets) en NDJSON o CSV.
+ * <p>
+ * Las filas se leen con un cursor JDBC de solo avance y se escriben según llegan, sin crear
+ * entidades: en MySQL con {@code fetchSize = Integer.MIN_VALUE}, que hace que el driver entregue
+ * las filas una a una en lugar de cargar el resultado entero, y en otras bases de datos con
+ * {@code app.export.fetch-size}. La memoria usada no depende del número de filas.
+ * </p>
+ * <p>
+ * Todo se lee en una transacción de solo lectura (una réplica, si las hay), así que las cinco
+ * consultas ven la misma foto de los datos. Las columnas de las pólizas coinciden con las que acepta
+ * {@link InsuranceImportService}.
+ * </p>
+ */
+@Service
+public class DataExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataExportService.class);
+
+    /** Formatos de exportación. */
+    public enum Format { NDJSON, CSV }
+
+    /**
+     * Conjunto de datos exportable.
+     *
+     * @param name Nombre (parámetro {@code dataset} y nombre del fichero CSV).
+     * @param type Valor del campo {@code type} de cada línea NDJSON.
+     * @param sql Consulta con el id del usuario en todos sus parámetros.
+     * @param columns Nombre de cada columna de la consulta en la exportación.
+     */
+    public record Dataset(String name, String type, String sql, List<String> columns) {
+    }
+
+    /**
+     * Conjuntos de datos en el orden en que se exportan, cada uno con sus filas vigentes y las
+     * archivadas (ver {@link ArchiveService}). No se ordenan, para no obligar a la base de datos a
+     * ordenar todas las filas antes de devolver la primera.
+     */
+    public static final List<Dataset> DATASETS = List.of(
+            new Dataset("insurances", "insurance",
+                    withArchive("SELECT i.id, i.title, i.company, i.policy_number, i.category, i.expiry_date, i.phone_number,"
+                            + " i.premium_amount, i.payment_period, i.image_url FROM insurances i WHERE i.user_id = ?"),
+                    List.of("id", "title", "company", "policyNumber", "category", "expiryDate", "phoneNumber",
+                            "premiumAmount", "paymentPeriod", "imageUrl")),
+            new Dataset("payments", "payment",
+                    withArchive("SELECT p.id, p.insurance_id, p.amount, p.payment_date, p.status FROM payments p"
+                            + " JOIN insurances i ON i.id = p.insurance_id WHERE i.user_id = ?"),
+                    List.of("id", "insuranceId", "amount", "paymentDate", "status")),
+            new Dataset("claims", "claim",
+                    withArchive("SELECT c.id, c.insurance_id, c.description, c.incident_date, c.status, c.estimated_cost FROM claims c"
+                            + " JOIN insurances i ON i.id = c.insurance_id WHERE i.user_id = ?"),
+                    List.of("id", "insuranceId", "description", "incidentDate", "status", "estimatedCost")),
+            new Dataset("beneficiaries", "beneficiary",
+                    withArchive("SELECT b.id, b.insurance_id, b.full_name, b.relation, b.dni FROM beneficiaries b"
+                            + " JOIN insurances i ON i.id = b.insurance_id WHERE i.user_id = ?"),
+                    List.of("id", "insuranceId", "fullName", "relation", "dni")),
+            new Dataset("tickets", "ticket",
+                    withArchive("SELECT t.id, t.subject, t.message, t.status, t.created_at FROM tickets t WHERE t.user_id = ?"),
+                    List.of("id", "subject", "message", "status", "createdAt")));
+
+    /** Filas escritas entre vaciados del búfer hacia el cliente. */
+    private static final int FLUSH_ROWS = 1000;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.export.fetch-size:500}")
+    private int fetchSize;
+
+    private boolean mysql;
+
+    /**
+     * Elige el tamaño de lectura según la base de datos.
+     */
+    @PostConstruct
+    void detectDatabase() {
+        String product = jdbcTemplate.execute((Connection connection) -> connection.getMetaData().getDatabaseProductName());
+        mysql = "MySQL".equalsIgnoreCase(product);
+    }
+
+    /**
+     * Añade a la consulta la misma sobre las tablas de archivo ({@code FROM insurances i} pasa a
+     * {@code FROM insurances_archive i}, etc.).
+     */
+    private static String withArchive(String sql) {
+        String archived = sql;
+        for (ArchiveService.ArchiveTable table : ArchiveService.TABLES) {
+            archived = archived.replace(" " + table.name() + " ", " " + table.archive() + " ");
+        }
+        return sql + " UNION ALL " + archived;
+    }
+
+    /**
+     * @param name Nombre de un conjunto de datos.
+     * @return El conjunto, o null si no existe.
+     */
+    public static Dataset dataset(String name) {
+        return DATASETS.stream().filter(dataset -> dataset.name().equals(name)).findFirst().orElse(null);
+    }
+
+    /**
+     * Escribe la exportación en el flujo de salida.
+     * <p>
+     * En NDJSON cada línea es un objeto con {@code type} y las columnas del conjunto. En CSV, un
+     * solo conjunto es un CSV con cabecera; todos, un ZIP con un CSV por conjunto.
+     * </p>
+     *
+     * @param userId Usuario cuyos datos se exportan.
+     * @param format Formato.
+     * @param datasets Conjuntos a exportar.
+     * @param out Destino (la respuesta HTTP); no se cierra.
+     * @return Filas exportadas.
+     * @throws IOException Si el cliente corta la descarga.
+     */
+    public long export(long userId, Format format, List<Dataset> datasets, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        long[] rows = new long[1];
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try {
+                    if (format == Format.NDJSON) {
+                        rows[0] = writeNdjson(userId, datasets, out);
+                    } else if (datasets.size() == 1) {
+                        rows[0] = writeCsv(userId, datasets.get(0), out);
+                    } else {
+                        rows[0] = writeZip(userId, datasets, out);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        meterRegistry.counter("wallet.export.rows", "format", format.name().toLowerCase()).increment(rows[0]);
+        logger.info("Exportación {} del usuario {}: {} filas en {} ms", format, userId, rows[0],
+                (System.nanoTime() - started) / 1_000_000);
+        return rows[0];
+    }
+
+    private long writeNdjson(long userId, List<Dataset> datasets, OutputStream out) throws IOException {
+        long total = 0;
+        try (JsonGenerator json = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+            json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            json.setRootValueSeparator(null);
+            for (Dataset dataset : datasets) {
+                total += query(userId, dataset, rs -> {
+                    json.writeStartObject();
+                    json.writeStringField("type", dataset.type());
+                    for (int i = 0; i < dataset.columns().size(); i++) {
+                        json.writeFieldName(dataset.columns().get(i));
+                        writeJsonValue(json, rs.getObject(i + 1));
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }, json::flush);
+            }
+        }
+        return total;
+    }
+
+    private long writeZip(long userId, List<Dataset> datasets, OutputStream out) throws IOException {
+        long total = 0;
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        for (Dataset dataset : datasets) {
+            zip.putNextEntry(new ZipEntry(dataset.name() + ".csv"));
+            total += writeCsv(userId, dataset, zip);
+            zip.closeEntry();
+        }
+        zip.finish();
+        return total;
+    }
+
+    private long writeCsv(long userId, Dataset dataset, OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // BOM: Excel abre el fichero como UTF-8 (la importación la ignora)
+        csv.write('\uFEFF');
+        csv.write(String.join(",", dataset.columns()));
+        csv.write("\r\n");
+        long rows = query(userId, dataset, rs -> {
+            for (int i = 0; i < dataset.columns().size(); i++) {
+                if (i > 0) {
+                    csv.write(',');
+                }
+                writeCsvValue(csv, rs.getObject(i + 1));
+            }
+            csv.write("\r\n");
+        }, csv::flush);
+        csv.flush();
+        return rows;
+    }
+
+    /**
+     * Recorre el resultado de la consulta del conjunto con un cursor de solo avance.
+     *
+     * @return Filas leídas.
+     */
+    private long query(long userId, Dataset dataset, RowWriter writer, Flusher flusher) {
+        long[] rows = new long[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(dataset.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+            // Una vez por cada parte de la consulta (vigente y archivada)
+            long parameters = dataset.sql().chars().filter(c -> c == '?').count();
+            for (int i = 1; i <= parameters; i++) {
+                ps.setLong(i, userId);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                writer.write(rs);
+                if (++rows[0] % FLUSH_ROWS == 0) {
+                    flusher.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows[0];
+    }
+
+    private static void writeJsonValue(JsonGenerator json, Object value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short) {
+            json.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            json.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal decimal) {
+            json.writeNumber(decimal);
+        } else {
+            json.writeString(text(value));
+        }
+    }
+
+    private static void writeCsvValue(Writer csv, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = text(value);
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            csv.write('"');
+            csv.write(text.replace("\"", "\"\""));
+            csv.write('"');
+        } else {
+            csv.write(text);
+        }
+    }
+
+    /**
+     * Fechas en ISO-8601 ({@code 2025-12-31}, {@code 2025-12-31T10:15:30}), decimales sin notación
+     * científica y el resto con {@code toString}.
+     */
+    private static String text(Object value) {
+        if (value instanceof Double number) {
+            return BigDecimal.valueOf(number).stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().toString();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        return value.toString();
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    @FunctionalInterface
+    private interface Flusher {
+        void flush() throws IOException;
+    }
+}
@@ -1,8 +1,14 @@
 package com.wallet.secure.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
@@ -13,13 +19,23 @@ import java.io.UnsupportedEncodingException;
 /**
  * Servicio encargado del envío de correos electrónicos.
  * Maneja notificaciones de registro, recuperación de contraseña y gestión de roles.
+ * Cada envío suma en {@code wallet.emails.sent} (o {@code wallet.emails.failed}) con el tipo de correo
+ * y queda en la traza de la petición como span {@code wallet.email}.
  */
 @Service
 public class EmailService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
     // --- CONFIGURACIÓN DE URL DEL FRONTEND ---
     // Esta variable viene de application.properties (app.frontend.url)
     @Value("${app.frontend.url:http://localhost:8888}")
@@ -54,8 +70,8 @@ public class EmailService {
                 + "</div></body></html>";
         
         helper.setText(content, true);
-        mailSender.send(message);
-        System.out.println("INFO: Correo enviado a: " + recipientEmail);
+        send(message, "verification");
+        logger.info("Correo de verificación enviado a {}", recipientEmail);
     }
     
     /**
@@ -88,8 +104,8 @@ public class EmailService {
                 + "</div></body></html>";
                 
         helper.setText(content, true);
-        mailSender.send(message);
-        System.out.println("INFO: Correo de recuperación enviado a: " + recipientEmail);
+        send(message, "password_reset");
+        logger.info("Correo de recuperación enviado a {}", recipientEmail);
     }
 
     /**
@@ -101,7 +117,7 @@ public class EmailService {
      * @throws MessagingException Error en el envío del correo.
      */
     public void sendAdminRoleRequest(String userEmail, String desiredRole, String token) throws MessagingException {
-        System.out.println("INFO: Intentando enviar solicitud de admin. De: " + userEmail);
+        logger.info("Enviando solicitud de cambio de rol de {}", userEmail);
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
@@ -123,7 +139,7 @@ public class EmailService {
                 + "</body></html>";
 
         helper.setText(content, true);
-        mailSender.send(message);
+        send(message, "role_request");
     }
 
     /**
@@ -152,6 +168,25 @@ public class EmailService {
                 + "</body></html>";
 
         helper.setText(content, true);
-        mailSender.send(message);
+        send(message, "role_status");
+    }
+
+    /**
+     * Envía el mensaje dentro de un span y lo contabiliza por tipo.
+     *
+     * @param message Mensaje ya construido.
+     * @param type Tipo de correo (etiqueta de la métrica).
+     */
+    private void send(MimeMessage message, String type) {
+        try {
+            Observation.createNotStarted("wallet.email", observationRegistry)
+                    .contextualName("email " + type)
+                    .lowCardinalityKeyValue("type", type)
+                    .observe(() -> mailSender.send(message));
+        } catch (MailException e) {
+            meterRegistry.counter("wallet.emails.failed", "type", type).increment();
+            throw e;
+        }
+        meterRegistry.counter("wallet.emails.sent", "type", type).increment();
     }
-}
\ No newline at end of file
+}
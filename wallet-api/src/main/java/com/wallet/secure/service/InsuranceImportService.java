@@ -0,0 +1,421 @@
+package com.wallet.secure.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.wallet.secure.entity.Insurance;
+import com.wallet.secure.entity.User;
+import com.wallet.secure.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importación masiva de pólizas desde un fichero CSV (el formato que exporta Excel).
+ * <p>
+ * El fichero se lee fila a fila: en memoria solo está el lote en curso ({@code app.import.batch-size}
+ * pólizas) y, como mucho, {@code app.import.max-errors} errores, así que el consumo no depende del
+ * tamaño del fichero. Cada fila se valida con las mismas restricciones de {@link Insurance} que el
+ * alta individual; las válidas se insertan por lotes JDBC (póliza y pago inicial pendiente, como en
+ * el alta) y cada lote se confirma en su propia transacción. Las filas con errores no se importan
+ * y vuelven en el informe con su número de fila.
+ * </p>
+ * <p>
+ * La primera fila es la cabecera con los nombres de las columnas ({@code title}, {@code company},
+ * {@code policyNumber}, {@code category}, {@code expiryDate}, {@code phoneNumber},
+ * {@code premiumAmount}, {@code paymentPeriod}; también en snake_case). El separador puede ser
+ * coma o punto y coma (Excel en español), se detecta en la cabecera.
+ * </p>
+ */
+@Service
+public class InsuranceImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsuranceImportService.class);
+
+    private static final String INSERT_INSURANCE = "INSERT INTO insurances (title, company, policy_number, category, "
+            + "expiry_date, phone_number, premium_amount, payment_period, user_id, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_PAYMENT = "INSERT INTO payments (amount, payment_date, status, insurance_id, version) "
+            + "VALUES (?, ?, ?, ?, 0)";
+
+    private static final List<String> REQUIRED = List.of("title", "company", "category", "expirydate", "premiumamount");
+    private static final List<String> OPTIONAL = List.of("policynumber", "phonenumber", "paymentperiod");
+
+    /** Longitud de las columnas de texto en la tabla {@code insurances}. */
+    private static final int MAX_TEXT = 255;
+
+    private static final DateTimeFormatter SPANISH_DATE = DateTimeFormatter.ofPattern("d/M/yyyy");
+
+    private static final CsvMapper CSV = new CsvMapper();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private InsuranceSuggestService suggestService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.max-errors:1000}")
+    private int maxErrors;
+
+    /**
+     * Resultado de una importación.
+     *
+     * @param rows Filas de datos leídas (sin la cabecera).
+     * @param imported Pólizas creadas.
+     * @param rejected Filas descartadas por errores.
+     * @param errors Errores por fila (como mucho {@code app.import.max-errors}).
+     * @param errorsTruncated true si hubo más errores de los que se devuelven.
+     */
+    public record ImportReport(long rows, long imported, long rejected, List<RowError> errors, boolean errorsTruncated) {
+    }
+
+    /**
+     * Errores de una fila.
+     *
+     * @param row Número de fila en el fichero, contando la cabecera como fila 1 (como en Excel).
+     * @param messages Motivos por los que no se importó.
+     */
+    public record RowError(long row, List<String> messages) {
+    }
+
+    /**
+     * Importa las pólizas del fichero para el usuario.
+     * <p>
+     * Si falla la base de datos a mitad, los lotes ya confirmados se conservan y el informe indica
+     * cuántas pólizas se llegaron a crear.
+     * </p>
+     *
+     * @param user Propietario de las pólizas.
+     * @param input Contenido del fichero CSV (UTF-8).
+     * @return Informe con las filas importadas y las rechazadas.
+     * @throws IllegalArgumentException Si falta la cabecera o alguna columna obligatoria.
+     * @throws IOException Si no se puede leer el fichero.
+     */
+    public ImportReport importCsv(User user, InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        char separator = detectSeparator(reader);
+        Chunk chunk = new Chunk(user);
+        try (MappingIterator<String[]> rows = CSV.readerFor(String[].class)
+                .with(CsvParser.Feature.WRAP_AS_ARRAY)
+                .with(CsvParser.Feature.TRIM_SPACES)
+                .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .with(CsvSchema.emptySchema().withColumnSeparator(separator))
+                .readValues(reader)) {
+            if (!rows.hasNext()) {
+                throw new IllegalArgumentException("El fichero está vacío");
+            }
+            Map<String, Integer> columns = columns(rows.next());
+            long row = 1;
+            while (true) {
+                String[] values;
+                try {
+                    if (!rows.hasNext()) {
+                        break;
+                    }
+                    values = rows.next();
+                } catch (RuntimeJsonMappingException e) {
+                    chunk.reject(row + 1, List.of("CSV mal formado, se detiene la importación: " + (e.getCause() instanceof com.fasterxml.jackson.core.JsonProcessingException cause
+                            ? cause.getOriginalMessage() : e.getMessage())));
+                    break;
+                }
+                row++;
+                chunk.rows++;
+                List<String> errors = new ArrayList<>();
+                Insurance insurance = parse(values, columns, errors);
+                if (errors.isEmpty()) {
+                    chunk.add(insurance);
+                    if (chunk.pending.size() >= batchSize && !chunk.flush()) {
+                        break;
+                    }
+                } else {
+                    chunk.reject(row, errors);
+                }
+            }
+        }
+        chunk.flush();
+        if (chunk.imported > 0) {
+            userRepository.incrementDataVersion(user.getId());
+        }
+        meterRegistry.counter("wallet.import.rows", "result", "imported").increment(chunk.imported);
+        meterRegistry.counter("wallet.import.rows", "result", "rejected").increment(chunk.rejected);
+        logger.info("Importación de pólizas del usuario {}: {} filas, {} importadas, {} rechazadas",
+                user.getId(), chunk.rows, chunk.imported, chunk.rejected);
+        return new ImportReport(chunk.rows, chunk.imported, chunk.rejected, chunk.errors, chunk.truncated);
+    }
+
+    /**
+     * Lee la cabecera sin consumirla (y salta la marca BOM de Excel) para elegir el separador.
+     */
+    private static char detectSeparator(BufferedReader reader) throws IOException {
+        reader.mark(8192);
+        String header = reader.readLine();
+        reader.reset();
+        if (header == null) {
+            throw new IllegalArgumentException("El fichero está vacío");
+        }
+        if (header.startsWith("\uFEFF")) {
+            reader.skip(1);
+        }
+        return header.chars().filter(c -> c == ';').count() > header.chars().filter(c -> c == ',').count() ? ';' : ',';
+    }
+
+    private static Map<String, Integer> columns(String[] header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            String name = header[i].replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+            if (REQUIRED.contains(name) || OPTIONAL.contains(name)) {
+                columns.putIfAbsent(name, i);
+            }
+        }
+        List<String> missing = REQUIRED.stream().filter(name -> !columns.containsKey(name)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas obligatorias en la cabecera: " + missing);
+        }
+        return columns;
+    }
+
+    /**
+     * Convierte una fila en una póliza y acumula en {@code errors} lo que no sea válido.
+     */
+    private Insurance parse(String[] values, Map<String, Integer> columns, List<String> errors) {
+        Insurance insurance = new Insurance();
+        insurance.setTitle(text(values, columns, "title", errors));
+        insurance.setCompany(suggestService.canonical(InsuranceSuggestService.COMPANY, text(values, columns, "company", errors)));
+        insurance.setPolicyNumber(text(values, columns, "policynumber", errors));
+        insurance.setCategory(suggestService.canonical(InsuranceSuggestService.CATEGORY, text(values, columns, "category", errors)));
+        insurance.setPhoneNumber(text(values, columns, "phonenumber", errors));
+
+        Set<String> unparsed = new HashSet<>();
+        String expiry = text(values, columns, "expirydate", errors);
+        if (expiry != null) {
+            try {
+                insurance.setExpiryDate(expiry.contains("/") ? LocalDate.parse(expiry, SPANISH_DATE) : LocalDate.parse(expiry));
+            } catch (DateTimeParseException e) {
+                errors.add("expiryDate: fecha no válida (aaaa-mm-dd o dd/mm/aaaa): " + expiry);
+                unparsed.add("expiryDate");
+            }
+        }
+        String premium = text(values, columns, "premiumamount", errors);
+        if (premium != null) {
+            try {
+                insurance.setPremiumAmount(Double.parseDouble(premium.indexOf('.') < 0 ? premium.replace(',', '.') : premium));
+            } catch (NumberFormatException e) {
+                errors.add("premiumAmount: número no válido: " + premium);
+                unparsed.add("premiumAmount");
+            }
+        }
+        String period = text(values, columns, "paymentperiod", errors);
+        if (period != null) {
+            Insurance.PaymentPeriod paymentPeriod = paymentPeriod(period);
+            if (paymentPeriod != null) {
+                insurance.setPaymentPeriod(paymentPeriod);
+            } else {
+                errors.add("paymentPeriod: debe ser MONTHLY, QUARTERLY o YEARLY: " + period);
+            }
+        }
+
+        for (ConstraintViolation<Insurance> violation : validator.validate(insurance)) {
+            String property = violation.getPropertyPath().toString();
+            if (!unparsed.contains(property)) {
+                errors.add(property + ": " + violation.getMessage());
+            }
+        }
+        return insurance;
+    }
+
+    private static String text(String[] values, Map<String, Integer> columns, String column, List<String> errors) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.length || values[index].isBlank()) {
+            return null;
+        }
+        String value = values[index];
+        if (value.length() > MAX_TEXT) {
+            errors.add(column + ": máximo " + MAX_TEXT + " caracteres");
+            return null;
+        }
+        return value;
+    }
+
+    private static Insurance.PaymentPeriod paymentPeriod(String value) {
+        return switch (value.toUpperCase(Locale.ROOT)) {
+            case "MONTHLY", "MENSUAL" -> Insurance.PaymentPeriod.MONTHLY;
+            case "QUARTERLY", "TRIMESTRAL" -> Insurance.PaymentPeriod.QUARTERLY;
+            case "YEARLY", "ANUAL" -> Insurance.PaymentPeriod.YEARLY;
+            default -> null;
+        };
+    }
+
+    /**
+     * Lote de pólizas válidas pendientes de insertar y recuento de la importación.
+     */
+    private final class Chunk {
+
+        private final User user;
+        private final List<Insurance> pending = new ArrayList<>(batchSize);
+        private final List<RowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long rejected;
+        private boolean truncated;
+        private boolean failed;
+
+        Chunk(User user) {
+            this.user = user;
+        }
+
+        void add(Insurance insurance) {
+            pending.add(insurance);
+        }
+
+        void reject(long row, List<String> messages) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(row, messages));
+            } else {
+                truncated = true;
+            }
+        }
+
+        /**
+         * Inserta el lote pendiente en una transacción.
+         *
+         * @return false si la base de datos falló y hay que detener la importación.
+         */
+        boolean flush() {
+            if (pending.isEmpty() || failed) {
+                return !failed;
+            }
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> insert());
+            } catch (DataAccessException e) {
+                logger.error("Importación de pólizas del usuario {} detenida tras {} pólizas: {}",
+                        user.getId(), imported, e.getMessage());
+                errors.add(new RowError(rows + 1, List.of("Error de base de datos, se detiene la importación; "
+                        + imported + " pólizas importadas")));
+                failed = true;
+                pending.clear();
+                return false;
+            }
+            imported += pending.size();
+            Map<String, Long> companies = new HashMap<>();
+            Map<String, Long> categories = new HashMap<>();
+            for (Insurance insurance : pending) {
+                companies.merge(insurance.getCompany(), 1L, Long::sum);
+                categories.merge(insurance.getCategory(), 1L, Long::sum);
+            }
+            suggestService.addAll(companies, categories);
+            pending.clear();
+            return true;
+        }
+
+        private void insert() {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_INSURANCE, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Insurance insurance = pending.get(i);
+                            ps.setString(1, insurance.getTitle());
+                            ps.setString(2, insurance.getCompany());
+                            setText(ps, 3, insurance.getPolicyNumber());
+                            ps.setString(4, insurance.getCategory());
+                            ps.setDate(5, Date.valueOf(insurance.getExpiryDate()));
+                            setText(ps, 6, insurance.getPhoneNumber());
+                            ps.setDouble(7, insurance.getPremiumAmount());
+                            ps.setString(8, insurance.getPaymentPeriod().name());
+                            ps.setLong(9, user.getId());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return pending.size();
+                        }
+                    }, keys);
+            List<Map<String, Object>> ids = keys.getKeyList();
+            Date today = Date.valueOf(LocalDate.now());
+            jdbcTemplate.batchUpdate(INSERT_PAYMENT, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setDouble(1, pending.get(i).getPremiumAmount());
+                    ps.setDate(2, today);
+                    ps.setString(3, com.wallet.secure.entity.Payment.Status.PENDING.name());
+                    ps.setLong(4, generatedId(ids.get(i)));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return pending.size();
+                }
+            });
+        }
+
+    }
+
+    private static void setText(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value != null) {
+            ps.setString(index, value);
+        } else {
+            ps.setNull(index, Types.VARCHAR);
+        }
+    }
+
+    /**
+     * @param keys Claves generadas de una fila (MySQL las llama {@code GENERATED_KEY}, H2 {@code ID}).
+     * @return El id de la póliza.
+     */
+    private static long generatedId(Map<String, Object> keys) {
+        Object id = keys.size() == 1 ? keys.values().iterator().next()
+                : keys.entrySet().stream().filter(key -> key.getKey().equalsIgnoreCase("id"))
+                        .map(Map.Entry::getValue).findFirst().orElseThrow();
+        return ((Number) id).longValue();
+    }
+}
@@ -0,0 +1,205 @@
+package com.wallet.secure.service;
+
+import com.wallet.secure.entity.Insurance;
+import com.wallet.secure.entity.User;
+import com.wallet.secure.repository.InsuranceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Búsqueda de texto en las pólizas de un usuario: título, compañía, número de póliza y categoría.
+ * <p>
+ * Una póliza coincide si contiene todas las palabras de la consulta (en cualquiera de los cuatro
+ * campos y en cualquier orden), sin distinguir mayúsculas; los operadores del modo booleano de MySQL
+ * se tratan como espacios y las palabras de menos de {@value #MIN_WORD_LENGTH} caracteres se ignoran.
+ * Las dos estrategias siguientes aplican esa misma regla.
+ * </p>
+ * <p>
+ * Por defecto se recorren solo las pólizas del usuario (índice de {@code user_id}) con un
+ * {@code LIKE '%palabra%'} por palabra: el coste crece con su cartera, no con la tabla. El índice
+ * FULLTEXT {@value #FULLTEXT_INDEX} con el parser ngram (lo crea
+ * {@link com.wallet.secure.config.SchemaFixer}) es global: {@code MATCH ... AGAINST} recorre las
+ * coincidencias de todos los usuarios antes de filtrar por {@code user_id}, así que una palabra común
+ * cuesta en proporción a toda la tabla. Solo compensa para carteras muy grandes, por lo que en MySQL
+ * se usa cuando el usuario tiene al menos {@code app.search.fulltext-min-policies} pólizas, y entonces
+ * ordena por relevancia.
+ * </p>
+ * <p>
+ * Con otras bases de datos (H2 en los tests y en la prueba de carga) siempre se recorre la cartera.
+ * {@code app.search.mode} ({@code auto}, {@code fulltext} o {@code like}) permite forzar una de las dos.
+ * </p>
+ */
+@Service
+public class InsuranceSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsuranceSearchService.class);
+
+    /** Nombre del índice FULLTEXT sobre {@code insurances}. */
+    public static final String FULLTEXT_INDEX = "ft_insurances_search";
+
+    /** Tamaño máximo de página. */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /** Longitud mínima de una palabra para el parser ngram ({@code ngram_token_size} por defecto). */
+    private static final int MIN_WORD_LENGTH = 2;
+
+    /** Error de MySQL {@code ER_FT_MATCHING_KEY_NOT_FOUND}: no hay índice FULLTEXT para esas columnas. */
+    private static final int MISSING_FULLTEXT_INDEX = 1191;
+
+    @Autowired
+    private InsuranceRepository insuranceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.search.mode:auto}")
+    private String mode;
+
+    /** Pólizas a partir de las cuales un usuario se busca con el índice FULLTEXT en lugar de recorrer su cartera. */
+    @Value("${app.search.fulltext-min-policies:2000}")
+    private long fullTextMinPolicies;
+
+    private volatile boolean fullText;
+
+    /**
+     * Decide el modo de búsqueda según la base de datos.
+     */
+    @PostConstruct
+    void detectMode() {
+        if ("auto".equalsIgnoreCase(mode)) {
+            String product = jdbcTemplate.execute((Connection connection) -> connection.getMetaData().getDatabaseProductName());
+            fullText = "MySQL".equalsIgnoreCase(product);
+        } else {
+            fullText = "fulltext".equalsIgnoreCase(mode);
+        }
+        logger.info("Búsqueda de pólizas: {}", fullText ? "índice FULLTEXT (ngram)" : "subcadena sin índice");
+    }
+
+    /**
+     * @return true si se usa el índice FULLTEXT de MySQL.
+     */
+    public boolean isFullText() {
+        return fullText;
+    }
+
+    /**
+     * Busca pólizas del usuario que contengan todas las palabras de la consulta.
+     *
+     * @param user Propietario de las pólizas.
+     * @param query Texto buscado.
+     * @param page Número de página (desde 0).
+     * @param size Tamaño de página (se limita a {@link #MAX_PAGE_SIZE}).
+     * @return Página de resultados, de más a menos relevante.
+     */
+    public Page<Insurance> search(User user, String query, int page, int size) {
+        PageRequest pageable = PageRequest.of(Math.max(0, page), Math.min(Math.max(1, size), MAX_PAGE_SIZE));
+        String text = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<String> words = words(text);
+        if (words.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        if (fullText && insuranceRepository.countByUser(user) >= fullTextMinPolicies) {
+            try {
+                return insuranceRepository.searchFullText(user.getId(), booleanQuery(words), text, pageable);
+            } catch (DataAccessException e) {
+                // Esta petición se sirve por subcadena. Solo si falta el índice (no se pudo crear) se deja de
+                // usar FULLTEXT; un error pasajero (bloqueo, conexión, réplica) no afecta a las siguientes
+                if (isMissingIndex(e)) {
+                    logger.error("Falta el índice FULLTEXT {}, se pasa a búsqueda por subcadena: {}", FULLTEXT_INDEX, e.getMessage());
+                    fullText = false;
+                } else {
+                    logger.warn("Búsqueda FULLTEXT fallida, se repite por subcadena: {}", e.getMessage());
+                }
+            }
+        }
+        return insuranceRepository.findAll(containsAllWords(user, words), pageable);
+    }
+
+    /**
+     * Separa la consulta en palabras: los operadores del modo booleano cuentan como espacios y se
+     * descartan las palabras más cortas que los n-gramas, que el índice no puede encontrar.
+     *
+     * @param text Consulta ya en minúsculas.
+     * @return Palabras en el orden en que aparecen.
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.replaceAll("[+\\-<>()~*\"@]", " ").split("\\s+")) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Consulta booleana de MySQL en la que cada palabra es una frase obligatoria ({@code +"palabra"}).
+     *
+     * @param words Palabras de {@link #words}.
+     * @return Consulta para {@code AGAINST (... IN BOOLEAN MODE)}.
+     */
+    static String booleanQuery(List<String> words) {
+        StringBuilder query = new StringBuilder();
+        for (String word : words) {
+            if (!query.isEmpty()) {
+                query.append(' ');
+            }
+            query.append("+\"").append(word).append('"');
+        }
+        return query.toString();
+    }
+
+    /**
+     * Pólizas del usuario con todas las palabras en alguno de los cuatro campos; primero las que las
+     * tienen todas en el título.
+     */
+    static Specification<Insurance> containsAllWords(User user, List<String> words) {
+        return (root, query, cb) -> {
+            Expression<String> title = cb.lower(root.get("title"));
+            List<Expression<String>> fields = List.of(title, cb.lower(root.get("company")),
+                    cb.lower(root.get("policyNumber")), cb.lower(root.get("category")));
+            List<Predicate> predicates = new ArrayList<>();
+            List<Predicate> inTitle = new ArrayList<>();
+            predicates.add(cb.equal(root.get("user"), user));
+            for (String word : words) {
+                String pattern = "%" + escapeLike(word) + "%";
+                predicates.add(cb.or(fields.stream().map(field -> cb.like(field, pattern, '!')).toArray(Predicate[]::new)));
+                inTitle.add(cb.like(title, pattern, '!'));
+            }
+            // Spring Data quita este orden en la consulta de recuento
+            query.orderBy(cb.asc(cb.<Integer>selectCase().when(cb.and(inTitle.toArray(new Predicate[0])), 0).otherwise(1)),
+                    cb.desc(root.get("id")));
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static boolean isMissingIndex(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getErrorCode() == MISSING_FULLTEXT_INDEX) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
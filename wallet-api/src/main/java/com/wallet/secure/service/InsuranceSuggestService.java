@@ -0,0 +1,232 @@
+package com.wallet.secure.service;
+
+import com.wallet.secure.repository.InsuranceRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sugerencias de compañía y categoría para el formulario de pólizas, servidas desde memoria.
+ * <p>
+ * Mantiene un {@link PrefixIndex} por campo con los valores distintos de las pólizas y cuántas
+ * los usan. Al arrancar y cada {@code app.suggest.rebuild-interval-ms} se reconstruye con un
+ * {@code GROUP BY} (así recoge lo que han guardado otras instancias); entre medias, el controlador
+ * actualiza los contadores con cada alta, cambio o baja de esta instancia.
+ * </p>
+ * <p>
+ * El índice es el mismo para todos los usuarios, así que solo entran los valores que usan al menos
+ * {@code app.suggest.min-users} usuarios distintos (contando juntas las variantes de mayúsculas,
+ * tildes y espacios): lo que un usuario escribe y nadie más usa no aparece en las sugerencias de
+ * otro. Por eso las altas y cambios solo suman a valores que ya están en el índice; uno nuevo
+ * entra en la siguiente reconstrucción si ya lo comparten suficientes usuarios.
+ * </p>
+ * <p>
+ * También unifica cómo se escriben: {@link #canonical} devuelve la forma ya registrada de un valor
+ * que solo difiere en mayúsculas, tildes o espacios ("hogar " se guarda como "Hogar"), para que
+ * las agrupaciones por categoría del panel no se partan en variantes. Solo reescribe hacia valores
+ * compartidos del índice; uno que no lo es se guarda tal cual lo escribió el usuario.
+ * </p>
+ */
+@Service
+public class InsuranceSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsuranceSuggestService.class);
+
+    public static final String COMPANY = "company";
+    public static final String CATEGORY = "category";
+
+    /** Número máximo de sugerencias por consulta. */
+    public static final int MAX_LIMIT = 20;
+
+    @Autowired
+    private InsuranceRepository insuranceRepository;
+
+    /** Usuarios distintos que deben usar un valor para que se sugiera a todos. */
+    @Value("${app.suggest.min-users:3}")
+    private int minUsers;
+
+    private volatile PrefixIndex companies = PrefixIndex.EMPTY;
+    private volatile PrefixIndex categories = PrefixIndex.EMPTY;
+
+    /** Una sola reconstrucción a la vez (la programada y las de borrados y archivado). */
+    private final ReentrantLock rebuilding = new ReentrantLock();
+
+    /**
+     * Cambios aplicados mientras una reconstrucción lee la base de datos (null si no hay ninguna): se
+     * vuelven a aplicar sobre el índice nuevo en lugar de descartarlo. Protegido por {@code this}.
+     */
+    private Map<String, Long> pendingCompanies;
+    private Map<String, Long> pendingCategories;
+
+    /**
+     * Carga los índices al arrancar.
+     */
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruye los índices desde la base de datos.
+     * <p>
+     * Las altas, cambios y bajas que llegan mientras se leen los {@code GROUP BY} se anotan y se
+     * aplican también al índice nuevo, así que la reconstrucción nunca se descarta por mucho que se
+     * escriba. Si alguno de esos cambios ya estaba en la lectura cuenta dos veces, solo hasta la
+     * siguiente reconstrucción.
+     * </p>
+     */
+    @Scheduled(initialDelayString = "${app.suggest.rebuild-interval-ms:300000}",
+            fixedDelayString = "${app.suggest.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        rebuilding.lock();
+        try {
+            synchronized (this) {
+                pendingCompanies = new HashMap<>();
+                pendingCategories = new HashMap<>();
+            }
+            PrefixIndex newCompanies;
+            PrefixIndex newCategories;
+            try {
+                newCompanies = PrefixIndex.of(shared(insuranceRepository.countByCompany(), minUsers));
+                newCategories = PrefixIndex.of(shared(insuranceRepository.countByCategory(), minUsers));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingCompanies = null;
+                    pendingCategories = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                companies = replay(newCompanies, pendingCompanies);
+                categories = replay(newCategories, pendingCategories);
+                pendingCompanies = null;
+                pendingCategories = null;
+            }
+            logger.debug("Índice de sugerencias: {} compañías, {} categorías", newCompanies.size(), newCategories.size());
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    /**
+     * @param field {@link #COMPANY} o {@link #CATEGORY}.
+     * @param prefix Lo que lleva escrito el usuario.
+     * @param limit Número máximo de sugerencias (se limita a {@link #MAX_LIMIT}).
+     * @return Valores que empiezan por el prefijo, los más usados primero.
+     * @throws IllegalArgumentException Si el campo no admite sugerencias.
+     */
+    public List<String> suggest(String field, String prefix, int limit) {
+        return index(field).complete(prefix, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * @param field {@link #COMPANY} o {@link #CATEGORY}.
+     * @param value Valor introducido (puede ser null).
+     * @return La forma registrada del valor si es uno compartido; si no, el valor sin espacios sobrantes.
+     */
+    public String canonical(String field, String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = index(field).canonical(value);
+        return canonical != null ? canonical : PrefixIndex.clean(value);
+    }
+
+    /**
+     * Refleja en los contadores del índice el alta, cambio o baja de una póliza (los valores que
+     * aún no están en el índice esperan a la siguiente reconstrucción).
+     *
+     * @param oldCompany Compañía anterior (null en un alta).
+     * @param oldCategory Categoría anterior (null en un alta).
+     * @param newCompany Compañía nueva (null en una baja).
+     * @param newCategory Categoría nueva (null en una baja).
+     */
+    public synchronized void replace(String oldCompany, String oldCategory, String newCompany, String newCategory) {
+        companies = known(companies.add(oldCompany, -1), newCompany, 1);
+        categories = known(categories.add(oldCategory, -1), newCategory, 1);
+        if (pendingCompanies != null) {
+            record(pendingCompanies, oldCompany, -1);
+            record(pendingCompanies, newCompany, 1);
+            record(pendingCategories, oldCategory, -1);
+            record(pendingCategories, newCategory, 1);
+        }
+    }
+
+    /**
+     * Suma las compañías y categorías de un lote de pólizas nuevas.
+     *
+     * @param newCompanies Compañía y número de pólizas nuevas con ella.
+     * @param newCategories Categoría y número de pólizas nuevas con ella.
+     */
+    public synchronized void addAll(Map<String, Long> newCompanies, Map<String, Long> newCategories) {
+        companies = companies.addAll(known(companies, newCompanies));
+        categories = categories.addAll(known(categories, newCategories));
+        if (pendingCompanies != null) {
+            newCompanies.forEach((value, delta) -> record(pendingCompanies, value, delta));
+            newCategories.forEach((value, delta) -> record(pendingCategories, value, delta));
+        }
+    }
+
+    private PrefixIndex index(String field) {
+        return switch (field) {
+            case COMPANY -> companies;
+            case CATEGORY -> categories;
+            default -> throw new IllegalArgumentException("Campo sin sugerencias: " + field);
+        };
+    }
+
+    private static void record(Map<String, Long> pending, String value, long delta) {
+        if (value != null) {
+            pending.merge(value, delta, Long::sum);
+        }
+    }
+
+    private static PrefixIndex replay(PrefixIndex index, Map<String, Long> pending) {
+        for (Map.Entry<String, Long> delta : pending.entrySet()) {
+            index = delta.getValue() < 0 ? index.add(delta.getKey(), delta.getValue()) : known(index, delta.getKey(), delta.getValue());
+        }
+        return index;
+    }
+
+    private static PrefixIndex known(PrefixIndex index, String value, long delta) {
+        return index.canonical(value) != null ? index.add(value, delta) : index;
+    }
+
+    private static Map<String, Long> known(PrefixIndex index, Map<String, Long> deltas) {
+        Map<String, Long> known = new HashMap<>();
+        deltas.forEach((value, delta) -> {
+            if (index.canonical(value) != null) {
+                known.put(value, delta);
+            }
+        });
+        return known;
+    }
+
+    /**
+     * @param rows Filas {@code [valor, id del usuario, pólizas]}.
+     * @param minUsers Usuarios distintos necesarios por valor normalizado.
+     * @return Pólizas por valor guardado, solo de los valores que comparten suficientes usuarios.
+     */
+    static Map<String, Long> shared(List<Object[]> rows, int minUsers) {
+        Map<String, Set<Object>> users = new HashMap<>();
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            String value = (String) row[0];
+            users.computeIfAbsent(PrefixIndex.normalize(PrefixIndex.clean(value)), key -> new HashSet<>()).add(row[1]);
+            counts.merge(value, ((Number) row[2]).longValue(), Long::sum);
+        }
+        counts.keySet().removeIf(value -> users.get(PrefixIndex.normalize(PrefixIndex.clean(value))).size() < minUsers);
+        return counts;
+    }
+}
@@ -0,0 +1,179 @@
+package com.wallet.secure.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Particionado por rango de fecha de {@code payments} ({@code payment_date}) y {@code tickets}
+ * ({@code created_at}), solo en MySQL.
+ * <p>
+ * Cada tabla se divide en una partición por año ({@code pAAAA}) más {@code pmax} para lo posterior.
+ * Las consultas que acotan la columna de fecha con comparaciones directas ({@code >=}, {@code <},
+ * {@code BETWEEN}; nunca {@code YEAR(columna)}) solo leen las particiones de los años que tocan
+ * (<em>partition pruning</em>); las que no la acotan (los pagos de una póliza, los tickets de un
+ * usuario) consultan el índice de cada partición, por eso las particiones son anuales y no mensuales.
+ * </p>
+ * <p>
+ * MySQL exige que la clave primaria incluya la columna de partición y no admite claves foráneas en
+ * tablas particionadas: al particionar, la clave pasa a ser {@code (id, columna)} y se quitan las
+ * claves foráneas de la tabla (las entidades ya no las declaran). La conversión copia la tabla entera,
+ * así que es opcional ({@code app.partitioning.enabled}) y la lanza {@code SchemaFixer} al arrancar.
+ * Después, {@link #rollover()} mantiene creadas las particiones de los próximos
+ * {@code app.partitioning.years-ahead} años partiendo {@code pmax}, que así está vacía y se reorganiza
+ * sin copiar filas.
+ * </p>
+ */
+@Service
+public class PartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionService.class);
+
+    /** Partición para las fechas posteriores a la última anual. */
+    static final String MAX_PARTITION = "pmax";
+
+    /**
+     * Tabla particionada por fecha.
+     *
+     * @param name Tabla.
+     * @param column Columna de partición.
+     * @param type Tipo de la columna, que pasa a ser NOT NULL.
+     */
+    public record PartitionedTable(String name, String column, String type) {
+    }
+
+    public static final PartitionedTable PAYMENTS = new PartitionedTable("payments", "payment_date", "DATE");
+    public static final PartitionedTable TICKETS = new PartitionedTable("tickets", "created_at", "DATETIME(6)");
+
+    public static final List<PartitionedTable> TABLES = List.of(PAYMENTS, TICKETS);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.partitioning.years-ahead:2}")
+    private int yearsAhead;
+
+    /**
+     * Definición de las particiones anuales de {@code fromYear} a {@code toYear} (incluidos) y de
+     * {@code pmax}, para {@code PARTITION BY RANGE COLUMNS(columna) (...)}.
+     *
+     * @param fromYear Primer año.
+     * @param toYear Último año.
+     * @return Lista de particiones separadas por comas.
+     */
+    public static String partitionDefinitions(int fromYear, int toYear) {
+        List<String> partitions = new ArrayList<>();
+        for (int year = fromYear; year <= toYear; year++) {
+            partitions.add("PARTITION p" + year + " VALUES LESS THAN ('" + (year + 1) + "-01-01')");
+        }
+        partitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        return String.join(", ", partitions);
+    }
+
+    /**
+     * Particiona las tablas que aún no lo estén y crea las particiones de los próximos años. No hace
+     * nada si el particionado está desactivado o la base de datos no es MySQL.
+     */
+    public void partitionTables() {
+        if (!enabled) {
+            return;
+        }
+        String product = jdbcTemplate.execute((Connection connection) -> connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product) && !"MariaDB".equalsIgnoreCase(product)) {
+            logger.info("Particionado por fecha no disponible en {}", product);
+            return;
+        }
+        for (PartitionedTable table : TABLES) {
+            if (!isPartitioned(table)) {
+                partition(table);
+            }
+        }
+        rollover();
+    }
+
+    /**
+     * @param table Tabla.
+     * @return true si la tabla está particionada (falso también fuera de MySQL).
+     */
+    public boolean isPartitioned(PartitionedTable table) {
+        try {
+            Integer partitions = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.partitions"
+                    + " WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL",
+                    Integer.class, table.name());
+            return partitions != null && partitions > 0;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private void partition(PartitionedTable table) {
+        Long nulls = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table.name() + " WHERE " + table.column() + " IS NULL", Long.class);
+        if (nulls != null && nulls > 0) {
+            logger.error("{} filas de {} sin {}: la tabla no se particiona", nulls, table.name(), table.column());
+            return;
+        }
+        List<String> foreignKeys = jdbcTemplate.queryForList("SELECT constraint_name FROM information_schema.referential_constraints"
+                + " WHERE constraint_schema = DATABASE() AND table_name = ?", String.class, table.name());
+        for (String foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + table.name() + " DROP FOREIGN KEY " + foreignKey);
+        }
+        Date oldest = jdbcTemplate.queryForObject("SELECT DATE(MIN(" + table.column() + ")) FROM " + table.name(), Date.class);
+        int currentYear = LocalDate.now().getYear();
+        int fromYear = oldest != null ? Math.min(oldest.toLocalDate().getYear(), currentYear) : currentYear;
+
+        long started = System.nanoTime();
+        // Una sola sentencia: la tabla se copia una vez
+        jdbcTemplate.execute("ALTER TABLE " + table.name()
+                + " MODIFY COLUMN " + table.column() + " " + table.type() + " NOT NULL,"
+                + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, " + table.column() + ")"
+                + " PARTITION BY RANGE COLUMNS(" + table.column() + ") ("
+                + partitionDefinitions(fromYear, currentYear + yearsAhead) + ")");
+        logger.info("Tabla {} particionada por {} desde {} en {} ms (claves foráneas quitadas: {})", table.name(),
+                table.column(), fromYear, (System.nanoTime() - started) / 1_000_000, foreignKeys);
+    }
+
+    /**
+     * Crea, partiendo {@code pmax}, las particiones anuales que falten hasta dentro de
+     * {@code app.partitioning.years-ahead} años.
+     */
+    @Scheduled(cron = "${app.partitioning.cron:0 0 4 * * *}")
+    public void rollover() {
+        if (!enabled) {
+            return;
+        }
+        int lastYear = LocalDate.now().getYear() + yearsAhead;
+        for (PartitionedTable table : TABLES) {
+            if (!isPartitioned(table)) {
+                continue;
+            }
+            List<String> names = jdbcTemplate.queryForList("SELECT partition_name FROM information_schema.partitions"
+                    + " WHERE table_schema = DATABASE() AND table_name = ? ORDER BY partition_ordinal_position", String.class, table.name());
+            int newest = names.stream().filter(name -> name.matches("p\\d{4}"))
+                    .mapToInt(name -> Integer.parseInt(name.substring(1))).max().orElse(LocalDate.now().getYear() - 1);
+            if (newest >= lastYear) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + table.name() + " REORGANIZE PARTITION " + MAX_PARTITION
+                        + " INTO (" + partitionDefinitions(newest + 1, lastYear) + ")");
+                logger.info("Particiones de {} creadas hasta {}", table.name(), lastYear);
+            } catch (RuntimeException e) {
+                // Otra instancia puede haberlas creado a la vez
+                logger.warn("No se pudieron crear las particiones de {} hasta {}: {}", table.name(), lastYear, e.getMessage());
+            }
+        }
+    }
+}
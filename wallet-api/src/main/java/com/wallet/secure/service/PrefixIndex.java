@@ -0,0 +1,208 @@
+package com.wallet.secure.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de prefijos inmutable de valores de texto con su número de usos.
+ * <p>
+ * Las claves son los valores normalizados ({@link #normalize}: minúsculas, sin tildes ni espacios
+ * repetidos) en un array ordenado, así que completar un prefijo es una búsqueda binaria más un
+ * recorrido por las claves contiguas. Cada clave guarda la forma en que se muestra (la más usada
+ * al reconstruir, o la primera que llegó) y cuántas pólizas la usan.
+ * </p>
+ * <p>
+ * Los cambios devuelven un índice nuevo (copia de los arrays), pensado para pocos miles de
+ * valores distintos que cambian poco y se leen mucho.
+ * </p>
+ */
+final class PrefixIndex {
+
+    static final PrefixIndex EMPTY = new PrefixIndex(new String[0], new String[0], new long[0]);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final String[] keys;
+    private final String[] values;
+    private final long[] counts;
+
+    private PrefixIndex(String[] keys, String[] values, long[] counts) {
+        this.keys = keys;
+        this.values = values;
+        this.counts = counts;
+    }
+
+    /**
+     * Construye el índice a partir de los valores tal y como están guardados.
+     *
+     * @param valueCounts Valor guardado y número de pólizas que lo usan.
+     * @return Índice en el que las variantes de un mismo valor se agrupan bajo la más usada.
+     */
+    static PrefixIndex of(Map<String, Long> valueCounts) {
+        Map<String, String> display = new HashMap<>();
+        Map<String, Long> best = new HashMap<>();
+        Map<String, Long> total = new HashMap<>();
+        valueCounts.forEach((value, count) -> {
+            String clean = clean(value);
+            if (clean.isEmpty() || count == null || count <= 0) {
+                return;
+            }
+            String key = normalize(clean);
+            total.merge(key, count, Long::sum);
+            if (count > best.getOrDefault(key, 0L)
+                    || count == best.getOrDefault(key, 0L) && clean.compareTo(display.get(key)) < 0) {
+                best.put(key, count);
+                display.put(key, clean);
+            }
+        });
+        String[] keys = total.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        String[] values = new String[keys.length];
+        long[] counts = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = display.get(keys[i]);
+            counts[i] = total.get(keys[i]);
+        }
+        return new PrefixIndex(keys, values, counts);
+    }
+
+    /**
+     * @param value Valor con cualquier combinación de mayúsculas, tildes y espacios.
+     * @return La forma registrada del mismo valor, o null si no está en el índice.
+     */
+    String canonical(String value) {
+        int i = Arrays.binarySearch(keys, normalize(clean(value)));
+        return i >= 0 ? values[i] : null;
+    }
+
+    /**
+     * Suma (o resta) usos a un valor, añadiéndolo si no estaba.
+     *
+     * @param value Valor (se guarda limpio de espacios sobrantes).
+     * @param delta Usos a sumar; un valor que queda sin usos deja de sugerirse.
+     * @return Índice con el cambio aplicado.
+     */
+    PrefixIndex add(String value, long delta) {
+        String clean = clean(value);
+        if (clean.isEmpty() || delta == 0) {
+            return this;
+        }
+        String key = normalize(clean);
+        int i = Arrays.binarySearch(keys, key);
+        if (i >= 0) {
+            long[] newCounts = counts.clone();
+            newCounts[i] = Math.max(0, newCounts[i] + delta);
+            return new PrefixIndex(keys, values, newCounts);
+        }
+        if (delta < 0) {
+            return this;
+        }
+        int at = -i - 1;
+        return new PrefixIndex(insert(keys, at, key), insert(values, at, clean), insert(counts, at, delta));
+    }
+
+    /**
+     * Suma usos a muchos valores de una vez (importaciones): una sola reconstrucción en lugar de
+     * una copia del índice por valor.
+     *
+     * @param deltas Valor y usos a sumar.
+     * @return Índice con los cambios aplicados.
+     */
+    PrefixIndex addAll(Map<String, Long> deltas) {
+        if (deltas.size() <= 8) {
+            PrefixIndex index = this;
+            for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                index = index.add(delta.getKey(), delta.getValue());
+            }
+            return index;
+        }
+        Map<String, Long> merged = new HashMap<>(deltas);
+        for (int i = 0; i < keys.length; i++) {
+            merged.merge(values[i], counts[i], Long::sum);
+        }
+        return of(merged);
+    }
+
+    /**
+     * Valores que empiezan por el prefijo, de más a menos usados (a igualdad, en orden alfabético).
+     *
+     * @param prefix Prefijo (se normaliza igual que los valores); vacío = los más usados.
+     * @param limit Número máximo de resultados.
+     * @return Valores en su forma registrada.
+     */
+    List<String> complete(String prefix, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        String key = normalize(clean(prefix));
+        int from = Arrays.binarySearch(keys, key);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        // Los 'limit' mejores en un pequeño array ordenado por usos (inserción)
+        int[] top = new int[limit];
+        int found = 0;
+        for (int i = from; i < keys.length && keys[i].startsWith(key); i++) {
+            if (counts[i] == 0 || found == top.length && counts[i] <= counts[top[found - 1]]) {
+                continue;
+            }
+            int j = found < top.length ? found++ : found - 1;
+            while (j > 0 && counts[top[j - 1]] < counts[i]) {
+                top[j] = top[j - 1];
+                j--;
+            }
+            top[j] = i;
+        }
+        List<String> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(values[top[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * @return Número de valores distintos (normalizados) en el índice.
+     */
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param value Texto ya limpio.
+     * @return Clave de comparación: minúsculas y sin tildes ni diéresis.
+     */
+    static String normalize(String value) {
+        return MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param value Texto introducido por el usuario (puede ser null).
+     * @return El texto sin espacios al principio ni al final y con los espacios interiores reducidos a uno.
+     */
+    static String clean(String value) {
+        return value == null ? "" : SPACES.matcher(value.strip()).replaceAll(" ");
+    }
+
+    private static String[] insert(String[] array, int at, String value) {
+        String[] copy = new String[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(array, at, copy, at + 1, array.length - at);
+        return copy;
+    }
+
+    private static long[] insert(long[] array, int at, long value) {
+        long[] copy = new long[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(array, at, copy, at + 1, array.length - at);
+        return copy;
+    }
+}
@@ -2,6 +2,8 @@ package com.wallet.secure.service;
 
 import com.wallet.secure.entity.User;
 import com.wallet.secure.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -12,10 +14,16 @@ import java.util.UUID;
 /**
  * Servicio encargado de la lógica de negocio relacionada con los usuarios.
  * Gestiona el registro, verificación, recuperación de contraseñas y cambios de roles.
+ * <p>
+ * Los correos se envían siempre después de guardar y fuera de cualquier transacción,
+ * para no retener una conexión del pool mientras dura la llamada SMTP.
+ * </p>
  */
 @Service
 public class UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -60,8 +68,8 @@ public class UserService {
         try {
             emailService.sendVerificationEmail(savedUser.getEmail(), savedUser.getVerificationCode());
         } catch (Exception e) {
-            System.err.println("SMTP ERROR: No se envió el correo.");
-            System.err.println("ENLACE DE ACTIVACIÓN (DEV): http://localhost:8081/verify?code=" + savedUser.getVerificationCode());
+            logger.warn("No se pudo enviar el correo de verificación a {}: {}", savedUser.getEmail(), e.getMessage());
+            logger.debug("Enlace de activación (dev): http://localhost:8081/verify?code={}", savedUser.getVerificationCode());
         }
     }
 
@@ -116,9 +124,8 @@ public class UserService {
                 emailService.sendPasswordResetEmail(user.getEmail(), token);
             } catch (Exception e) {
                 // Si falla el correo, mostramos el link en consola para no bloquear al usuario
-                System.err.println("ERROR CORREO RECUPERACIÓN: " + e.getMessage());
-                System.err.println("ENLACE DE RECUPERACIÓN MANUAL (DEV):");
-                System.err.println("http://localhost:8081/reset-password?token=" + token);
+                logger.warn("No se pudo enviar el correo de recuperación a {}: {}", user.getEmail(), e.getMessage());
+                logger.debug("Enlace de recuperación manual (dev): http://localhost:8081/reset-password?token={}", token);
             }
         }
         // Nota: Si el usuario no existe, no se realiza ninguna acción por seguridad.
@@ -142,6 +149,18 @@ public class UserService {
         }
     }
 
+    /**
+     * Guarda el hash recalculado con el coste BCrypt vigente tras un inicio de sesión correcto.
+     *
+     * @param user Usuario tal y como se leyó al verificar (con el hash antiguo).
+     * @param newHash Nuevo hash de la misma contraseña.
+     */
+    public void upgradePasswordHash(User user, String newHash) {
+        if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), newHash) == 1) {
+            logger.info("Hash de contraseña actualizado al coste vigente para {}", user.getEmail());
+        }
+    }
+
     /**
      * Establece una nueva contraseña utilizando un token de recuperación válido.
      *
@@ -179,7 +198,6 @@ public class UserService {
      * @param desiredRole El rol que el usuario desea obtener.
      * @throws Exception Si el usuario no existe.
      */
-    @Transactional
     public void requestRoleChange(String email, String desiredRole) throws Exception {
         User user = userRepository.findByEmail(email);
         if (user == null) throw new Exception("Usuario no encontrado.");
@@ -199,25 +217,15 @@ public class UserService {
      * @param token El token de solicitud de cambio de rol.
      * @throws Exception Si el token es inválido o no se encuentra la solicitud.
      */
-    @Transactional
     public void approveRoleChange(String token) throws Exception {
-        System.out.println("INFO: Intentando aprobar rol con token: " + token);
-        
         User user = userRepository.findByRoleChangeToken(token);
         
         if (user == null) {
-            System.out.println("INFO: Usuario no encontrado para el token: " + token);
-            // Intento de depuración adicional: imprimir todos los tokens (solo para desarrollo)
-            userRepository.findAll().forEach(u -> 
-                System.out.println("INFO: User " + u.getEmail() + " Token: " + u.getRoleChangeToken())
-            );
+            logger.warn("Aprobación de rol con un token inexistente");
             throw new Exception("Token de solicitud inválido o no encontrado.");
         }
 
-        System.out.println("INFO: Usuario encontrado: " + user.getEmail() + ", Rol solicitado: " + user.getRequestedRole());
-
         if (user.getRequestedRole() == null) {
-            System.out.println("INFO: No hay rol solicitado.");
              throw new Exception("No hay rol pendiente de aprobación.");
         }
 
@@ -227,12 +235,12 @@ public class UserService {
         
         userRepository.save(user);
         
-        System.out.println("INFO: Rol actualizado correctamente a " + user.getRole());
+        logger.info("Rol de {} actualizado a {}", user.getEmail(), user.getRole());
         
         try {
             emailService.sendRoleStatusEmail(user.getEmail(), "APROBADO", user.getRole());
         } catch (Exception e) {
-             System.out.println("INFO: Error enviando email de confirmación: " + e.getMessage());
+             logger.warn("No se pudo enviar la confirmación de rol a {}: {}", user.getEmail(), e.getMessage());
         }
     }
 
@@ -242,7 +250,6 @@ public class UserService {
      * @param token El token de la solicitud a rechazar.
      * @throws Exception Si el token es inválido.
      */
-    @Transactional
     public void rejectRoleChange(String token) throws Exception {
         User user = userRepository.findByRoleChangeToken(token);
         
@@ -0,0 +1,48 @@
+package com.wallet.secure.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El límite por IP sobre un Tomcat real: la cabecera {@code X-Forwarded-For} de un cliente que no es
+ * un proxy de confianza se ignora, así que cambiarla en cada intento no da un cubo nuevo.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // Solo se confía en una IP que no es la del test: hace de cliente que llama directamente a la API
+        "server.tomcat.remoteip.internal-proxies=192\\\\.0\\\\.2\\\\.1",
+        "app.auth.rate-limit.login.ip=3/1h"})
+@ActiveProfiles("test")
+class AuthRateLimitForwardedHeaderTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void spoofedForwardedForDoesNotResetTheBucket() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(login("198.51.100." + i).getStatusCode()).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        ResponseEntity<String> throttled = login("198.51.100.99, 203.0.113.5");
+        assertThat(throttled.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(throttled.getHeaders().getFirst("Retry-After")).isNotNull();
+    }
+
+    private ResponseEntity<String> login(String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", forwardedFor);
+        return restTemplate.postForEntity("/api/auth/login",
+                new HttpEntity<>("{\"email\":\"nadie@wallet.com\",\"password\":\"x\"}", headers), String.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.wallet.secure.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El límite por IP detrás de un proxy de confianza (el test llama desde loopback, como wallet-web en local):
+ * la IP de {@code X-Forwarded-For} es la clave del cubo, y de una cadena cuenta el último salto no fiable.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.remoteip.internal-proxies=127\\\\.0\\\\.0\\\\.1|0:0:0:0:0:0:0:1",
+        "app.auth.rate-limit.login.ip=3/1h"})
+@ActiveProfiles("test")
+class AuthRateLimitTrustedProxyTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void forwardedClientIpIsTheBucketKey() {
+        for (int i = 0; i < 3; i++) {
+            // El primer valor lo inventa el navegador; el que cuenta es el que añadió el proxy
+            assertThat(login(i, "10.66.0." + i + ", 198.51.100.20")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        assertThat(login(3, "198.51.100.20")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        // Otro cliente tras el mismo proxy tiene su propio cubo
+        assertThat(login(4, "198.51.100.21")).isNotEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private HttpStatus login(int attempt, String forwardedFor) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", forwardedFor);
+        return HttpStatus.valueOf(restTemplate.postForEntity("/api/auth/login",
+                new HttpEntity<>("{\"email\":\"proxy" + attempt + "@wallet.com\",\"password\":\"x\"}", headers),
+                String.class).getStatusCode().value());
+    }
+}
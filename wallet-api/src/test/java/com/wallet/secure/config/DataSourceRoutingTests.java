@@ -0,0 +1,130 @@
+package com.wallet.secure.config;
+
+import com.wallet.secure.entity.User;
+import com.wallet.secure.security.ServiceTokenService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reparto de {@link DataSourceConfig} con dos bases H2: cada una tiene una tabla {@code node} con su
+ * nombre, así que cada consulta dice a qué destino ha ido.
+ */
+class DataSourceRoutingTests {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+
+    private HikariDataSource primary;
+    private ReplicaDataSource replicaDataSource;
+    private DataSource dataSource;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        createNode(PRIMARY_URL, "primary");
+        createNode(REPLICA_URL, "replica");
+
+        DataSourceConfig config = new DataSourceConfig();
+        ReflectionTestUtils.setField(config, "replicaUrls", REPLICA_URL);
+        // Sin filas = la réplica no replica de nadie y se considera al día
+        ReflectionTestUtils.setField(config, "replicaLagQuery", "SELECT 0 AS Seconds_Behind_Source FROM node WHERE 1 = 0");
+        ReflectionTestUtils.setField(config, "replicaMaxLagSeconds", 5L);
+        primary = new HikariDataSource();
+        primary.setJdbcUrl(PRIMARY_URL);
+        primary.setUsername("sa");
+        primary.setPoolName("routing");
+
+        replicaDataSource = config.replicaDataSource(primary);
+        replicaDataSource.checkReplicas();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("observationRegistry", ObservationRegistry.NOOP);
+        dataSource = config.dataSource(primary, replicaDataSource, beans.getBeanProvider(ObservationRegistry.class));
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaDataSource.destroy();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndTheRestToThePrimary() {
+        assertThat(node(true)).isEqualTo("replica");
+        assertThat(node(false)).isEqualTo("primary");
+    }
+
+    @Test
+    void afterAWriteTheSameUserReadsFromThePrimary() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(replicaDataSource, 60_000);
+        ServiceTokenService tokens = new ServiceTokenService("secreto", 900, 0);
+
+        assertThat(readThroughFilter(filter, tokens, "ana@wallet.com")).isEqualTo("replica");
+        MockHttpServletRequest write = request("POST", tokens, "ana@wallet.com");
+        AtomicReference<String> written = new AtomicReference<>();
+        filter.doFilter(write, new MockHttpServletResponse(), (req, res) -> written.set(node(true)));
+        assertThat(written.get()).isEqualTo("primary");
+
+        assertThat(readThroughFilter(filter, tokens, "ana@wallet.com")).isEqualTo("primary");
+        assertThat(readThroughFilter(filter, tokens, "luis@wallet.com")).isEqualTo("replica");
+        // Fuera de la petición no queda nada forzado
+        assertThat(node(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void unhealthyReplicaFallsBackToThePrimary() {
+        ReflectionTestUtils.setField(replicaDataSource, "lagQuery", "SELECT NULL AS Seconds_Behind_Source");
+        replicaDataSource.checkReplicas();
+
+        assertThat(node(true)).isEqualTo("primary");
+    }
+
+    private String node(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private String readThroughFilter(ReadYourWritesFilter filter, ServiceTokenService tokens, String email) throws Exception {
+        AtomicReference<String> read = new AtomicReference<>();
+        filter.doFilter(request("GET", tokens, email), new MockHttpServletResponse(), (req, res) -> read.set(node(true)));
+        return read.get();
+    }
+
+    private static MockHttpServletRequest request(String method, ServiceTokenService tokens, String email) {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail(email);
+        user.setRole("ROLE_WORKER");
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/insurances");
+        request.addHeader("Authorization", "Bearer " + tokens.issue(user));
+        return request;
+    }
+
+    private static void createNode(String url, String name) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS node");
+            statement.execute("CREATE TABLE node (name VARCHAR(20))");
+            statement.execute("INSERT INTO node VALUES ('" + name + "')");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.wallet.secure.controller;
+
+import com.wallet.secure.config.StatementStats;
+import com.wallet.secure.entity.User;
+import com.wallet.secure.repository.UserRepository;
+import com.wallet.secure.security.ServiceTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base de los tests de integración de la API: contexto completo sobre H2 y MockMvc.
+ * <p>
+ * {@link #perform(int, MockHttpServletRequestBuilder)} ejecuta la petición y falla si supera el
+ * número de sentencias SQL indicado, de modo que un N+1 o una carga perezosa nueva rompe el test.
+ * </p>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+abstract class ApiIntegrationTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ServiceTokenService tokenService;
+
+    /**
+     * Ejecuta la petición comprobando el presupuesto de sentencias.
+     *
+     * @param maxStatements Máximo de sentencias SQL que puede ejecutar la petición.
+     * @param request Petición a ejecutar.
+     * @return Resultado para seguir encadenando comprobaciones.
+     * @throws Exception Si falla la petición.
+     */
+    protected ResultActions perform(int maxStatements, MockHttpServletRequestBuilder request) throws Exception {
+        ResultActions result = mockMvc.perform(request);
+        StatementStats stats = (StatementStats) result.andReturn().getRequest().getAttribute(StatementStats.ATTRIBUTE);
+        assertThat(stats).as("recuento de sentencias").isNotNull();
+        assertThat(stats.getCount())
+                .as("sentencias SQL de %s %s", result.andReturn().getRequest().getMethod(), result.andReturn().getRequest().getRequestURI())
+                .isLessThanOrEqualTo(maxStatements);
+        return result;
+    }
+
+    /**
+     * Crea un usuario activo con un correo único.
+     *
+     * @param role Rol del usuario.
+     * @return Usuario guardado.
+     */
+    protected User createUser(String role) {
+        User user = new User();
+        user.setName("Test");
+        user.setEmail("test-" + UUID.randomUUID() + "@wallet.com");
+        user.setPassword("x");
+        user.setRole(role);
+        user.setEnabled(true);
+        return userRepository.save(user);
+    }
+
+    /**
+     * @param user Usuario que hace la petición.
+     * @return Valor de la cabecera {@code Authorization} con un token de servicio suyo.
+     */
+    protected String bearer(User user) {
+        return "Bearer " + tokenService.issue(user);
+    }
+}
@@ -0,0 +1,139 @@
+package com.wallet.secure.controller;
+
+import com.wallet.secure.entity.User;
+import com.wallet.secure.security.ServiceTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthControllerTests extends ApiIntegrationTest {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void loginVerifiesPasswordOffTheRequestThread() throws Exception {
+        User user = createUser("ROLE_WORKER", passwordEncoder.encode("secreta"));
+
+        String token = mockMvc.perform(asyncDispatch(login(user.getEmail(), "secreta")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(user.getEmail()))
+                .andReturn().getResponse().getHeader(ServiceTokenService.TOKEN_HEADER);
+
+        assertThat(tokenService.verify(token)).isNotNull()
+                .extracting(ServiceTokenService.Claims::userId, ServiceTokenService.Claims::role)
+                .containsExactly(user.getId(), "ROLE_WORKER");
+    }
+
+    @Test
+    void refreshIssuesTokenWithCurrentRole() throws Exception {
+        User user = createUser("ROLE_WORKER");
+        String token = tokenService.issue(user);
+        user.setRole("ROLE_ADMIN");
+        userRepository.save(user);
+
+        String renewed = perform(2, post("/api/auth/token").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader(ServiceTokenService.TOKEN_HEADER);
+        assertThat(tokenService.verify(renewed).role()).isEqualTo("ROLE_ADMIN");
+
+        perform(0, post("/api/auth/token").header("Authorization", "Bearer " + token + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void wrongPasswordIsUnauthorized() throws Exception {
+        User user = createUser("ROLE_WORKER", passwordEncoder.encode("secreta"));
+
+        mockMvc.perform(asyncDispatch(login(user.getEmail(), "otra")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void loginUpgradesHashWithOutdatedCost() throws Exception {
+        String weakHash = new BCryptPasswordEncoder(4).encode("secreta");
+        User user = createUser("ROLE_WORKER", weakHash);
+
+        mockMvc.perform(asyncDispatch(login(user.getEmail(), "secreta")))
+                .andExpect(status().isOk());
+
+        String stored = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertThat(stored).isNotEqualTo(weakHash).startsWith("$2a$10$");
+        assertThat(passwordEncoder.matches("secreta", stored)).isTrue();
+    }
+
+    @Test
+    void loginIsThrottledPerEmailBeforeLookingUpTheUser() throws Exception {
+        User user = createUser("ROLE_WORKER", passwordEncoder.encode("secreta"));
+        for (int i = 0; i < 10; i++) {
+            // Cada intento desde una IP distinta: solo cuenta el límite por email (10/5m)
+            mockMvc.perform(asyncDispatch(login(user.getEmail(), "otra", "198.51.100." + i)))
+                    .andExpect(status().isUnauthorized());
+        }
+
+        MvcResult throttled = perform(0, loginRequest(user.getEmail(), "secreta", "198.51.100.99"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(throttled))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void ipOverItsLimitIsRejectedWithoutReadingTheBody() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            perform(1, loginRequest("nadie" + i + "@wallet.com", "x", "203.0.113.7"))
+                    .andExpect(request().asyncStarted());
+        }
+
+        // Cuerpo vacío: si llegara al controlador sería un 400
+        perform(0, post("/api/auth/login").with(remoteAddr("203.0.113.7")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        perform(1, loginRequest("nadie@wallet.com", "x", "203.0.113.8"))
+                .andExpect(request().asyncStarted());
+    }
+
+    private MvcResult login(String email, String password) throws Exception {
+        return login(email, password, "127.0.0.1");
+    }
+
+    private MvcResult login(String email, String password, String ip) throws Exception {
+        return perform(1, loginRequest(email, password, ip))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static MockHttpServletRequestBuilder loginRequest(String email, String password, String ip) {
+        return post("/api/auth/login")
+                .with(remoteAddr(ip))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+    }
+
+    private static RequestPostProcessor remoteAddr(String ip) {
+        return request -> {
+            request.setRemoteAddr(ip);
+            return request;
+        };
+    }
+
+    private User createUser(String role, String passwordHash) {
+        User user = createUser(role);
+        user.setPassword(passwordHash);
+        return userRepository.save(user);
+    }
+}
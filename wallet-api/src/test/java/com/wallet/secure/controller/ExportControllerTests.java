@@ -0,0 +1,83 @@
+package com.wallet.secure.controller;
+
+import com.wallet.secure.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ExportControllerTests extends ApiIntegrationTest {
+
+    private User owner;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser("ROLE_WORKER");
+        other = createUser("ROLE_WORKER");
+    }
+
+    @Test
+    void ndjsonExportsOnlyOwnRowsOnePerLine() throws Exception {
+        createInsurance(owner, "Hogar playa");
+        createInsurance(other, "Hogar ajeno");
+        mockMvc.perform(post("/api/tickets/user/{userId}", owner.getId()).header("Authorization", bearer(owner))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"subject\":\"Duda\",\"message\":\"Linea 1\\nLinea 2\"}"))
+                .andExpect(status().isOk());
+
+        String body = perform(7, get("/api/export").header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        // el alta de la póliza genera su primer pago
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("{\"type\":\"insurance\"").contains("\"title\":\"Hogar playa\"")
+                .contains("\"premiumAmount\":120.5").contains("\"expiryDate\":\"" + LocalDate.now().plusYears(1) + "\"");
+        assertThat(lines[1]).startsWith("{\"type\":\"payment\"").contains("\"status\":\"PENDING\"");
+        assertThat(lines[2]).startsWith("{\"type\":\"ticket\"").contains("\"message\":\"Linea 1\\nLinea 2\"");
+    }
+
+    @Test
+    void csvOfOneDatasetHasHeaderAndQuotedValues() throws Exception {
+        createInsurance(owner, "Casa, garaje");
+
+        String body = perform(3, get("/api/export").param("format", "csv").param("dataset", "insurances")
+                        .header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.endsWith(".csv\"")))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.substring(1).split("\r\n");
+        assertThat(lines[0]).isEqualTo("id,title,company,policyNumber,category,expiryDate,phoneNumber,premiumAmount,paymentPeriod,imageUrl");
+        assertThat(lines[1]).contains(",\"Casa, garaje\",Mapfre,,Hogar,").endsWith(",120.5,MONTHLY,");
+
+        perform(0, get("/api/export").param("format", "xml").header("Authorization", bearer(owner)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+        perform(0, get("/api/export").param("dataset", "users").header("Authorization", bearer(owner)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void createInsurance(User user, String title) throws Exception {
+        mockMvc.perform(post("/api/insurances").header("Authorization", bearer(user))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"" + title + "\",\"company\":\"Mapfre\",\"category\":\"Hogar\",\"expiryDate\":\""
+                                + LocalDate.now().plusYears(1) + "\",\"premiumAmount\":120.5,\"paymentPeriod\":\"MONTHLY\"}"))
+                .andExpect(status().isOk());
+    }
+}
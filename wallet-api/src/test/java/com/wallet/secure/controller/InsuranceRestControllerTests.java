@@ -0,0 +1,273 @@
+package com.wallet.secure.controller;
+
+import com.wallet.secure.entity.User;
+import com.wallet.secure.service.ArchiveService;
+import com.wallet.secure.service.InsuranceSuggestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class InsuranceRestControllerTests extends ApiIntegrationTest {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InsuranceSuggestService suggestService;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser("ROLE_WORKER");
+    }
+
+    @Test
+    void createThenListInsurances() throws Exception {
+        perform(6, post("/api/insurances").header("Authorization", bearer(owner))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(insuranceJson("Hogar", null)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Hogar"));
+
+        perform(3, get("/api/insurances").header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].claims").doesNotExist());
+    }
+
+    @Test
+    void listStatementCountDoesNotGrowWithInsurances() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            createInsurance("Póliza " + i);
+        }
+        perform(3, get("/api/insurances").header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)));
+    }
+
+    @Test
+    void getInsuranceLoadsDetailCollections() throws Exception {
+        long id = createInsurance("Coche");
+
+        perform(6, get("/api/insurances/{id}", id).header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payments", hasSize(1)))
+                .andExpect(jsonPath("$.claims", hasSize(0)))
+                .andExpect(jsonPath("$.beneficiaries", hasSize(0)));
+    }
+
+    @Test
+    void getInsuranceOfAnotherUserIsNotFound() throws Exception {
+        long id = createInsurance("Vida");
+        User other = createUser("ROLE_WORKER");
+
+        perform(3, get("/api/insurances/{id}", id).header("Authorization", bearer(other)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void updateWithStaleVersionIsConflict() throws Exception {
+        long id = createInsurance("Salud");
+
+        perform(3, put("/api/insurances/{id}", id).header("Authorization", bearer(owner))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(insuranceJson("Salud+", 99L)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void searchMatchesTitleCompanyAndCategoryOfOwnPoliciesOnly() throws Exception {
+        createInsurance("Hogar Playa");
+        createInsurance("Coche familiar");
+        User other = createUser("ROLE_WORKER");
+        mockMvc.perform(post("/api/insurances").header("Authorization", bearer(other))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(insuranceJson("Hogar ajeno", null)))
+                .andExpect(status().isOk());
+
+        perform(4, get("/api/insurances/search").param("q", "playa").header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].title").value("Hogar Playa"))
+                .andExpect(jsonPath("$.content[0].claims").doesNotExist())
+                .andExpect(jsonPath("$.page.totalElements").value(1));
+
+        perform(4, get("/api/insurances/search").param("q", "MAPFRE").header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)));
+
+        // Como el modo booleano de FULLTEXT: cada palabra en cualquier campo y en cualquier orden
+        perform(4, get("/api/insurances/search").param("q", "mapfre playa").header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].title").value("Hogar Playa"));
+
+        perform(4, get("/api/insurances/search").param("q", "100%").header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
+    @Test
+    void searchIsPaginated() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createInsurance("Vida " + i);
+        }
+        perform(4, get("/api/insurances/search").param("q", "vida").param("page", "1").param("size", "2")
+                        .header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.page.number").value(1))
+                .andExpect(jsonPath("$.page.totalElements").value(5))
+                .andExpect(jsonPath("$.page.totalPages").value(3));
+    }
+
+    @Test
+    void suggestOnlyServesValuesSharedByEnoughUsers() throws Exception {
+        User second = createUser("ROLE_WORKER");
+        User third = createUser("ROLE_WORKER");
+        createInsurance(owner, insuranceJson("Casa", null).replace("Mapfre", "Ocaso Seguros"));
+        suggestService.rebuild();
+
+        // Un solo usuario: ni se sugiere a otro ni reescribe lo que otro escriba
+        perform(0, get("/api/insurances/suggest").param("field", "company").param("prefix", "ocas")
+                        .header("Authorization", bearer(second)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        perform(6, post("/api/insurances").header("Authorization", bearer(second))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(insuranceJson("Casa", null).replace("Mapfre", "ocaso seguros")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.company").value("ocaso seguros"));
+        createInsurance(third, insuranceJson("Casa", null).replace("Mapfre", "Ocaso Seguros"));
+        suggestService.rebuild();
+
+        perform(0, get("/api/insurances/suggest").param("field", "company").param("prefix", "OCAS")
+                        .header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("Ocaso Seguros"));
+
+        perform(6, post("/api/insurances").header("Authorization", bearer(owner))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(insuranceJson("Casa", null).replace("Mapfre", " OCASO  SEGUROS ")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.company").value("Ocaso Seguros"));
+
+        perform(0, get("/api/insurances/suggest").param("field", "title").header("Authorization", bearer(owner)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importCsvInsertsValidRowsInBatchesAndReportsTheRest() throws Exception {
+        StringBuilder csv = new StringBuilder("\uFEFFtitle;company;policy_number;category;expiryDate;premiumAmount;paymentPeriod\n");
+        for (int i = 0; i < 40; i++) {
+            csv.append("Póliza ").append(i).append(";Mapfre;P-").append(i).append(";Hogar;31/12/")
+                    .append(LocalDate.now().getYear() + 1).append(";120,50;Anual\n");
+        }
+        csv.append(";Mapfre;;Hogar;2020-01-01;abc;MONTHLY\n");
+        csv.append("\"Casa; playa\";Allianz;;Hogar;").append(LocalDate.now().plusYears(1)).append(";80;SEMANAL\n");
+
+        perform(10, multipart("/api/insurances/import")
+                        .file(new MockMultipartFile("file", "polizas.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8)))
+                        .header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(42))
+                .andExpect(jsonPath("$.imported").value(40))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(42))
+                .andExpect(jsonPath("$.errors[0].messages", hasSize(3)))
+                .andExpect(jsonPath("$.errors[1].row").value(43));
+
+        perform(3, get("/api/insurances").header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(40)))
+                .andExpect(jsonPath("$[0].category").value("Hogar"))
+                .andExpect(jsonPath("$[0].premiumAmount").value(120.5))
+                .andExpect(jsonPath("$[0].paymentPeriod").value("YEARLY"));
+    }
+
+    @Test
+    void importCsvWithoutRequiredColumnsIsBadRequest() throws Exception {
+        perform(1, multipart("/api/insurances/import")
+                        .file(new MockMultipartFile("file", "polizas.csv", "text/csv", "title,company\nHogar,Mapfre\n".getBytes(StandardCharsets.UTF_8)))
+                        .header("Authorization", bearer(owner)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("category")));
+    }
+
+    @Test
+    void expiredPoliciesMoveToArchiveAndAreListedOnlyOnDemand() throws Exception {
+        long expired = createInsurance("Hogar 2019");
+        createInsurance("Hogar actual");
+        jdbcTemplate.update("UPDATE insurances SET expiry_date = ? WHERE id = ?", LocalDate.now().minusYears(3), expired);
+
+        assertThat(archiveService.archive().insurances()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payments_archive WHERE insurance_id = ?", Long.class, expired))
+                .isEqualTo(1);
+
+        perform(3, get("/api/insurances").header("Authorization", bearer(owner)))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title").value("Hogar actual"))
+                .andExpect(jsonPath("$[0].archived").doesNotExist());
+        perform(4, get("/api/insurances").param("includeArchived", "true").header("Authorization", bearer(owner)))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].id").value(expired))
+                .andExpect(jsonPath("$[1].archived").value(true));
+        perform(3, get("/api/insurances/{id}", expired).header("Authorization", bearer(owner)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void paymentsOfPeriodAcrossPolicies() throws Exception {
+        long home = createInsurance("Hogar");
+        long car = createInsurance("Coche");
+        jdbcTemplate.update("UPDATE payments SET payment_date = ? WHERE insurance_id = ?", LocalDate.now().minusYears(2), car);
+
+        perform(3, get("/api/insurances/payments").param("from", LocalDate.now().withDayOfMonth(1).toString())
+                        .param("to", LocalDate.now().plusMonths(1).withDayOfMonth(1).toString())
+                        .header("Authorization", bearer(owner)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].insuranceId").value(home))
+                .andExpect(jsonPath("$[0].status").value("PENDING"));
+        perform(0, get("/api/insurances/payments").param("from", "2025-02-01").param("to", "2025-01-01")
+                        .header("Authorization", bearer(owner)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long createInsurance(String title) throws Exception {
+        return createInsurance(owner, insuranceJson(title, null));
+    }
+
+    private long createInsurance(User user, String json) throws Exception {
+        String body = mockMvc.perform(post("/api/insurances").header("Authorization", bearer(user))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return com.jayway.jsonpath.JsonPath.parse(body).read("$.id", Long.class);
+    }
+
+    private static String insuranceJson(String title, Long version) {
+        return "{" + (version != null ? "\"version\":" + version + "," : "") + "\"title\":\"" + title + "\",\"company\":\"Mapfre\",\"category\":\"Hogar\","
+                + "\"expiryDate\":\"" + LocalDate.now().plusYears(1) + "\",\"premiumAmount\":120.5,\"paymentPeriod\":\"MONTHLY\"}";
+    }
+}
@@ -0,0 +1,148 @@
+package com.wallet.secure.controller;
+
+import com.wallet.secure.entity.User;
+import com.wallet.secure.service.ArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TicketRestControllerTests extends ApiIntegrationTest {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = createUser("ROLE_WORKER");
+    }
+
+    @Test
+    void createListAndCloseTicket() throws Exception {
+        long id = createTicket("No puedo subir fotos");
+
+        perform(3, get("/api/tickets/user/{userId}", user.getId()).header("Authorization", bearer(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].subject").value("No puedo subir fotos"));
+
+        perform(4, put("/api/tickets/{id}/close", id).header("Authorization", bearer(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CLOSED"));
+    }
+
+    @Test
+    void userTicketsStatementCountDoesNotGrowWithTickets() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            createTicket("Incidencia " + i);
+        }
+        perform(3, get("/api/tickets/user/{userId}", user.getId()).header("Authorization", bearer(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)));
+    }
+
+    @Test
+    void allTicketsLoadTheirUsersInOneQuery() throws Exception {
+        User other = createUser("ROLE_WORKER");
+        createTicket("Primera");
+        perform(3, post("/api/tickets/user/{userId}", other.getId()).header("Authorization", bearer(other))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"subject\":\"Segunda\",\"message\":\"Otro usuario\"}"))
+                .andExpect(status().isOk());
+
+        perform(2, get("/api/tickets").header("Authorization", bearer(user)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ticketForUnknownUserIsNotFound() throws Exception {
+        perform(2, post("/api/tickets/user/{userId}", 999_999).header("Authorization", bearer(user))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"subject\":\"x\",\"message\":\"y\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void oldClosedTicketsAreArchivedAndOpenOnesStay() throws Exception {
+        long closed = createTicket("Resuelto hace tiempo");
+        long open = createTicket("Sigue abierto");
+        mockMvc.perform(put("/api/tickets/{id}/close", closed).header("Authorization", bearer(user)))
+                .andExpect(status().isOk());
+        jdbcTemplate.update("UPDATE tickets SET created_at = ? WHERE id IN (?, ?)", LocalDateTime.now().minusYears(1), closed, open);
+
+        archiveService.archive();
+
+        perform(3, get("/api/tickets/user/{userId}", user.getId()).header("Authorization", bearer(user)))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(open));
+        perform(4, get("/api/tickets/user/{userId}", user.getId()).param("includeArchived", "true")
+                        .header("Authorization", bearer(user)))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].id").value(closed))
+                .andExpect(jsonPath("$[1].status").value("CLOSED"))
+                .andExpect(jsonPath("$[1].archived").value(true));
+    }
+
+    @Test
+    void sinceReturnsOnlyTicketsCreatedFromThatDay() throws Exception {
+        long old = createTicket("Del año pasado");
+        long recent = createTicket("De esta semana");
+        jdbcTemplate.update("UPDATE tickets SET created_at = ? WHERE id = ?", LocalDateTime.now().minusYears(1), old);
+        String since = LocalDate.now().minusDays(7).toString();
+
+        perform(3, get("/api/tickets/user/{userId}", user.getId()).param("since", since).header("Authorization", bearer(user)))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(recent));
+        perform(3, get("/api/tickets").param("since", since).header("Authorization", bearer(user)))
+                .andExpect(jsonPath("$[*].id", org.hamcrest.Matchers.not(org.hamcrest.Matchers.hasItem((int) old))))
+                .andExpect(jsonPath("$[*].id", org.hamcrest.Matchers.hasItem((int) recent)));
+    }
+
+    @Test
+    void sinceAlsoFiltersArchivedTicketsInTheQuery() throws Exception {
+        long closed = createTicket("Archivado hace tiempo");
+        mockMvc.perform(put("/api/tickets/{id}/close", closed).header("Authorization", bearer(user)))
+                .andExpect(status().isOk());
+        jdbcTemplate.update("UPDATE tickets SET created_at = ? WHERE id = ?", LocalDateTime.now().minusYears(1), closed);
+        archiveService.archive();
+
+        String lastWeek = LocalDate.now().minusDays(7).toString();
+        String lastTwoYears = LocalDate.now().minusYears(2).toString();
+        perform(4, get("/api/tickets/user/{userId}", user.getId()).param("since", lastWeek).param("includeArchived", "true")
+                        .header("Authorization", bearer(user)))
+                .andExpect(jsonPath("$", hasSize(0)));
+        perform(4, get("/api/tickets/user/{userId}", user.getId()).param("since", lastTwoYears).param("includeArchived", "true")
+                        .header("Authorization", bearer(user)))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].archived").value(true));
+        perform(4, get("/api/tickets").param("since", lastWeek).param("includeArchived", "true").header("Authorization", bearer(user)))
+                .andExpect(jsonPath("$[*].id", org.hamcrest.Matchers.not(org.hamcrest.Matchers.hasItem((int) closed))));
+        perform(4, get("/api/tickets").param("since", lastTwoYears).param("includeArchived", "true").header("Authorization", bearer(user)))
+                .andExpect(jsonPath("$[*].id", org.hamcrest.Matchers.hasItem((int) closed)));
+    }
+
+    private long createTicket(String subject) throws Exception {
+        String body = mockMvc.perform(post("/api/tickets/user/{userId}", user.getId()).header("Authorization", bearer(user))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"subject\":\"" + subject + "\",\"message\":\"Detalle\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return com.jayway.jsonpath.JsonPath.parse(body).read("$.id", Long.class);
+    }
+}
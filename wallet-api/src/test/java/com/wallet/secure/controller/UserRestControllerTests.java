@@ -0,0 +1,125 @@
+package com.wallet.secure.controller;
+
+import com.wallet.secure.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserRestControllerTests extends ApiIntegrationTest {
+
+    @Test
+    void getUserByEmailReturnsETagAndRevalidates() throws Exception {
+        User user = createUser("ROLE_WORKER");
+
+        String etag = perform(2, get("/api/users/email/{email}", user.getEmail()).header("Authorization", bearer(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(user.getEmail()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        perform(2, get("/api/users/email/{email}", user.getEmail()).header("Authorization", bearer(user))
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void savingAStaleUserKeepsTheDataVersionBump() {
+        User user = createUser("ROLE_WORKER");
+        User stale = userRepository.findById(user.getId()).orElseThrow();
+
+        userRepository.incrementDataVersion(user.getId());
+        stale.setName("Renombrado");
+        assertThat(userRepository.save(stale).getDataVersion()).isEqualTo(1);
+
+        User saved = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(saved.getName()).isEqualTo("Renombrado");
+        assertThat(saved.getDataVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void listingUsersRequiresAdmin() throws Exception {
+        User worker = createUser("ROLE_WORKER");
+        User admin = createUser("ROLE_ADMIN");
+
+        // El rol sale del token: rechazarlo no necesita ninguna consulta
+        perform(0, get("/api/users").header("Authorization", bearer(worker)))
+                .andExpect(status().isForbidden());
+        perform(2, get("/api/users").header("Authorization", bearer(admin)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updateUserChangesNameAndRejectsStaleVersion() throws Exception {
+        User user = createUser("ROLE_WORKER");
+
+        perform(3, put("/api/users/{id}", user.getId()).header("Authorization", bearer(user))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Nuevo nombre\",\"email\":\"" + user.getEmail() + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Nuevo nombre"));
+
+        perform(2, put("/api/users/{id}", user.getId()).header("Authorization", bearer(user))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Otro\",\"email\":\"" + user.getEmail() + "\",\"version\":99}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void unknownUserIsNotFound() throws Exception {
+        User user = createUser("ROLE_WORKER");
+
+        perform(2, get("/api/users/{id}", 999_999).header("Authorization", bearer(user)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deleteUserDisablesAccountAndPurgesDataInChunks() throws Exception {
+        User user = createUser("ROLE_WORKER");
+        User admin = createUser("ROLE_ADMIN");
+        User stranger = createUser("ROLE_WORKER");
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/api/insurances").header("Authorization", bearer(user))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\":\"Poliza " + i + "\",\"company\":\"Mapfre\",\"category\":\"Hogar\",\"expiryDate\":\""
+                                    + LocalDate.now().plusYears(1) + "\",\"premiumAmount\":10,\"paymentPeriod\":\"MONTHLY\"}"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/api/tickets/user/{userId}", user.getId()).header("Authorization", bearer(user))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"subject\":\"Baja\",\"message\":\"Detalle\"}"))
+                .andExpect(status().isOk());
+
+        // Solo marca la cuenta: no carga ni borra pólizas en la petición
+        perform(4, delete("/api/users/{id}", user.getId()).header("Authorization", bearer(user)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.userId").value(user.getId()));
+
+        String status = null;
+        for (int i = 0; i < 100 && !"DONE".equals(status); i++) {
+            Thread.sleep(50);
+            status = com.jayway.jsonpath.JsonPath.read(mockMvc.perform(get("/api/users/{id}/deletion", user.getId())
+                    .header("Authorization", bearer(admin))).andReturn().getResponse().getContentAsString(), "$.status");
+        }
+        // Solo el propio usuario (con su token aún vigente) o un ADMIN
+        perform(0, get("/api/users/{id}/deletion", user.getId()).header("Authorization", bearer(stranger)))
+                .andExpect(status().isForbidden());
+        perform(0, get("/api/users/{id}/deletion", user.getId()).header("Authorization", bearer(user)))
+                .andExpect(jsonPath("$.status").value("DONE"));
+        perform(0, get("/api/users/{id}/deletion", user.getId()).header("Authorization", bearer(admin)))
+                .andExpect(jsonPath("$.status").value("DONE"))
+                .andExpect(jsonPath("$.insurances").value(3))
+                .andExpect(jsonPath("$.insurancesDeleted").value(3))
+                .andExpect(jsonPath("$.ticketsDeleted").value(1));
+        assertThat(userRepository.findById(user.getId())).isEmpty();
+        assertThat(userRepository.findByEmail(user.getEmail())).isNull();
+    }
+}
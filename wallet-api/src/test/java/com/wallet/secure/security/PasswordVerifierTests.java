@@ -0,0 +1,76 @@
+package com.wallet.secure.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordVerifierTests {
+
+    @Test
+    void rejectsWhenQueueIsFullAndTimesOutWaitingTasks() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordVerifier verifier = new PasswordVerifier(new BlockingEncoder(release), registry, 1, 1, 200);
+        try {
+            CompletableFuture<PasswordVerifier.Result> running = verifier.verify("a", "a");
+            CompletableFuture<PasswordVerifier.Result> queued = verifier.verify("b", "b");
+
+            assertThatThrownBy(() -> verifier.verify("c", "c")).isInstanceOf(RejectedExecutionException.class);
+            assertThat(registry.get("wallet.auth.verify.rejected").counter().count()).isEqualTo(1);
+
+            assertThatThrownBy(queued::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(TimeoutException.class);
+            release.countDown();
+            assertThatThrownBy(running::get).hasCauseInstanceOf(TimeoutException.class);
+        } finally {
+            verifier.destroy();
+        }
+    }
+
+    @Test
+    void reportsUpgradedHashOnlyForCorrectPassword() throws Exception {
+        CountDownLatch released = new CountDownLatch(0);
+        PasswordVerifier verifier = new PasswordVerifier(new BlockingEncoder(released), new SimpleMeterRegistry(), 1, 10, 5000);
+        try {
+            assertThat(verifier.verify("a", "old:a").get()).isEqualTo(new PasswordVerifier.Result(true, "new:a"));
+            assertThat(verifier.verify("a", "old:b").get()).isEqualTo(new PasswordVerifier.Result(false, null));
+            assertThat(verifier.verify("a", "new:a").get()).isEqualTo(new PasswordVerifier.Result(true, null));
+        } finally {
+            verifier.destroy();
+        }
+    }
+
+    /**
+     * Codificador de prueba: "new:x" es el formato vigente y cada comprobación espera al latch.
+     */
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "new:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return encodedPassword.endsWith(":" + rawPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return !encodedPassword.startsWith("new:");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.wallet.secure.security;
+
+import com.wallet.secure.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceTokenServiceTests {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+    @Test
+    void verifiesOwnTokensAndRejectsTamperedOnes() {
+        ServiceTokenService service = service("secreto", NOW);
+        String token = service.issue(user("ana|admin@wallet.com", "WORKER"));
+
+        ServiceTokenService.Claims claims = service.verify(token);
+        assertThat(claims).isEqualTo(new ServiceTokenService.Claims(7L, "ana|admin@wallet.com", "ROLE_WORKER",
+                NOW.getEpochSecond(), NOW.getEpochSecond() + 900));
+
+        String forged = service("otro", NOW).issue(user("ana|admin@wallet.com", "ROLE_ADMIN"));
+        assertThat(service.verify(forged)).isNull();
+        assertThat(service.verify(forged.substring(0, forged.indexOf('.')) + token.substring(token.indexOf('.')))).isNull();
+        assertThat(service.verify("basura")).isNull();
+    }
+
+    @Test
+    void expiredTokensCanOnlyBeRefreshedWithinTheWindow() {
+        String token = service("secreto", NOW).issue(user("ana@wallet.com", "ROLE_WORKER"));
+
+        ServiceTokenService later = service("secreto", NOW.plus(Duration.ofMinutes(20)));
+        assertThat(later.verify(token)).isNull();
+        assertThat(later.verifyForRefresh(token)).isNotNull();
+
+        ServiceTokenService muchLater = service("secreto", NOW.plus(Duration.ofHours(2)));
+        assertThat(muchLater.verifyForRefresh(token)).isNull();
+    }
+
+    private static ServiceTokenService service(String secret, Instant now) {
+        return new ServiceTokenService(secret, 900, 3600, Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private static User user(String email, String role) {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail(email);
+        user.setRole(role);
+        return user;
+    }
+}
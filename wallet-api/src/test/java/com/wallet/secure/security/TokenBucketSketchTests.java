@@ -0,0 +1,58 @@
+package com.wallet.secure.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketSketchTests {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void admitsBurstThenRefillsOneTokenPerInterval() {
+        // 5 peticiones por 10 s: una ficha cada 2 s
+        TokenBucketSketch buckets = new TokenBucketSketch(1024, 5, 10 * SECOND);
+        long now = 100 * SECOND;
+        for (int i = 0; i < 5; i++) {
+            assertThat(buckets.acquire("ana@wallet.com", now)).isZero();
+        }
+        assertThat(buckets.acquire("ana@wallet.com", now)).isEqualTo(2 * SECOND);
+        assertThat(buckets.acquire("luis@wallet.com", now)).isZero();
+
+        assertThat(buckets.acquire("ana@wallet.com", now + SECOND)).isEqualTo(SECOND);
+        assertThat(buckets.acquire("ana@wallet.com", now + 2 * SECOND)).isZero();
+        assertThat(buckets.acquire("ana@wallet.com", now + 2 * SECOND)).isPositive();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        TokenBucketSketch buckets = new TokenBucketSketch(1024, 50, 3600 * SECOND);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        if (buckets.acquire("10.0.0.1", SECOND) == 0) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(admitted).hasValue(50);
+    }
+}
@@ -0,0 +1,27 @@
+package com.wallet.secure.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InsuranceSearchServiceTests {
+
+    @Test
+    void wordsTreatBooleanOperatorsAsSpacesAndDropShortWords() {
+        assertThat(InsuranceSearchService.words("  hogar   mapfre ")).containsExactly("hogar", "mapfre");
+        assertThat(InsuranceSearchService.words("seguro-hogar")).containsExactly("seguro", "hogar");
+        assertThat(InsuranceSearchService.words("+hogar -coche \"vida\" (a) ~x* @3 <b>c")).containsExactly("hogar", "coche", "vida");
+        assertThat(InsuranceSearchService.words("a b -")).isEmpty();
+    }
+
+    @Test
+    void booleanQueryRequiresEveryWordAsAPhrase() {
+        assertThat(InsuranceSearchService.booleanQuery(List.of("hogar", "mapfre"))).isEqualTo("+\"hogar\" +\"mapfre\"");
+        // Comillas y paréntesis sueltos no pueden romper la consulta booleana
+        assertThat(InsuranceSearchService.booleanQuery(InsuranceSearchService.words("hogar\" -x) or (\"1")))
+                .isEqualTo("+\"hogar\" +\"or\"");
+        assertThat(InsuranceSearchService.booleanQuery(List.of())).isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package com.wallet.secure.service;
+
+import com.wallet.secure.repository.InsuranceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InsuranceSuggestServiceTests {
+
+    @Test
+    void writeDuringRebuildIsReplayedOntoTheNewIndex() {
+        InsuranceRepository repository = mock(InsuranceRepository.class);
+        InsuranceSuggestService service = new InsuranceSuggestService();
+        ReflectionTestUtils.setField(service, "insuranceRepository", repository);
+        ReflectionTestUtils.setField(service, "minUsers", 3);
+
+        when(repository.countByCompany()).thenReturn(rows("Mapfre"));
+        when(repository.countByCategory()).thenReturn(rows("Hogar"));
+        service.rebuild();
+        assertThat(service.suggest(InsuranceSuggestService.COMPANY, "", 10)).containsExactly("Mapfre");
+
+        // La lectura ya no ve la póliza de Mapfre que se guarda mientras tanto, pero sí una compañía nueva
+        List<Object[]> companies = rows("Mapfre");
+        companies.addAll(rows("Allianz"));
+        when(repository.countByCompany()).thenAnswer(invocation -> {
+            service.replace(null, null, "Mapfre", "Hogar");
+            return companies;
+        });
+        service.rebuild();
+
+        // No se descarta (aparece Allianz) y conserva el alta (Mapfre 4 frente a Allianz 3)
+        assertThat(service.suggest(InsuranceSuggestService.COMPANY, "", 10)).containsExactly("Mapfre", "Allianz");
+
+        // Sin reconstrucción en curso no se anota nada: la siguiente parte solo de la base de datos
+        when(repository.countByCompany()).thenReturn(companies);
+        service.rebuild();
+        assertThat(service.suggest(InsuranceSuggestService.COMPANY, "", 10)).containsExactly("Allianz", "Mapfre");
+    }
+
+    /**
+     * Una póliza del valor para cada uno de tres usuarios.
+     */
+    private static List<Object[]> rows(String value) {
+        List<Object[]> rows = new ArrayList<>();
+        for (long user = 1; user <= 3; user++) {
+            rows.add(new Object[]{value, user, 1L});
+        }
+        return rows;
+    }
+}
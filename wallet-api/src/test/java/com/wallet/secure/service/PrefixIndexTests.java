@@ -0,0 +1,36 @@
+package com.wallet.secure.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTests {
+
+    @Test
+    void groupsVariantsUnderMostUsedSpellingAndRanksByUse() {
+        PrefixIndex index = PrefixIndex.of(Map.of(
+                "Mapfre", 5L, "MAPFRE ", 2L, "Mutua  Madrileña", 3L, "Mutua General", 1L, "Allianz", 9L));
+
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.canonical("mapfre")).isEqualTo("Mapfre");
+        assertThat(index.canonical("mutua madrilena")).isEqualTo("Mutua Madrileña");
+        assertThat(index.complete("m", 10)).containsExactly("Mapfre", "Mutua Madrileña", "Mutua General");
+        assertThat(index.complete("MU", 1)).containsExactly("Mutua Madrileña");
+        assertThat(index.complete("", 2)).containsExactly("Allianz", "Mapfre");
+        assertThat(index.complete("x", 10)).isEmpty();
+    }
+
+    @Test
+    void addAndRemoveReturnNewIndexWithoutTouchingTheOldOne() {
+        PrefixIndex before = PrefixIndex.of(Map.of("Hogar", 1L));
+
+        PrefixIndex after = before.add("Vehículo", 1).add("vehiculo", 1).add("Hogar", -1);
+
+        assertThat(after.canonical("VEHICULO")).isEqualTo("Vehículo");
+        assertThat(after.complete("", 10)).containsExactly("Vehículo");
+        assertThat(before.complete("", 10)).containsExactly("Hogar");
+        assertThat(after.add("Viajes", -1).canonical("viajes")).isNull();
+    }
+}
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# Compila wallet-api y los benchmarks y los ejecuta con una configuración fija de JVM.
+# El resultado se guarda en results/<commit>.json (con sufijo -dirty si hay cambios sin confirmar)
+# para poder compararlo con el de otro commit mediante CompareResults.
+#
+# Uso: wallet-bench/bench.sh [opciones de JMH]    p. ej.  wallet-bench/bench.sh LoginBenchmark -prof gc
+set -euo pipefail
+
+BENCH_DIR="$(cd "$(dirname "$0")" && pwd)"
+ROOT_DIR="$(dirname "$BENCH_DIR")"
+
+mvn -B -q -f "$ROOT_DIR/wallet-tracing/pom.xml" install -DskipTests
+mvn -B -q -f "$ROOT_DIR/wallet-api/pom.xml" install -DskipTests
+mvn -B -q -f "$BENCH_DIR/pom.xml" package
+
+REV="$(git -C "$ROOT_DIR" rev-parse --short HEAD)"
+if [ -n "$(git -C "$ROOT_DIR" status --porcelain -- wallet-api/src wallet-bench/src)" ]; then
+    REV="$REV-dirty"
+fi
+mkdir -p "$BENCH_DIR/results"
+
+java -jar "$BENCH_DIR/target/benchmarks.jar" \
+    -jvmArgsAppend "-Xms1g -Xmx1g -XX:+UseG1GC -XX:+AlwaysPreTouch" \
+    -rf json -rff "$BENCH_DIR/results/$REV.json" \
+    "$@"
+
+echo "Resultados: $BENCH_DIR/results/$REV.json"
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# Compila wallet-api, wallet-web y el módulo de benchmarks y lanza LoadHarness: H2 en modo MySQL,
+# servidor SMTP de prueba, ambas aplicaciones y los escenarios de carga.
+# El resultado por escenario se guarda en results/load-<commit>.csv (con -dirty si hay cambios sin confirmar).
+#
+# Uso: wallet-bench/load.sh [-Dload.propiedad=valor ...]    p. ej.  wallet-bench/load.sh -Dload.policies=100000
+set -euo pipefail
+
+BENCH_DIR="$(cd "$(dirname "$0")" && pwd)"
+ROOT_DIR="$(dirname "$BENCH_DIR")"
+
+mvn -B -q -f "$ROOT_DIR/wallet-tracing/pom.xml" install -DskipTests
+mvn -B -q -f "$ROOT_DIR/wallet-api/pom.xml" install -DskipTests
+mvn -B -q -f "$ROOT_DIR/wallet-web/pom.xml" package -DskipTests
+mvn -B -q -f "$BENCH_DIR/pom.xml" package
+
+REV="$(git -C "$ROOT_DIR" rev-parse --short HEAD)"
+if [ -n "$(git -C "$ROOT_DIR" status --porcelain -- wallet-api/src wallet-web/src wallet-bench/src)" ]; then
+    REV="$REV-dirty"
+fi
+
+cd "$BENCH_DIR"
+# Un millón de pólizas en H2 en memoria necesitan varios GB en este proceso
+exec java -Xmx6g -XX:+UseG1GC \
+    -Dload.report="results/load-$REV.csv" \
+    "$@" \
+    -cp target/benchmarks.jar com.wallet.secure.bench.load.LoadHarness
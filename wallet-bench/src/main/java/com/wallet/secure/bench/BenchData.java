@@ -0,0 +1,119 @@
+package com.wallet.secure.bench;
+
+import com.wallet.secure.entity.Beneficiary;
+import com.wallet.secure.entity.Claim;
+import com.wallet.secure.entity.Insurance;
+import com.wallet.secure.entity.Payment;
+import com.wallet.secure.entity.User;
+import com.wallet.secure.repository.UserRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generador de datos de prueba realistas para los benchmarks.
+ * <p>
+ * Usa una semilla fija para que los resultados sean comparables entre commits.
+ * </p>
+ */
+public final class BenchData {
+
+    private static final String[] CATEGORIES = {"Hogar", "Vida", "Viajes", "Coche", "Salud", "Moto"};
+    private static final String[] COMPANIES = {"Mapfre", "Allianz", "AXA", "Mutua Madrileña", "Generali", "Zurich"};
+
+    private BenchData() {}
+
+    /**
+     * Crea un usuario propietario de los seguros generados.
+     *
+     * @return Usuario de prueba.
+     */
+    public static User user() {
+        User user = new User("Usuario Bench", "bench@wallet.com", "$2a$10$abcdefghijklmnopqrstuv", "ROLE_WORKER");
+        user.setId(1L);
+        user.setEnabled(true);
+        return user;
+    }
+
+    /**
+     * Genera una lista de seguros con sus reclamaciones, pagos y beneficiarios.
+     *
+     * @param count Número de seguros.
+     * @param children Número de elementos en cada colección anidada.
+     * @return Lista de seguros.
+     */
+    public static List<Insurance> insurances(int count, int children) {
+        Random random = new Random(42);
+        User owner = user();
+        List<Insurance> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Insurance insurance = new Insurance();
+            insurance.setId((long) i + 1);
+            insurance.setTitle("Seguro " + CATEGORIES[i % CATEGORIES.length] + " " + i);
+            insurance.setCompany(COMPANIES[random.nextInt(COMPANIES.length)]);
+            insurance.setPolicyNumber("POL-" + (100000 + i));
+            insurance.setCategory(CATEGORIES[i % CATEGORIES.length]);
+            insurance.setExpiryDate(LocalDate.of(2027, 1, 1).plusDays(random.nextInt(700)));
+            insurance.setPhoneNumber("6" + (10000000 + random.nextInt(89999999)));
+            insurance.setImageUrl("/uploads/" + (1765887602407L + i) + "_poliza.png");
+            insurance.setPremiumAmount(50 + random.nextInt(95000) / 100.0);
+            insurance.setPaymentPeriod(Insurance.PaymentPeriod.values()[i % 3]);
+            insurance.setUser(owner);
+
+            for (int c = 0; c < children; c++) {
+                Claim claim = new Claim();
+                claim.setId((long) i * children + c);
+                claim.setDescription("Siniestro " + c + " de la póliza " + i);
+                claim.setIncidentDate(LocalDate.of(2025, 6, 1).plusDays(c));
+                claim.setEstimatedCost(100 + random.nextInt(5000) / 1.0);
+                claim.setInsurance(insurance);
+                insurance.getClaims().add(claim);
+
+                Payment payment = new Payment(insurance.getPremiumAmount(), LocalDate.of(2025, 1, 1).plusMonths(c),
+                        Payment.Status.PAID, insurance);
+                payment.setId((long) i * children + c);
+                insurance.getPayments().add(payment);
+
+                Beneficiary beneficiary = new Beneficiary();
+                beneficiary.setId((long) i * children + c);
+                beneficiary.setFullName("Beneficiario " + c);
+                beneficiary.setRelation(c % 2 == 0 ? "HIJO" : "CONYUGE");
+                beneficiary.setDni(String.format("%08dX", 10000000 + i * children + c));
+                beneficiary.setInsurance(insurance);
+                insurance.getBeneficiaries().add(beneficiary);
+            }
+            list.add(insurance);
+        }
+        return list;
+    }
+
+    /**
+     * Crea un {@link UserRepository} en memoria que solo responde a {@code findByEmail}.
+     * <p>
+     * Sustituye a la base de datos para medir únicamente el código de la aplicación; cualquier
+     * otro método lanza {@link UnsupportedOperationException}.
+     * </p>
+     *
+     * @param users Usuarios disponibles.
+     * @return Repositorio de prueba.
+     */
+    public static UserRepository userRepository(User... users) {
+        Map<String, User> byEmail = new HashMap<>();
+        for (User user : users) {
+            byEmail.put(user.getEmail(), user);
+        }
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEmail" -> byEmail.get((String) args[0]);
+                    case "toString" -> "BenchUserRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,81 @@
+package com.wallet.secure.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara dos ficheros de resultados de JMH ({@code -rf json}), por ejemplo los que deja
+ * {@code bench.sh} en {@code results/} para dos commits distintos.
+ * <p>
+ * Por cada benchmark y combinación de parámetros muestra ambas puntuaciones y la variación.
+ * Una diferencia se marca como significativa ({@code *}) solo si los intervalos de error
+ * (99,9 %) de las dos mediciones no se solapan.
+ * </p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.wallet.secure.bench.CompareResults results/base.json results/nuevo.json
+ * </pre>
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: CompareResults <base.json> <nuevo.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> base = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Base", "Nuevo", "Cambio");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode after = entry.getValue();
+            JsonNode before = base.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  %s%n", entry.getKey(), "-",
+                        after.path("score").asDouble(), "nuevo", after.path("scoreUnit").asText());
+                continue;
+            }
+            double a = before.path("score").asDouble();
+            double b = after.path("score").asDouble();
+            double errorA = error(before);
+            double errorB = error(after);
+            boolean significant = a + errorA < b - errorB || b + errorB < a - errorA;
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%%s %s%n", entry.getKey(), a, b,
+                    a == 0 ? 0 : (b - a) * 100 / a, significant ? "*" : " ", after.path("scoreUnit").asText());
+        }
+        base.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-70s (ya no existe)%n", key));
+    }
+
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    /**
+     * Lee un fichero de JMH y lo indexa por nombre corto del benchmark más sus parámetros.
+     */
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText().replace("com.wallet.secure.bench.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), run.path("primaryMetric"));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,85 @@
+package com.wallet.secure.bench;
+
+import com.wallet.secure.service.EmailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción y codificación MIME de los correos de {@link EmailService}, sin SMTP.
+ * <p>
+ * El {@link JavaMailSenderImpl} de prueba, en lugar de conectar con el servidor, escribe el
+ * mensaje completo en un flujo vacío: se mide el HTML, las cabeceras y la codificación que
+ * haría falta para enviarlo.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailRenderBenchmark {
+
+    private EmailService emailService;
+
+    @Setup
+    public void setup() {
+        emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "mailSender", new RenderingMailSender());
+        ReflectionTestUtils.setField(emailService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(emailService, "observationRegistry", ObservationRegistry.NOOP);
+        ReflectionTestUtils.setField(emailService, "FRONTEND_URL", "https://wallet.example.com");
+    }
+
+    @Benchmark
+    public void verification() throws Exception {
+        emailService.sendVerificationEmail("bench@wallet.com", "5f0c8a2e-4c1b-4f5e-9d7a-2b1c3d4e5f60");
+    }
+
+    @Benchmark
+    public void passwordReset() throws Exception {
+        emailService.sendPasswordResetEmail("bench@wallet.com", "9a8b7c6d-5e4f-3a2b-1c0d-ef1234567890");
+    }
+
+    @Benchmark
+    public void roleRequest() throws Exception {
+        emailService.sendAdminRoleRequest("bench@wallet.com", "ROLE_ADMIN", "0f1e2d3c-4b5a-6978-8796-a5b4c3d2e1f0");
+    }
+
+    /**
+     * Emisor que renderiza el mensaje en lugar de enviarlo.
+     */
+    static class RenderingMailSender extends JavaMailSenderImpl {
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            for (MimeMessage message : mimeMessages) {
+                try {
+                    message.saveChanges();
+                    message.writeTo(OutputStream.nullOutputStream());
+                } catch (MessagingException | IOException e) {
+                    throw new MailPreparationException(e);
+                }
+            }
+        }
+    }
+}
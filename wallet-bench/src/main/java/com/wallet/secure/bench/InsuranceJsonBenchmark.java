@@ -0,0 +1,66 @@
+package com.wallet.secure.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wallet.secure.entity.Insurance;
+import com.wallet.secure.entity.Views;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de seguros tal y como la hacen los endpoints de {@code /api/insurances}.
+ * <p>
+ * El {@link ObjectMapper} se configura como el de Spring Boot en wallet-api (fechas ISO e
+ * inclusión por defecto de los campos sin vista). El listado usa {@link Views.Summary} y la
+ * ficha {@link Views.Detail}, con {@code children} elementos en cada colección.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsuranceJsonBenchmark {
+
+    @Param({"20", "500"})
+    public int size;
+
+    @Param({"3", "20"})
+    public int children;
+
+    private ObjectWriter summaryWriter;
+    private ObjectWriter detailWriter;
+    private List<Insurance> insurances;
+
+    @Setup
+    public void setup() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().defaultViewInclusion(true).build();
+        summaryWriter = mapper.writerWithView(Views.Summary.class);
+        detailWriter = mapper.writerWithView(Views.Detail.class);
+        insurances = BenchData.insurances(size, children);
+    }
+
+    @Benchmark
+    public byte[] listSummary() throws Exception {
+        return summaryWriter.writeValueAsBytes(insurances);
+    }
+
+    @Benchmark
+    public byte[] detail() throws Exception {
+        return detailWriter.writeValueAsBytes(insurances.get(0));
+    }
+}
@@ -0,0 +1,91 @@
+package com.wallet.secure.bench;
+
+import com.wallet.secure.controller.AuthController;
+import com.wallet.secure.entity.User;
+import com.wallet.secure.security.AuthRateLimiter;
+import com.wallet.secure.security.PasswordVerifier;
+import com.wallet.secure.security.ServiceTokenService;
+import com.wallet.secure.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AuthController#login} completo, dominado por la verificación BCrypt de la contraseña.
+ * <p>
+ * {@code cost} es el factor de trabajo con el que se generó el hash: 10 es el valor por defecto de
+ * {@code app.auth.bcrypt-cost}; 12 muestra cuánto costaría subirlo. El usuario lo devuelve un
+ * {@link UserService} en memoria y la verificación pasa por un {@link PasswordVerifier} de un hilo,
+ * así que se mide también el salto al pool.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "password123";
+
+    @Param({"10", "12"})
+    public int cost;
+
+    private PasswordVerifier verifier;
+    private AuthController controller;
+    private Map<String, String> goodCredentials;
+    private Map<String, String> badCredentials;
+
+    @Setup
+    public void setup() {
+        User user = BenchData.user();
+        user.setPassword(new BCryptPasswordEncoder(cost).encode(PASSWORD));
+        UserService userService = new UserService() {
+            @Override
+            public User findUserByEmail(String email) {
+                return user.getEmail().equals(email) ? user : null;
+            }
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        verifier = new PasswordVerifier(new BCryptPasswordEncoder(cost), registry, 1, 100, 60_000);
+        // Sin límite de intentos: el benchmark repite el mismo email sin parar
+        AuthRateLimiter rateLimiter = new AuthRateLimiter(
+                new MockEnvironment().withProperty("app.auth.rate-limit.enabled", "false"), registry);
+        controller = new AuthController(userService, verifier,
+                new ServiceTokenService("bench-secret", 900, 43200), rateLimiter, registry);
+        goodCredentials = Map.of("email", user.getEmail(), "password", PASSWORD);
+        badCredentials = Map.of("email", user.getEmail(), "password", "incorrecta");
+    }
+
+    @TearDown
+    public void tearDown() {
+        verifier.destroy();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> success() {
+        return controller.login(goodCredentials).join();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> wrongPassword() {
+        return controller.login(badCredentials).join();
+    }
+}
@@ -0,0 +1,220 @@
+package com.wallet.secure.bench;
+
+import com.wallet.secure.service.PartitionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Efecto del particionado por año de {@code payments} ({@link PartitionService}) sobre un MySQL real,
+ * con {@code rows} pagos repartidos en {@code years} años: la misma tabla sin particionar
+ * ({@code flat}) y particionada ({@code partitioned}).
+ * <p>
+ * {@code monthTotal} suma los pagos de un mes (sin índice por fecha: la tabla plana se recorre
+ * entera y la particionada solo en la partición del año), {@code insuranceYear} lee los pagos de una
+ * póliza en un año, como {@code PaymentRepository.findByUserAndPeriod}, e {@code insurancePayments}
+ * todos los de una póliza sin acotar la fecha (la colección de la ficha de la póliza), que en la
+ * tabla particionada consulta el índice de cada partición. Al preparar cada tabla se imprime su
+ * {@code EXPLAIN} con las particiones que lee cada consulta.
+ * </p>
+ * <p>
+ * Necesita una base de datos MySQL (o MariaDB) vacía para sus tablas {@code bench_payments_*}, que
+ * se conservan entre ejecuciones: {@code -Dbench.mysql.url}, {@code -Dbench.mysql.user} y
+ * {@code -Dbench.mysql.password}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionPruningBenchmark {
+
+    private static final String COLUMNS = "id, amount, payment_date, status";
+
+    /** Pagos por póliza a lo largo de los años (mensuales durante 5 años). */
+    private static final int PAYMENTS_PER_INSURANCE = 60;
+
+    @Param({"flat", "partitioned"})
+    public String table;
+
+    @Param({"5"})
+    public int years;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Connection connection;
+    private PreparedStatement monthTotal;
+    private PreparedStatement insuranceYear;
+    private PreparedStatement insurancePayments;
+    private LocalDate[] months;
+    private long[] insurances;
+    private int next;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.mysql.url", "jdbc:mysql://127.0.0.1:3307/wallet_bench?createDatabaseIfNotExist=true"
+                        + "&useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true"),
+                System.getProperty("bench.mysql.user", "root"), System.getProperty("bench.mysql.password", "root"));
+        int firstYear = LocalDate.now().getYear() - years + 1;
+        String name = "bench_payments_" + table + "_" + years + "y_" + rows;
+        if (count(name) != rows) {
+            create(name, firstYear);
+        }
+
+        Random random = new Random(42);
+        months = new LocalDate[64];
+        insurances = new long[64];
+        for (int i = 0; i < months.length; i++) {
+            months[i] = LocalDate.of(firstYear + random.nextInt(years), 1 + random.nextInt(12), 1);
+            insurances[i] = 1 + random.nextInt(rows / PAYMENTS_PER_INSURANCE);
+        }
+        monthTotal = connection.prepareStatement("SELECT COUNT(*), SUM(amount) FROM " + name
+                + " WHERE payment_date >= ? AND payment_date < ?");
+        insuranceYear = connection.prepareStatement("SELECT " + COLUMNS + " FROM " + name
+                + " WHERE insurance_id = ? AND payment_date >= ? AND payment_date < ?");
+        insurancePayments = connection.prepareStatement("SELECT " + COLUMNS + " FROM " + name + " WHERE insurance_id = ?");
+
+        LocalDate month = months[0];
+        explain("monthTotal", "SELECT COUNT(*), SUM(amount) FROM " + name + " WHERE payment_date >= '" + month
+                + "' AND payment_date < '" + month.plusMonths(1) + "'");
+        explain("insuranceYear", "SELECT " + COLUMNS + " FROM " + name + " WHERE insurance_id = " + insurances[0]
+                + " AND payment_date >= '" + month.withDayOfYear(1) + "' AND payment_date < '" + month.withDayOfYear(1).plusYears(1) + "'");
+        explain("insurancePayments", "SELECT " + COLUMNS + " FROM " + name + " WHERE insurance_id = " + insurances[0]);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public double monthTotal() throws SQLException {
+        LocalDate month = months[next++ & 63];
+        monthTotal.setDate(1, Date.valueOf(month));
+        monthTotal.setDate(2, Date.valueOf(month.plusMonths(1)));
+        try (ResultSet rs = monthTotal.executeQuery()) {
+            rs.next();
+            return rs.getLong(1) + rs.getDouble(2);
+        }
+    }
+
+    @Benchmark
+    public long insuranceYear() throws SQLException {
+        int i = next++ & 63;
+        LocalDate year = months[i].withDayOfYear(1);
+        insuranceYear.setLong(1, insurances[i]);
+        insuranceYear.setDate(2, Date.valueOf(year));
+        insuranceYear.setDate(3, Date.valueOf(year.plusYears(1)));
+        return read(insuranceYear);
+    }
+
+    @Benchmark
+    public long insurancePayments() throws SQLException {
+        insurancePayments.setLong(1, insurances[next++ & 63]);
+        return read(insurancePayments);
+    }
+
+    private static long read(PreparedStatement statement) throws SQLException {
+        long sum = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                sum += rs.getLong(1) + rs.getDate(3).toLocalDate().getDayOfMonth();
+            }
+        }
+        return sum;
+    }
+
+    private long count(String name) {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + name)) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Crea la tabla con las columnas de {@code payments} y la llena con la misma semilla en las dos
+     * variantes: pólizas de {@value #PAYMENTS_PER_INSURANCE} pagos de media y fechas uniformes en los años.
+     */
+    private void create(String name, int firstYear) throws SQLException {
+        long started = System.nanoTime();
+        boolean partitioned = "partitioned".equals(table);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + name);
+            statement.execute("CREATE TABLE " + name + " (id BIGINT NOT NULL AUTO_INCREMENT, version BIGINT NOT NULL,"
+                    + " amount DOUBLE, payment_date DATE NOT NULL, status VARCHAR(20), insurance_id BIGINT,"
+                    + (partitioned ? " PRIMARY KEY (id, payment_date)," : " PRIMARY KEY (id),")
+                    + " INDEX idx_" + name + "_insurance_id (insurance_id))"
+                    + (partitioned ? " PARTITION BY RANGE COLUMNS(payment_date) ("
+                    + PartitionService.partitionDefinitions(firstYear, LocalDate.now().getYear() + 2) + ")" : ""));
+        }
+        Random random = new Random(7);
+        LocalDate start = LocalDate.of(firstYear, 1, 1);
+        int days = (int) (LocalDate.of(firstYear + years, 1, 1).toEpochDay() - start.toEpochDay());
+        String[] statuses = {"PAID", "PAID", "PAID", "PENDING", "OVERDUE"};
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + name
+                + " (version, amount, payment_date, status, insurance_id) VALUES (0, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                insert.setDouble(1, 20 + random.nextInt(2000) / 10.0);
+                insert.setDate(2, Date.valueOf(start.plusDays(random.nextInt(days))));
+                insert.setString(3, statuses[random.nextInt(statuses.length)]);
+                insert.setLong(4, 1 + random.nextInt(rows / PAYMENTS_PER_INSURANCE));
+                insert.addBatch();
+                if (i % 5000 == 0 || i == rows) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE " + name);
+        }
+        System.out.printf("%n%s: %d filas en %d s%n", name, rows, (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private void explain(String benchmark, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = explain(statement, sql)) {
+            rs.next();
+            System.out.printf("%n%s [%s]: partitions=%s type=%s key=%s rows=%s%n", benchmark, table,
+                    rs.getString("partitions"), rs.getString("type"), rs.getString("key"), rs.getString("rows"));
+        }
+    }
+
+    private static ResultSet explain(Statement statement, String sql) throws SQLException {
+        try {
+            // MariaDB solo muestra la columna partitions con EXPLAIN PARTITIONS; MySQL 8 siempre, y ya no admite la palabra
+            return statement.executeQuery("EXPLAIN PARTITIONS " + sql);
+        } catch (SQLException e) {
+            return statement.executeQuery("EXPLAIN " + sql);
+        }
+    }
+}
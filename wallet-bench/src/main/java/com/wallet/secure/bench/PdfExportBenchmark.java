@@ -0,0 +1,54 @@
+package com.wallet.secure.bench;
+
+import com.wallet.secure.entity.Insurance;
+import com.wallet.secure.service.PdfService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@link PdfService#export} generando el resumen PDF de un usuario.
+ * <p>
+ * La respuesta es un {@link MockHttpServletResponse} en memoria; se devuelve su tamaño para que
+ * JMH no descarte el trabajo.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfExportBenchmark {
+
+    @Param({"10", "200"})
+    public int size;
+
+    private PdfService pdfService;
+    private List<Insurance> insurances;
+
+    @Setup
+    public void setup() {
+        pdfService = new PdfService();
+        insurances = BenchData.insurances(size, 0);
+    }
+
+    @Benchmark
+    public int export() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        pdfService.export(response, insurances);
+        return response.getContentAsByteArray().length;
+    }
+}
@@ -0,0 +1,58 @@
+package com.wallet.secure.bench;
+
+import com.wallet.secure.entity.User;
+import com.wallet.secure.security.ServiceTokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de autenticar una llamada de wallet-web con el token de servicio: {@code verify} es lo que
+ * hace el filtro de la API en cada petición (HMAC-SHA256 y lectura de los datos, sin base de datos)
+ * e {@code issue} lo que cuesta emitirlo en el login o al renovarlo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceTokenBenchmark {
+
+    private ServiceTokenService service;
+    private User user;
+    private String token;
+    private String forged;
+
+    @Setup
+    public void setup() {
+        user = BenchData.user();
+        service = new ServiceTokenService("bench-secret", 900, 43200);
+        token = service.issue(user);
+        forged = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+    }
+
+    @Benchmark
+    public String issue() {
+        return service.issue(user);
+    }
+
+    @Benchmark
+    public ServiceTokenService.Claims verify() {
+        return service.verify(token);
+    }
+
+    @Benchmark
+    public ServiceTokenService.Claims verifyForged() {
+        return service.verify(forged);
+    }
+}
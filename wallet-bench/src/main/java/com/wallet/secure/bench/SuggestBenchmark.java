@@ -0,0 +1,107 @@
+package com.wallet.secure.bench;
+
+import com.wallet.secure.repository.InsuranceRepository;
+import com.wallet.secure.service.InsuranceSuggestService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia del autocompletado de {@link InsuranceSuggestService} con {@code companies} compañías
+ * distintas. En modo muestreo JMH da los percentiles (p99, p99.9) de cada consulta.
+ * <p>
+ * {@code prefix1} es el peor caso (una letra: recorre todas las compañías con esa inicial),
+ * {@code prefix3} lo habitual al escribir y {@code record} el alta de una póliza de una compañía ya
+ * sugerida (copia del índice). Cada compañía la usan tres usuarios, el mínimo para sugerirse.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SuggestBenchmark {
+
+    @Param({"100", "10000"})
+    public int companies;
+
+    private InsuranceSuggestService service;
+    private String[] prefixes;
+    private String[] names;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        names = new String[companies];
+        List<Object[]> companyRows = new ArrayList<>();
+        for (int i = 0; i < companies; i++) {
+            names[i] = randomName(random) + " Seguros " + i;
+            for (long user = 1; user <= 3; user++) {
+                companyRows.add(new Object[]{names[i], user, (long) (1 + random.nextInt(200))});
+            }
+        }
+        List<Object[]> categoryRows = new ArrayList<>();
+        for (String category : new String[]{"Hogar", "Vida", "Viajes", "Vehículo", "Salud", "Mascotas"}) {
+            for (long user = 1; user <= 3; user++) {
+                categoryRows.add(new Object[]{category, user, 100L});
+            }
+        }
+        service = new InsuranceSuggestService();
+        ReflectionTestUtils.setField(service, "minUsers", 3);
+        ReflectionTestUtils.setField(service, "insuranceRepository", (InsuranceRepository) Proxy.newProxyInstance(
+                InsuranceRepository.class.getClassLoader(), new Class<?>[]{InsuranceRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "countByCompany" -> companyRows;
+                    case "countByCategory" -> categoryRows;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }));
+        service.rebuild();
+        prefixes = new String[256];
+        for (int i = 0; i < prefixes.length; i++) {
+            prefixes[i] = randomName(random).substring(0, 3);
+        }
+    }
+
+    @Benchmark
+    public List<String> prefix1() {
+        return service.suggest(InsuranceSuggestService.COMPANY, prefixes[next++ & 255].substring(0, 1), 10);
+    }
+
+    @Benchmark
+    public List<String> prefix3() {
+        return service.suggest(InsuranceSuggestService.COMPANY, prefixes[next++ & 255], 10);
+    }
+
+    @Benchmark
+    public void record() {
+        String company = names[next++ % names.length];
+        service.replace(null, null, company, "Hogar");
+        service.replace(company, "Hogar", null, null);
+    }
+
+    private static String randomName(Random random) {
+        char[] name = new char[6];
+        name[0] = (char) ('A' + random.nextInt(26));
+        for (int i = 1; i < name.length; i++) {
+            name[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(name);
+    }
+}
@@ -0,0 +1,61 @@
+package com.wallet.secure.bench;
+
+import com.wallet.secure.entity.User;
+import com.wallet.secure.security.CustomUserDetailsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste propio de {@link CustomUserDetailsService#loadUserByUsername}, que wallet-api ejecutaba en
+ * cada petición autenticada. Hoy las peticiones llegan con un token firmado
+ * ({@link ServiceTokenBenchmark}); se conserva como referencia de lo que costaba la búsqueda.
+ * <p>
+ * El repositorio es un stub en memoria, así que solo se mide la construcción del
+ * {@link UserDetails}, el prefijo del rol y el log. El caso del usuario inexistente incluye
+ * la excepción que lanza el servicio.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDetailsBenchmark {
+
+    private CustomUserDetailsService service;
+    private String email;
+
+    @Setup
+    public void setup() {
+        User user = BenchData.user();
+        email = user.getEmail();
+        service = new CustomUserDetailsService(BenchData.userRepository(user));
+    }
+
+    @Benchmark
+    public UserDetails knownUser() {
+        return service.loadUserByUsername(email);
+    }
+
+    @Benchmark
+    public Object unknownUser() {
+        try {
+            return service.loadUserByUsername("nadie@wallet.com");
+        } catch (UsernameNotFoundException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.wallet.secure.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.wallet.secure.entity.Insurance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara JSON frente a Smile al codificar y decodificar listados de seguros.
+ * <p>
+ * Reproduce el tráfico de {@code GET /api/insurances}. Ejecutar con {@code -prof gc}
+ * para obtener también la tasa de asignación de memoria.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<Insurance>> INSURANCE_LIST = new TypeReference<>() {};
+
+    @Param({"20", "500"})
+    public int size;
+
+    @Param({"json", "smile"})
+    public String codec;
+
+    private ObjectMapper mapper;
+    private List<Insurance> insurances;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = "smile".equals(codec) ? new ObjectMapper(new SmileFactory()) : new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        insurances = BenchData.insurances(size, 3);
+        encoded = mapper.writeValueAsBytes(insurances);
+        System.out.println("\n[" + codec + "] tamaño serializado (" + size + " seguros): " + encoded.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(insurances);
+    }
+
+    @Benchmark
+    public List<Insurance> decode() throws Exception {
+        return mapper.readValue(encoded, INSURANCE_LIST);
+    }
+}
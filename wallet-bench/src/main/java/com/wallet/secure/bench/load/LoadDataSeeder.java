@@ -0,0 +1,115 @@
+package com.wallet.secure.bench.load;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Carga datos sintéticos directamente por JDBC en el esquema que ha creado wallet-api.
+ * <p>
+ * Los usuarios son {@code load<i>@wallet.test} (de 0 a {@code users - 1}), todos activos, con rol
+ * trabajador y la contraseña {@link #PASSWORD}. Las pólizas se reparten al azar entre ellos con
+ * una semilla fija, así que dos ejecuciones con los mismos volúmenes generan los mismos datos.
+ * </p>
+ */
+public final class LoadDataSeeder {
+
+    public static final String PASSWORD = "password123";
+
+    private static final String[] CATEGORIES = {"Salud", "Vehículo", "Hogar", "Vida", "Viajes", "Mascotas", "Decesos", "Electrónica", "Otro"};
+    private static final String[] COMPANIES = {"Mapfre", "Allianz", "AXA", "Generali", "Zurich", "Sanitas", "Mutua Madrileña"};
+    private static final String[] PERIODS = {"MONTHLY", "QUARTERLY", "YEARLY"};
+    private static final int BATCH_SIZE = 1000;
+
+    private LoadDataSeeder() {
+    }
+
+    /**
+     * @param index Número de usuario sembrado.
+     * @return Email con el que inicia sesión.
+     */
+    public static String email(int index) {
+        return "load" + index + "@wallet.test";
+    }
+
+    /**
+     * Inserta los usuarios y las pólizas.
+     *
+     * @param jdbcUrl URL de la base de datos (la misma que usa la API).
+     * @param users Número de usuarios.
+     * @param policies Número total de pólizas.
+     * @throws SQLException Si falla alguna inserción.
+     */
+    public static void seed(String jdbcUrl, int users, int policies) throws SQLException {
+        Random random = new Random(42);
+        // Todas las cuentas comparten contraseña: basta con un hash (coste por defecto de la API)
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+
+        try (Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "")) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO users (name, email, password, role, enabled, mobile, version, data_version) "
+                            + "VALUES (?, ?, ?, 'ROLE_WORKER', TRUE, ?, 0, 0)")) {
+                for (int i = 0; i < users; i++) {
+                    insert.setString(1, "Usuario de carga " + i);
+                    insert.setString(2, email(i));
+                    insert.setString(3, hash);
+                    insert.setString(4, "6" + String.format("%08d", i));
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+
+            List<Long> userIds = new ArrayList<>(users);
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT id FROM users WHERE email LIKE 'load%@wallet.test' ORDER BY id")) {
+                while (rs.next()) {
+                    userIds.add(rs.getLong(1));
+                }
+            }
+            if (userIds.isEmpty()) {
+                return;
+            }
+
+            LocalDate today = LocalDate.now();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO insurances (title, company, policy_number, category, expiry_date, phone_number, "
+                            + "premium_amount, payment_period, user_id, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)")) {
+                for (int i = 0; i < policies; i++) {
+                    String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                    insert.setString(1, "Seguro de " + category.toLowerCase() + " " + i);
+                    insert.setString(2, COMPANIES[random.nextInt(COMPANIES.length)]);
+                    insert.setString(3, "POL-" + (1_000_000 + i));
+                    insert.setString(4, category);
+                    // Un 10 % ya vencidas, el resto repartidas en los dos próximos años
+                    insert.setDate(5, Date.valueOf(today.plusDays(random.nextInt(800) - 80)));
+                    insert.setString(6, "9" + (10_000_000 + random.nextInt(90_000_000)));
+                    insert.setDouble(7, 10 + random.nextInt(2000));
+                    insert.setString(8, PERIODS[random.nextInt(PERIODS.length)]);
+                    insert.setLong(9, userIds.get(random.nextInt(userIds.size())));
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+}
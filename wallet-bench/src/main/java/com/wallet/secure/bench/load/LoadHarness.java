@@ -0,0 +1,234 @@
+package com.wallet.secure.bench.load;
+
+import org.h2.tools.Server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prueba de carga de extremo a extremo sin infraestructura externa.
+ * <p>
+ * Arranca una base de datos H2 en modo MySQL (servidor TCP dentro de este proceso) y un
+ * {@link SmtpStub}; lanza wallet-api y wallet-web como procesos independientes desde sus jar
+ * ejecutables, apuntando a ambos; siembra los datos con {@link LoadDataSeeder} y ejecuta
+ * {@link ScenarioLoadTest}. Al final muestra peticiones, errores, req/s y p50/p95/p99 por escenario
+ * y termina con código 1 si algún escenario supera el porcentaje de errores admitido.
+ * </p>
+ * <p>
+ * La forma más sencilla de lanzarlo es {@code wallet-bench/load.sh}. Propiedades propias (además de
+ * las de {@link ScenarioLoadTest}): {@code load.users} (10000), {@code load.policies} (1000000),
+ * {@code load.api-jar}, {@code load.web-jar}, {@code load.lib} (directorio con el driver de H2 para
+ * la API, target/load-lib), {@code load.work} (logs y ficheros subidos, target/load),
+ * {@code load.jvm-args} (de cada aplicación), {@code load.report} (CSV con el resultado) y
+ * {@code load.max-error-rate} (porcentaje, 1).
+ * </p>
+ * <p>
+ * H2 en memoria no reproduce los planes de ejecución de MySQL: la prueba sirve para comparar
+ * versiones del código entre sí, no para estimar la capacidad de producción.
+ * </p>
+ */
+public class LoadHarness {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("load.users", 10_000);
+        int policies = Integer.getInteger("load.policies", 1_000_000);
+        int sessions = Integer.getInteger("load.sessions", 200);
+        int durationSeconds = Integer.getInteger("load.duration", 60);
+        int rampSeconds = Integer.getInteger("load.ramp", 10);
+        double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "1"));
+        File apiJar = new File(System.getProperty("load.api-jar", "../wallet-api/target/wallet-api-0.0.1-SNAPSHOT-exec.jar"));
+        File webJar = new File(System.getProperty("load.web-jar", "../wallet-web/target/wallet-web-0.0.1-SNAPSHOT.jar"));
+        File lib = new File(System.getProperty("load.lib", "target/load-lib"));
+        Path work = Path.of(System.getProperty("load.work", "target/load"));
+        List<String> jvmArgs = Arrays.asList(System.getProperty("load.jvm-args", "-Xms1g -Xmx1g -XX:+UseG1GC").trim().split("\\s+"));
+        String report = System.getProperty("load.report");
+
+        for (File jar : List.of(apiJar, webJar)) {
+            if (!jar.isFile()) {
+                throw new IllegalStateException("No existe " + jar + " (mvn package en el módulo correspondiente)");
+            }
+        }
+        Files.createDirectories(work);
+
+        int dbPort = freePort();
+        int apiPort = freePort();
+        int webPort = freePort();
+        int apiManagementPort = freePort();
+        int webManagementPort = freePort();
+        String jdbcUrl = "jdbc:h2:tcp://localhost:" + dbPort + "/mem:wallet;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+        Server database = Server.createTcpServer("-tcpPort", String.valueOf(dbPort), "-ifNotExists").start();
+        boolean failed = false;
+        Process api = null;
+        Process web = null;
+        try (SmtpStub smtp = new SmtpStub();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<String> mail = List.of(
+                    "--spring.mail.host=localhost",
+                    "--spring.mail.port=" + smtp.getPort(),
+                    "--spring.mail.username=",
+                    "--spring.mail.password=",
+                    "--spring.mail.properties.mail.smtp.auth=false",
+                    "--spring.mail.properties.mail.smtp.starttls.enable=false");
+
+            log("Arrancando wallet-api en el puerto " + apiPort);
+            List<String> apiCommand = new ArrayList<>(javaCommand(jvmArgs));
+            // PropertiesLauncher añade el driver de H2, que el jar de la API no incluye
+            apiCommand.addAll(List.of("-Dloader.path=" + lib.getAbsolutePath(), "-cp", apiJar.getAbsolutePath(),
+                    "org.springframework.boot.loader.launch.PropertiesLauncher",
+                    "--server.port=" + apiPort,
+                    "--management.server.port=" + apiManagementPort,
+                    "--spring.datasource.url=" + jdbcUrl,
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.hibernate.ddl-auto=create",
+                    "--app.frontend.url=http://localhost:" + webPort,
+                    // Todos los usuarios virtuales entran desde la misma IP
+                    "--app.auth.rate-limit.enabled=false"));
+            apiCommand.addAll(mail);
+            api = start(apiCommand, work, "api");
+            awaitHealthy(api, "http://localhost:" + apiManagementPort + "/actuator/health");
+
+            log("Sembrando " + users + " usuarios y " + policies + " pólizas");
+            long t0 = System.nanoTime();
+            LoadDataSeeder.seed(jdbcUrl, users, policies);
+            log(String.format(Locale.ROOT, "Datos cargados en %.1f s", (System.nanoTime() - t0) / 1e9));
+
+            log("Arrancando wallet-web en el puerto " + webPort);
+            List<String> webCommand = new ArrayList<>(javaCommand(jvmArgs));
+            webCommand.addAll(List.of("-jar", webJar.getAbsolutePath(),
+                    "--server.port=" + webPort,
+                    "--management.server.port=" + webManagementPort,
+                    "--app.api.url=http://localhost:" + apiPort + "/api"));
+            webCommand.addAll(mail);
+            web = start(webCommand, work, "web");
+            awaitHealthy(web, "http://localhost:" + webManagementPort + "/actuator/health");
+
+            String url = "http://localhost:" + webPort;
+            log("Sesiones: " + sessions + " | duración: " + durationSeconds + "s | destino: " + url);
+            Map<ScenarioLoadTest.Scenario, SessionLoadTest.Result> results = ScenarioLoadTest.fromSystemProperties(url, executor)
+                    .run(executor, sessions, Duration.ofSeconds(durationSeconds), Duration.ofSeconds(rampSeconds));
+
+            double seconds = durationSeconds + rampSeconds;
+            ScenarioLoadTest.print(results, seconds);
+            log("Correos recibidos por el servidor SMTP de prueba: " + smtp.getMessages());
+            if (report != null) {
+                writeReport(Path.of(report), results, seconds);
+                log("Resultado guardado en " + report);
+            }
+
+            for (Map.Entry<ScenarioLoadTest.Scenario, SessionLoadTest.Result> entry : results.entrySet()) {
+                double errorRate = entry.getValue().summary(seconds)[1];
+                if (errorRate > maxErrorRate) {
+                    log(String.format(Locale.ROOT, "%s: %.2f%% de errores (máximo %.2f%%)", entry.getKey(), errorRate, maxErrorRate));
+                    failed = true;
+                }
+            }
+        } finally {
+            stop(web);
+            stop(api);
+            database.stop();
+        }
+        if (failed) {
+            log("Revisar " + work.resolve("api.log") + " y " + work.resolve("web.log"));
+            System.exit(1);
+        }
+    }
+
+    private static List<String> javaCommand(List<String> jvmArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        return command;
+    }
+
+    /**
+     * Lanza una aplicación con el directorio de trabajo indicado (ahí quedan los ficheros subidos)
+     * y su salida en {@code <nombre>.log}.
+     */
+    private static Process start(List<String> command, Path work, String name) throws IOException {
+        File logFile = work.resolve(name + ".log").toFile();
+        return new ProcessBuilder(command)
+                .directory(work.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(logFile)
+                .start();
+    }
+
+    /**
+     * Espera a que el endpoint de salud responda 200, o falla si el proceso termina o se agota el tiempo.
+     */
+    private static void awaitHealthy(Process process, String healthUrl) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(healthUrl)).timeout(Duration.ofSeconds(5)).GET().build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("El proceso terminó al arrancar (código " + process.exitValue() + "): " + healthUrl);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Todavía no escucha
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("No arrancó en " + STARTUP_TIMEOUT.toSeconds() + " s: " + healthUrl);
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        if (process != null && process.isAlive()) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static void writeReport(Path file, Map<ScenarioLoadTest.Scenario, SessionLoadTest.Result> results, double seconds)
+            throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("scenario,requests,error_pct,throughput,p50_ms,p95_ms,p99_ms");
+            results.forEach((scenario, result) -> {
+                double[] s = result.summary(seconds);
+                out.printf(Locale.ROOT, "%s,%d,%.3f,%.2f,%.2f,%.2f,%.2f%n",
+                        scenario.name().toLowerCase(), (long) s[0], s[1], s[2], s[3], s[4], s[5]);
+            });
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void log(String message) {
+        System.out.println("[load] " + message);
+    }
+}
@@ -0,0 +1,321 @@
+package com.wallet.secure.bench.load;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recorre los flujos principales de wallet-web con muchas sesiones a la vez y mide cada uno por separado.
+ * <p>
+ * Cada sesión entra con uno de los usuarios de {@link LoadDataSeeder}, abre el panel y, hasta agotar
+ * el tiempo, elige al azar (según el reparto {@code load.mix}) entre ver el panel, ver el detalle de
+ * una de sus pólizas, crear una póliza subiendo una imagen y abrir un ticket de soporte. Cada
+ * {@code load.session-requests} peticiones vuelve a iniciar sesión, de modo que el login también
+ * se mide durante toda la prueba.
+ * </p>
+ * <p>
+ * Normalmente lo arranca {@link LoadHarness}; también puede lanzarse contra una instalación con
+ * esos usuarios ya cargados. Propiedades: {@code load.url} (http://localhost:8083), {@code load.users}
+ * (10000), {@code load.sessions} (200), {@code load.duration} (segundos, 60), {@code load.ramp}
+ * (segundos, 10), {@code load.session-requests} (50) y {@code load.mix}
+ * ("dashboard=50,details=35,upload=5,ticket=10").
+ * </p>
+ */
+public class ScenarioLoadTest {
+
+    /**
+     * Flujos medidos. El login no entra en el reparto: se ejecuta al abrir cada sesión.
+     */
+    public enum Scenario {
+        LOGIN, DASHBOARD, DETAILS, UPLOAD, TICKET
+    }
+
+    private static final Pattern DETAILS_LINK = Pattern.compile("/insurance/(\\d+)/details");
+    private static final String BOUNDARY = "----wallet-load-boundary";
+
+    private final String baseUrl;
+    private final int users;
+    private final int sessionRequests;
+    private final Scenario[] wheel;
+    private final byte[] image;
+    private final HttpClient client;
+
+    /**
+     * @param baseUrl URL de wallet-web.
+     * @param users Número de usuarios sembrados entre los que se reparten las sesiones.
+     * @param mix Reparto de escenarios, p. ej. {@code dashboard=50,details=35,upload=5,ticket=10}.
+     * @param sessionRequests Peticiones por sesión antes de volver a iniciar sesión.
+     * @param executor Ejecutor del cliente HTTP.
+     */
+    public ScenarioLoadTest(String baseUrl, int users, String mix, int sessionRequests, ExecutorService executor) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.sessionRequests = Math.max(1, sessionRequests);
+        this.wheel = parseMix(mix);
+        this.image = new byte[48 * 1024];
+        new Random(42).nextBytes(image);
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("load.url", "http://localhost:8083");
+        int sessions = Integer.getInteger("load.sessions", 200);
+        int durationSeconds = Integer.getInteger("load.duration", 60);
+        int rampSeconds = Integer.getInteger("load.ramp", 10);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ScenarioLoadTest test = fromSystemProperties(url, executor);
+            System.out.println("Sesiones: " + sessions + " | duración: " + durationSeconds + "s | destino: " + url);
+            Map<Scenario, SessionLoadTest.Result> results =
+                    test.run(executor, sessions, Duration.ofSeconds(durationSeconds), Duration.ofSeconds(rampSeconds));
+            print(results, durationSeconds + rampSeconds);
+        }
+    }
+
+    /**
+     * Crea la prueba con las propiedades {@code load.*} del sistema.
+     */
+    static ScenarioLoadTest fromSystemProperties(String url, ExecutorService executor) {
+        return new ScenarioLoadTest(url,
+                Integer.getInteger("load.users", 10_000),
+                System.getProperty("load.mix", "dashboard=50,details=35,upload=5,ticket=10"),
+                Integer.getInteger("load.session-requests", 50),
+                executor);
+    }
+
+    /**
+     * Lanza las sesiones repartiendo su arranque a lo largo de la rampa y espera a que terminen.
+     *
+     * @return Resultado de cada escenario, sumando todas las sesiones.
+     */
+    public Map<Scenario, SessionLoadTest.Result> run(ExecutorService executor, int sessions, Duration duration, Duration ramp)
+            throws Exception {
+        long start = System.nanoTime();
+        long end = start + ramp.toNanos() + duration.toNanos();
+        long step = sessions > 0 ? ramp.toNanos() / sessions : 0;
+
+        List<Future<Map<Scenario, SessionLoadTest.Result>>> futures = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            long startAt = start + i * step;
+            int user = i % Math.max(1, users);
+            futures.add(executor.submit(() -> session(user, startAt, end)));
+        }
+
+        Map<Scenario, SessionLoadTest.Result> total = newResults();
+        for (Future<Map<Scenario, SessionLoadTest.Result>> future : futures) {
+            future.get().forEach((scenario, result) -> total.get(scenario).merge(result));
+        }
+        return total;
+    }
+
+    /**
+     * Muestra una fila por escenario.
+     *
+     * @param results Resultado de {@link #run}.
+     * @param seconds Duración total de la prueba.
+     */
+    public static void print(Map<Scenario, SessionLoadTest.Result> results, double seconds) {
+        System.out.printf("%-10s %10s %9s %10s %9s %9s %9s%n", "Escenario", "Peticiones", "Errores", "req/s", "p50 ms", "p95 ms", "p99 ms");
+        results.forEach((scenario, result) -> {
+            double[] s = result.summary(seconds);
+            System.out.printf(Locale.ROOT, "%-10s %10d %8.2f%% %10.1f %9.1f %9.1f %9.1f%n",
+                    scenario.name().toLowerCase(), (long) s[0], s[1], s[2], s[3], s[4], s[5]);
+        });
+    }
+
+    private Map<Scenario, SessionLoadTest.Result> session(int user, long startAt, long end) throws InterruptedException {
+        Map<Scenario, SessionLoadTest.Result> results = newResults();
+        long wait = startAt - System.nanoTime();
+        if (wait > 0) {
+            Thread.sleep(Duration.ofNanos(wait));
+        }
+
+        while (System.nanoTime() < end) {
+            String cookie = login(user, results.get(Scenario.LOGIN));
+            if (cookie == null) {
+                // Sin sesión no hay nada que medir; se reintenta tras una pausa para no saturar el login
+                Thread.sleep(1000);
+                continue;
+            }
+            List<Long> policies = dashboard(cookie, results.get(Scenario.DASHBOARD));
+            for (int i = 1; i < sessionRequests && System.nanoTime() < end; i++) {
+                Scenario scenario = wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+                SessionLoadTest.Result result = results.get(scenario);
+                switch (scenario) {
+                    case DETAILS -> {
+                        if (policies.isEmpty()) {
+                            policies = dashboard(cookie, results.get(Scenario.DASHBOARD));
+                        } else {
+                            Long id = policies.get(ThreadLocalRandom.current().nextInt(policies.size()));
+                            send(get(cookie, "/insurance/" + id + "/details"), result, 200);
+                        }
+                    }
+                    case UPLOAD -> send(upload(cookie), result, 302);
+                    case TICKET -> send(form(cookie, "/support/create",
+                            "subject=" + encode("Consulta de carga") + "&message=" + encode("Mensaje generado por la prueba de carga")),
+                            result, 302);
+                    default -> policies = dashboard(cookie, result);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Envía el formulario de login y devuelve la cookie de sesión, o {@code null} si falla.
+     */
+    private String login(int user, SessionLoadTest.Result result) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString("email=" + encode(LoadDataSeeder.email(user))
+                        + "&password=" + encode(LoadDataSeeder.PASSWORD)))
+                .build();
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            String location = response.headers().firstValue("Location").orElse("");
+            String cookie = response.headers().allValues("Set-Cookie").stream()
+                    .filter(c -> c.startsWith("WALLET_SESSION="))
+                    .map(c -> c.substring(0, c.indexOf(';') > 0 ? c.indexOf(';') : c.length()))
+                    .findFirst().orElse(null);
+            boolean ok = response.statusCode() == 302 && !location.contains("error") && cookie != null;
+            result.record(System.nanoTime() - t0, ok);
+            return ok ? cookie : null;
+        } catch (Exception e) {
+            result.record(System.nanoTime() - t0, false);
+            return null;
+        }
+    }
+
+    /**
+     * Abre el panel y devuelve los identificadores de las pólizas que aparecen en él.
+     */
+    private List<Long> dashboard(String cookie, SessionLoadTest.Result result) {
+        List<Long> ids = new ArrayList<>();
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(get(cookie, "/"), HttpResponse.BodyHandlers.ofString());
+            result.record(System.nanoTime() - t0, response.statusCode() == 200);
+            Matcher matcher = DETAILS_LINK.matcher(response.body());
+            while (matcher.find()) {
+                ids.add(Long.parseLong(matcher.group(1)));
+            }
+        } catch (Exception e) {
+            result.record(System.nanoTime() - t0, false);
+        }
+        return ids;
+    }
+
+    private void send(HttpRequest request, SessionLoadTest.Result result, int expectedStatus) {
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            // Una redirección al login significa que la sesión se ha perdido
+            boolean ok = response.statusCode() == expectedStatus
+                    && !response.headers().firstValue("Location").orElse("").contains("/login");
+            result.record(System.nanoTime() - t0, ok);
+        } catch (Exception e) {
+            result.record(System.nanoTime() - t0, false);
+        }
+    }
+
+    private HttpRequest get(String cookie, String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Cookie", cookie)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest form(String cookie, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Cookie", cookie)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Formulario multipart de alta de póliza con una imagen, como el de {@code /new}.
+     */
+    private HttpRequest upload(String cookie) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(image.length + 1024);
+        Map<String, String> fields = Map.of(
+                "title", "Seguro de carga",
+                "company", "Mapfre",
+                "category", "Hogar",
+                "expiryDate", LocalDate.now().plusYears(1).toString(),
+                "premiumAmount", "120",
+                "paymentPeriod", "MONTHLY");
+        fields.forEach((name, value) -> body.writeBytes(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\""
+                + name + "\"\r\n\r\n" + value + "\r\n").getBytes(StandardCharsets.UTF_8)));
+        body.writeBytes(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"imageFile\"; filename=\"poliza.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(image);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/save"))
+                .header("Cookie", cookie)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static Map<Scenario, SessionLoadTest.Result> newResults() {
+        Map<Scenario, SessionLoadTest.Result> results = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            results.put(scenario, new SessionLoadTest.Result());
+        }
+        return results;
+    }
+
+    /**
+     * Convierte el reparto en una ruleta con una posición por unidad de peso.
+     */
+    private static Scenario[] parseMix(String mix) {
+        List<Scenario> wheel = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split("=");
+            Scenario scenario = Scenario.valueOf(entry[0].trim().toUpperCase());
+            if (scenario == Scenario.LOGIN) {
+                throw new IllegalArgumentException("El login no forma parte del reparto: se controla con load.session-requests");
+            }
+            for (int i = Integer.parseInt(entry[1].trim()); i > 0; i--) {
+                wheel.add(scenario);
+            }
+        }
+        if (wheel.isEmpty()) {
+            throw new IllegalArgumentException("load.mix no contiene ningún escenario");
+        }
+        return wheel.toArray(Scenario[]::new);
+    }
+}
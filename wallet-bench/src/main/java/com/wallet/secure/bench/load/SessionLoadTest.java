@@ -0,0 +1,215 @@
+package com.wallet.secure.bench.load;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de carga de sesiones concurrentes contra una instancia de wallet-web ya arrancada.
+ * <p>
+ * Cada sesión inicia sesión con el formulario de login y recorre en bucle las páginas indicadas
+ * hasta agotar el tiempo. Al final muestra peticiones, errores, throughput y latencias p50/p95/p99.
+ * Sirve para comparar wallet-web con y sin hilos virtuales ({@code APP_VIRTUAL_THREADS}):
+ * </p>
+ * <pre>
+ *   java -Dload.sessions=2000 -Dload.email=... -Dload.password=... \
+ *        -cp wallet-bench/target/benchmarks.jar com.wallet.secure.bench.load.SessionLoadTest
+ * </pre>
+ * <p>
+ * Propiedades: {@code load.url} (http://localhost:8083), {@code load.sessions} (2000),
+ * {@code load.duration} (segundos, 60), {@code load.ramp} (segundos, 10), {@code load.email},
+ * {@code load.password} (por defecto el usuario demo) y {@code load.paths} (lista separada por comas, "/,/profile").
+ * </p>
+ */
+public class SessionLoadTest {
+
+    private final String baseUrl;
+    private final String email;
+    private final String password;
+    private final List<String> paths;
+    private final HttpClient client;
+
+    public SessionLoadTest(String baseUrl, String email, String password, List<String> paths, ExecutorService executor) {
+        this.baseUrl = baseUrl;
+        this.email = email;
+        this.password = password;
+        this.paths = paths;
+        // Sin gestor de cookies compartido: cada sesión guarda su propia cookie WALLET_SESSION
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("load.url", "http://localhost:8083");
+        int sessions = Integer.getInteger("load.sessions", 2000);
+        int durationSeconds = Integer.getInteger("load.duration", 60);
+        int rampSeconds = Integer.getInteger("load.ramp", 10);
+        String email = System.getProperty("load.email", "demo@wallet.com");
+        String password = System.getProperty("load.password", "password123");
+        List<String> paths = Arrays.asList(System.getProperty("load.paths", "/,/profile").split(","));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            SessionLoadTest test = new SessionLoadTest(url, email, password, paths, executor);
+            System.out.println("Sesiones: " + sessions + " | duración: " + durationSeconds + "s | destino: " + url);
+            test.run(executor, sessions, Duration.ofSeconds(durationSeconds), Duration.ofSeconds(rampSeconds)).print();
+        }
+    }
+
+    /**
+     * Lanza las sesiones repartiendo su arranque a lo largo de la rampa y espera a que terminen.
+     *
+     * @param executor Ejecutor (hilos virtuales) donde corre cada sesión.
+     * @param sessions Número de sesiones concurrentes.
+     * @param duration Tiempo de medición tras la rampa.
+     * @param ramp Tiempo durante el que se van incorporando las sesiones.
+     * @return Resultado agregado de todas las sesiones.
+     */
+    public Result run(ExecutorService executor, int sessions, Duration duration, Duration ramp) throws Exception {
+        long start = System.nanoTime();
+        long end = start + ramp.toNanos() + duration.toNanos();
+        long step = sessions > 0 ? ramp.toNanos() / sessions : 0;
+
+        List<Future<Result>> futures = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            long startAt = start + i * step;
+            futures.add(executor.submit(() -> session(startAt, end)));
+        }
+
+        Result total = new Result();
+        for (Future<Result> future : futures) {
+            total.merge(future.get());
+        }
+        total.elapsedNanos = System.nanoTime() - start;
+        return total;
+    }
+
+    private Result session(long startAt, long end) throws InterruptedException {
+        Result result = new Result();
+        long wait = startAt - System.nanoTime();
+        if (wait > 0) {
+            Thread.sleep(Duration.ofNanos(wait));
+        }
+
+        String cookie = login(result);
+        int next = 0;
+        while (cookie != null && System.nanoTime() < end) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths.get(next++ % paths.size())))
+                    .header("Cookie", cookie)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long t0 = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                result.record(System.nanoTime() - t0, response.statusCode() == 200);
+            } catch (Exception e) {
+                result.record(System.nanoTime() - t0, false);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Envía el formulario de login y devuelve la cookie de sesión, o {@code null} si falla.
+     */
+    private String login(Result result) {
+        String form = "email=" + URLEncoder.encode(email, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            String location = response.headers().firstValue("Location").orElse("");
+            String cookie = response.headers().allValues("Set-Cookie").stream()
+                    .filter(c -> c.startsWith("WALLET_SESSION="))
+                    .map(c -> c.substring(0, c.indexOf(';') > 0 ? c.indexOf(';') : c.length()))
+                    .findFirst().orElse(null);
+            boolean ok = response.statusCode() == 302 && !location.contains("error") && cookie != null;
+            result.record(System.nanoTime() - t0, ok);
+            return ok ? cookie : null;
+        } catch (Exception e) {
+            result.record(System.nanoTime() - t0, false);
+            return null;
+        }
+    }
+
+    /**
+     * Latencias y errores acumulados por una sesión (o por todas, tras {@link #merge}).
+     */
+    public static class Result {
+
+        private long[] latencies = new long[256];
+        private int count;
+        private int errors;
+        private long elapsedNanos;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void merge(Result other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        /**
+         * @param percentile Percentil entre 0 y 100.
+         * @return Latencia en milisegundos (requiere haber ordenado las muestras).
+         */
+        private double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return latencies[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+        }
+
+        /**
+         * Ordena las muestras y resume el resultado para una tabla.
+         *
+         * @param seconds Duración de la prueba.
+         * @return Peticiones, % de errores, peticiones/s y latencias p50, p95 y p99 en ms.
+         */
+        double[] summary(double seconds) {
+            Arrays.sort(latencies, 0, count);
+            return new double[]{count, count == 0 ? 0 : errors * 100.0 / count, seconds == 0 ? 0 : count / seconds,
+                    percentileMillis(50), percentileMillis(95), percentileMillis(99)};
+        }
+
+        public void print() {
+            Arrays.sort(latencies, 0, count);
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            System.out.printf("Peticiones: %d | errores: %d (%.2f%%)%n", count, errors, count == 0 ? 0 : errors * 100.0 / count);
+            System.out.printf("Throughput: %.1f req/s%n", seconds == 0 ? 0 : count / seconds);
+            System.out.printf("Latencia ms -> p50: %.1f | p95: %.1f | p99: %.1f | max: %.1f%n",
+                    percentileMillis(50), percentileMillis(95), percentileMillis(99), percentileMillis(100));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.wallet.secure.config;
+
+import com.wallet.secure.security.ApiToken;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché de respuestas de la API con revalidación mediante ETag (GET condicional).
+ * <p>
+ * Guarda, por usuario (email del token de servicio) y URL, el último cuerpo recibido junto a su ETag.
+ * En la siguiente petición envía {@code If-None-Match}; si la API contesta 304 Not Modified
+ * se reutiliza el cuerpo guardado, de modo que la mayoría de refrescos del dashboard solo
+ * intercambian cabeceras. Los cuerpos se guardan como bytes (inmutables) y el tamaño de la
+ * caché está acotado (LRU).
+ * </p>
+ * <p>
+ * El acceso al mapa se protege con un {@link ReentrantLock} en lugar de {@code synchronized}
+ * para no fijar (pin) el hilo portador cuando la aplicación se ejecuta con hilos virtuales.
+ * </p>
+ */
+public class ConditionalGetInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Map<String, CachedResponse> cache;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param maxEntries Número máximo de respuestas guardadas (se descartan las menos usadas).
+     */
+    public ConditionalGetInterceptor(int maxEntries) {
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        String user = authorization != null && authorization.startsWith("Bearer ")
+                ? ApiToken.email(authorization.substring(7)) : null;
+        if (request.getMethod() != HttpMethod.GET || user == null) {
+            return execution.execute(request, body);
+        }
+
+        String key = user + " " + request.getHeaders().getAccept() + " " + request.getURI();
+        CachedResponse cached = get(key);
+        if (cached != null) {
+            request.getHeaders().setIfNoneMatch(cached.eTag);
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+
+        if (cached != null && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            return cached;
+        }
+
+        String eTag = response.getHeaders().getETag();
+        if (response.getStatusCode().is2xxSuccessful() && eTag != null) {
+            byte[] bytes = StreamUtils.copyToByteArray(response.getBody());
+            CachedResponse fresh = new CachedResponse(response.getStatusCode(), response.getHeaders(), bytes, eTag);
+            response.close();
+            put(key, fresh);
+            return fresh;
+        }
+
+        put(key, null);
+        return response;
+    }
+
+    private CachedResponse get(String key) {
+        lock.lock();
+        try {
+            return cache.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Guarda la respuesta para la clave indicada, o la elimina si es {@code null}.
+     */
+    private void put(String key, CachedResponse response) {
+        lock.lock();
+        try {
+            if (response == null) {
+                cache.remove(key);
+            } else {
+                cache.put(key, response);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Respuesta guardada en memoria que puede reproducirse tantas veces como sea necesario.
+     */
+    private static class CachedResponse implements ClientHttpResponse {
+
+        private final HttpStatusCode status;
+        private final HttpHeaders headers;
+        private final byte[] body;
+        private final String eTag;
+
+        CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, String eTag) {
+            this.status = status;
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+            this.eTag = eTag;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() { return status; }
+
+        @Override
+        public String getStatusText() { return ""; }
+
+        @Override
+        public HttpHeaders getHeaders() { return headers; }
+
+        @Override
+        public InputStream getBody() { return new ByteArrayInputStream(body); }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,102 @@
+package com.wallet.secure.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.secure.security.SessionCookieService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.servlet.FlashMap;
+import org.springframework.web.servlet.support.AbstractFlashMapManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Guarda los atributos flash ({@code RedirectAttributes.addFlashAttribute}) en una cookie firmada en
+ * lugar de en la sesión, de modo que la petición que sigue a la redirección puede atenderla otra
+ * instancia de wallet-web.
+ * <p>
+ * Los atributos se guardan como JSON: deben ser valores simples (textos, números, listas).
+ * Se registra con el nombre {@code flashMapManager} en {@link MvcConfig}.
+ * </p>
+ */
+public class CookieFlashMapManager extends AbstractFlashMapManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(CookieFlashMapManager.class);
+
+    static final String COOKIE_NAME = "WALLET_FLASH";
+
+    private static final TypeReference<List<Entry>> ENTRIES = new TypeReference<>() {};
+
+    private final SessionCookieService cookies;
+    private final ObjectMapper objectMapper;
+
+    public CookieFlashMapManager(SessionCookieService cookies, ObjectMapper objectMapper) {
+        this.cookies = cookies;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected List<FlashMap> retrieveFlashMaps(HttpServletRequest request) {
+        String json = cookies.unsign(SessionCookieService.cookie(request, COOKIE_NAME));
+        if (json == null) {
+            return null;
+        }
+        try {
+            List<FlashMap> flashMaps = new ArrayList<>();
+            for (Entry entry : objectMapper.readValue(Base64.getUrlDecoder().decode(json), ENTRIES)) {
+                FlashMap flashMap = new FlashMap();
+                flashMap.setTargetRequestPath(entry.path());
+                flashMap.addTargetRequestParams(new LinkedMultiValueMap<>(entry.params()));
+                flashMap.setExpirationTime(entry.expires());
+                flashMap.putAll(entry.attributes());
+                flashMaps.add(flashMap);
+            }
+            return flashMaps;
+        } catch (Exception e) {
+            logger.debug("Cookie de mensajes flash ilegible: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    protected void updateFlashMaps(List<FlashMap> flashMaps, HttpServletRequest request, HttpServletResponse response) {
+        if (flashMaps.isEmpty()) {
+            if (SessionCookieService.cookie(request, COOKIE_NAME) != null) {
+                cookies.addCookie(response, COOKIE_NAME, "", Duration.ZERO);
+            }
+            return;
+        }
+        List<Entry> entries = flashMaps.stream()
+                .map(flashMap -> new Entry(flashMap.getTargetRequestPath(), flashMap.getTargetRequestParams(),
+                        flashMap.getExpirationTime(), flashMap))
+                .toList();
+        try {
+            String json = Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(entries));
+            cookies.addCookie(response, COOKIE_NAME, cookies.sign(json), Duration.ofSeconds(getFlashMapTimeout()));
+        } catch (Exception e) {
+            logger.warn("No se pudieron guardar los mensajes flash: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sin exclusión mutua: la clase base sincroniza con un cerrojo estático, compartido por todas las
+     * peticiones, porque supone un almacén común. Aquí cada petición solo lee y escribe su propia cookie.
+     */
+    @Override
+    protected Object getFlashMapsMutex(HttpServletRequest request) {
+        return null;
+    }
+
+    /**
+     * Forma serializada de un {@link FlashMap}.
+     */
+    record Entry(String path, Map<String, List<String>> params, long expires, Map<String, Object> attributes) {
+    }
+}
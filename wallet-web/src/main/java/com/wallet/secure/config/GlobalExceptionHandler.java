@@ -50,10 +50,6 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ModelAndView handleException(Exception exc) throws Exception {
-        // Validación DEBUG: Imprimir la excepción real
-        System.out.println("ERROR RUNTIME: " + exc.getClass().getName());
-        exc.printStackTrace();
-
         // Si es un error de seguridad (AccessDenied), lo relanzamos para que Spring Security lo maneje
         if (exc instanceof org.springframework.security.access.AccessDeniedException) {
             throw exc;
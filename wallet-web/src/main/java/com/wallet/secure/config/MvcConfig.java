@@ -1,7 +1,12 @@
 package com.wallet.secure.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.secure.security.SessionCookieService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMapManager;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -48,8 +53,22 @@ public class MvcConfig implements WebMvcConfigurer {
      */
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        // Ejecutar sincronización de roles en todas las peticiones excepto recursos estáticos
+        // Ejecutar sincronización de roles en todas las peticiones excepto recursos estáticos y el
+        // autocompletado (una petición por pulsación; el rol ya se sincronizó al cargar el formulario)
         registry.addInterceptor(roleSyncInterceptor)
-                .excludePathPatterns("/css/**", "/js/**", "/images/**", "/uploads/**", "/webjars/**", "/error");
+                .excludePathPatterns("/css/**", "/js/**", "/images/**", "/uploads/**", "/webjars/**", "/error",
+                        "/insurances/suggest");
+    }
+
+    /**
+     * Mensajes flash en cookie firmada: la aplicación no usa {@code HttpSession}.
+     *
+     * @param sessionCookies Firma de las cookies.
+     * @param objectMapper Serializador JSON de Spring Boot.
+     * @return Gestor de atributos flash que usará el DispatcherServlet.
+     */
+    @Bean(name = DispatcherServlet.FLASH_MAP_MANAGER_BEAN_NAME)
+    public FlashMapManager flashMapManager(SessionCookieService sessionCookies, ObjectMapper objectMapper) {
+        return new CookieFlashMapManager(sessionCookies, objectMapper);
     }
 }
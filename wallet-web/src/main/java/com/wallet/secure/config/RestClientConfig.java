@@ -0,0 +1,85 @@
+package com.wallet.secure.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Configuración del cliente HTTP utilizado para comunicarse con la API (wallet-api).
+ * <p>
+ * Centraliza la creación del {@link RestTemplate} para que todas las llamadas de
+ * {@link com.wallet.secure.service.ApiClientService} compartan los mismos interceptores.
+ * </p>
+ */
+@Configuration
+public class RestClientConfig {
+
+    /**
+     * Codec del tráfico interno con la API: {@code json} (por defecto) o {@code smile} (binario).
+     */
+    @Value("${app.api.codec:json}")
+    private String apiCodec;
+
+    /**
+     * Número máximo de respuestas guardadas para revalidación con ETag (0 desactiva la caché).
+     */
+    @Value("${app.api.cache.max-entries:1000}")
+    private int cacheMaxEntries;
+
+    /**
+     * Crea el RestTemplate de la API con soporte de respuestas comprimidas (gzip),
+     * caché de GET condicionales (ETag / 304) y reenvío del identificador de petición
+     * ({@code X-Request-Id}) para correlacionar los logs de ambas aplicaciones.
+     * <p>
+     * Las llamadas hechas al atender una petición del navegador llevan su IP en
+     * {@code X-Forwarded-For}: la API limita los intentos de login y registro por IP del cliente,
+     * no por la de wallet-web. La cabecera se sustituye, no se amplía, y su valor es la IP que ya
+     * resolvió Tomcat ({@code server.tomcat.remoteip}): el extremo del socket o, detrás de un proxy
+     * de confianza, su último salto no fiable, nunca el primer valor que mande el navegador.
+     * </p>
+     * <p>
+     * Si {@code app.api.codec=smile}, el conversor Smile se coloca el primero para que
+     * la cabecera {@code Accept} lo anteponga a JSON y la API responda en binario.
+     * </p>
+     * <p>
+     * Al partir del {@link RestTemplateBuilder} de Spring Boot, cada llamada abre un span de
+     * cliente y envía el contexto de la traza en {@code traceparent}.
+     * </p>
+     *
+     * @param builder Constructor de RestTemplate autoconfigurado por Spring Boot.
+     * @param objectMapperBuilder Configuración de Jackson de Spring Boot (prototipo).
+     * @return RestTemplate listo para usar.
+     */
+    @Bean
+    public RestTemplate apiRestTemplate(RestTemplateBuilder builder, Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        RestTemplateBuilder configured = builder.additionalInterceptors(new GzipClientInterceptor(), (request, body, execution) -> {
+            String requestId = MDC.get("requestId");
+            if (requestId != null) {
+                request.getHeaders().set(RequestIdFilter.HEADER, requestId);
+            }
+            if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+                request.getHeaders().set("X-Forwarded-For", attributes.getRequest().getRemoteAddr());
+            }
+            return execution.execute(request, body);
+        });
+        if (cacheMaxEntries > 0) {
+            // Va detrás del de gzip: guarda el cuerpo tal y como llega (comprimido) y lo reproduce con sus cabeceras
+            configured = configured.additionalInterceptors(new ConditionalGetInterceptor(cacheMaxEntries));
+        }
+        RestTemplate restTemplate = configured.build();
+
+        if ("smile".equalsIgnoreCase(apiCodec)) {
+            restTemplate.getMessageConverters().add(0, new MappingJackson2SmileHttpMessageConverter(
+                    objectMapperBuilder.factory(new SmileFactory()).build()));
+        }
+        return restTemplate;
+    }
+}
@@ -50,8 +50,18 @@ public class RoleSyncInterceptor implements HandlerInterceptor {
                     if (!currentRole.equals(freshRole)) {
                         logger.info("Sincronizando rol de usuario: {} de {} a {}", email, currentRole, freshRole);
 
-                        // Si el principal es un UserDetails estándar de Spring Security
-                        if (auth.getPrincipal() instanceof UserDetails existingDetails) {
+                        // Principal del login contra la API: se conserva (lleva el token de servicio)
+                        // y se renueva el token para que la API vea también el rol nuevo
+                        if (auth.getPrincipal() instanceof User sessionUser) {
+                            sessionUser.setRole(freshRole);
+                            apiClientService.refreshToken(sessionUser);
+                            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                                    sessionUser,
+                                    auth.getCredentials(),
+                                    Collections.singletonList(new SimpleGrantedAuthority(freshRole))
+                            ));
+                        } else if (auth.getPrincipal() instanceof UserDetails existingDetails) {
+                            // Principal estándar de Spring Security
                             UserDetails newDetails = new org.springframework.security.core.userdetails.User(
                                     existingDetails.getUsername(),
                                     existingDetails.getPassword(),
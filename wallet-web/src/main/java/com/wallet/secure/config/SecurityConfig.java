@@ -1,38 +1,70 @@
 package com.wallet.secure.config;
 
+import com.wallet.secure.security.SessionCookieService;
+import com.wallet.secure.security.SignedCookieSecurityContextRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+
+import java.util.Map;
 
 /**
  * Clase de configuración de seguridad de Spring Security.
  * Define las reglas de autorización, formulario de login y logout.
+ * <p>
+ * Sin sesión en el servidor: el login se guarda en una cookie firmada
+ * ({@link com.wallet.secure.security.SignedCookieSecurityContextRepository}), así que cualquier
+ * instancia puede atender cualquier petición.
+ * </p>
  */
 @Configuration
 @EnableWebSecurity
 @org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity
 public class SecurityConfig {
 
+    /**
+     * Puerto de Actuator ({@code management.server.port}); -1 si comparte el de la aplicación.
+     */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     /**
      * Define la cadena de filtros de seguridad.
      *
      * @param http Configuración de seguridad HTTP.
      * @param authProvider Proveedor de autenticación personalizado.
+     * @param contextRepository Almacén del login en la cookie de sesión firmada.
      * @return Cadena de filtros construida.
      * @throws Exception En caso de error de configuración.
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, com.wallet.secure.security.ApiAuthenticationProvider authProvider) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, com.wallet.secure.security.ApiAuthenticationProvider authProvider,
+                                           SignedCookieSecurityContextRepository contextRepository) throws Exception {
         http
             .authenticationProvider(authProvider)
+            .securityContext(context -> context.securityContextRepository(contextRepository))
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // Tras el login siempre se va a "/": no hace falta recordar la página pedida (iría en la sesión)
+            .requestCache(cache -> cache.requestCache(new NullRequestCache()))
             .authorizeHttpRequests(auth -> auth
                 // Rutas Públicas y Recursos Estáticos (IMPRESCINDIBLE permitir uploads e images)
                 .requestMatchers("/login", "/register/**", "/verify/**", "/forgot-password/**", "/reset-password/**", "/role-approval/**", "/css/**", "/js/**", "/images/**", "/uploads/**", "/webjars/**").permitAll()
                 
+                // Sondas de salud públicas. Prometheus solo por el puerto de gestión, que no se publica;
+                // el resto de Actuator solo para ADMIN
+                .requestMatchers("/actuator/health/**").permitAll()
+                .requestMatchers(request -> request.getLocalPort() == managementPort
+                        && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+
                 // 1. ZONA ADMIN
-                .requestMatchers("/admin/**").hasAnyRole("ADMIN")
+                .requestMatchers("/admin/**", "/actuator/**").hasAnyRole("ADMIN")
 
                 // 2. ZONA OPERATIVA
                 .requestMatchers("/new", "/save", "/edit/**", "/delete/**", "/support/**", "/insurances/**", "/profile/**")
@@ -45,11 +77,13 @@ public class SecurityConfig {
                 .loginPage("/login")
                 .defaultSuccessUrl("/", true) // Forzar ir al inicio tras login
                 .usernameParameter("email")
+                .failureHandler(loginFailureHandler())
                 .permitAll()
             )
             .logout(logout -> logout
                 .logoutUrl("/logout")
                 .logoutSuccessUrl("/login?logout")
+                .deleteCookies(SessionCookieService.COOKIE_NAME)
                 .permitAll()
             )
             // CRÍTICO: Desactivar CSRF temporalmente para que funcionen los formularios POST entre servidores
@@ -57,4 +91,16 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    /**
+     * Redirige los fallos de login: {@code /login?busy} si la API no pudo comprobar la contraseña
+     * por saturación o por el límite de intentos (para no decir que es incorrecta) y {@code /login?error}
+     * en el resto de casos.
+     */
+    private ExceptionMappingAuthenticationFailureHandler loginFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error");
+        handler.setExceptionMappings(Map.of(AuthenticationServiceException.class.getName(), "/login?busy"));
+        return handler;
+    }
 }
\ No newline at end of file
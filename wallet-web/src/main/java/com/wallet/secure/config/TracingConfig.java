@@ -0,0 +1,49 @@
+package com.wallet.secure.config;
+
+import com.wallet.secure.tracing.FileSpanExporter;
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Configuración de las trazas distribuidas (Micrometer Tracing sobre OpenTelemetry).
+ * <p>
+ * Cada petición del navegador abre una traza con un span por endpoint, y cada llamada de
+ * {@link com.wallet.secure.service.ApiClientService} un span de cliente que viaja a wallet-api
+ * en la cabecera {@code traceparent}. Así, el render del panel muestra en una sola traza las
+ * llamadas a la API y, dentro de ellas, los repositorios y sentencias SQL.
+ * </p>
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * No traza las peticiones a Actuator (sondas y Prometheus).
+     *
+     * @return Predicado de observaciones.
+     */
+    @Bean
+    public ObservationPredicate actuatorObservationPredicate() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                && request.getCarrier().getRequestURI().startsWith("/actuator"));
+    }
+
+    /**
+     * Exportador a fichero, activo solo si se define {@code app.tracing.file}.
+     *
+     * @param file Ruta del fichero de spans.
+     * @return Exportador que Spring Boot añade al procesador por lotes de OpenTelemetry.
+     * @throws IOException Si no se puede abrir el fichero.
+     */
+    @Bean
+    @ConditionalOnProperty("app.tracing.file")
+    public FileSpanExporter fileSpanExporter(@Value("${app.tracing.file}") Path file) throws IOException {
+        return new FileSpanExporter(file);
+    }
+}
@@ -148,9 +148,7 @@ public class AuthController {
             userService.resetPassword(token, password);
             return "redirect:/login?resetSuccess";
         } catch (Exception e) {
-            // IMPRIMIR ERROR EN CONSOLA PARA DIAGNÓSTICO
-            System.err.println("ERROR CAMBIANDO PASSWORD: " + e.getMessage());
-            e.printStackTrace(); // Ver la traza completa
+            logger.warn("Error cambiando la contraseña", e);
             
             model.addAttribute("error", "No se pudo cambiar la contraseña: " + e.getMessage());
             return "login"; 
@@ -89,18 +89,35 @@ public class InsuranceController {
         return "redirect:/";
     }
 
+    /**
+     * Sugerencias para los campos de compañía y categoría del formulario (autocompletado).
+     *
+     * @param field Campo: {@code company} o {@code category}.
+     * @param prefix Texto escrito por el usuario.
+     * @return Valores sugeridos en JSON; el navegador puede reutilizarlos durante un minuto.
+     */
+    @GetMapping("/insurances/suggest")
+    public org.springframework.http.ResponseEntity<List<String>> suggest(@RequestParam String field,
+                                                                        @RequestParam(defaultValue = "") String prefix) {
+        return org.springframework.http.ResponseEntity.ok()
+                .cacheControl(org.springframework.http.CacheControl.maxAge(java.time.Duration.ofMinutes(1)).cachePrivate())
+                .body(apiClientService.suggestInsuranceValues(field, prefix));
+    }
+
     /**
      * Procesa el guardado de un seguro (creación o actualización).
      *
      * @param insurance Objeto Insurance con los datos del formulario.
      * @param result Resultado de la validación.
      * @param imageFile Archivo de imagen opcional.
+     * @param model Modelo para mostrar el error de conflicto en el formulario.
      * @return Redirección a inicio o vuelta al formulario si hay errores.
      */
     @PostMapping("/save")
     public String saveInsurance(@jakarta.validation.Valid @ModelAttribute Insurance insurance,
                                 BindingResult result,
-                                @RequestParam(value = "imageFile", required = false) MultipartFile imageFile) {
+                                @RequestParam(value = "imageFile", required = false) MultipartFile imageFile,
+                                Model model) {
         
         if (result.hasErrors()) {
             return "form";
@@ -118,10 +135,46 @@ public class InsuranceController {
              }
         }
         
-        apiClientService.saveInsurance(insurance);
+        try {
+            apiClientService.saveInsurance(insurance);
+        } catch (com.wallet.secure.service.ApiConflictException e) {
+            model.addAttribute("error", e.getMessage());
+            return "form";
+        }
         return "redirect:/";
     }
 
+    /**
+     * Muestra el formulario de importación CSV de seguros.
+     *
+     * @return Vista de importación (import.html).
+     */
+    @GetMapping("/insurances/import")
+    public String importForm() {
+        return "import";
+    }
+
+    /**
+     * Importa los seguros de un fichero CSV y muestra el informe (filas importadas y errores).
+     *
+     * @param file Fichero CSV.
+     * @param model Modelo para la vista.
+     * @return Vista de importación con el informe o el error.
+     */
+    @PostMapping("/insurances/import")
+    public String importInsurances(@RequestParam("file") MultipartFile file, Model model) {
+        if (file.isEmpty()) {
+            model.addAttribute("error", "Selecciona un fichero CSV");
+            return "import";
+        }
+        try {
+            model.addAttribute("report", apiClientService.importInsurances(file));
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("error", e.getMessage());
+        }
+        return "import";
+    }
+
     /**
      * Elimina un seguro.
      *
@@ -93,8 +93,12 @@ public class SupportController {
      */
     @GetMapping("/admin/tickets/close/{id}")
     public String closeTicket(@PathVariable Long id, RedirectAttributes redirectAttributes) {
-        apiClientService.closeTicket(id);
-        redirectAttributes.addFlashAttribute("success", "Ticket cerrado correctamente.");
+        try {
+            apiClientService.closeTicket(id);
+            redirectAttributes.addFlashAttribute("success", "Ticket cerrado correctamente.");
+        } catch (com.wallet.secure.service.ApiConflictException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
         return "redirect:/support/admin";
     }
 }
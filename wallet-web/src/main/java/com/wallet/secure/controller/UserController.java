@@ -1,6 +1,7 @@
 package com.wallet.secure.controller;
 
 import com.wallet.secure.dto.User;
+import com.wallet.secure.security.SessionCookieService;
 import com.wallet.secure.service.ApiClientService;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,9 +21,11 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class UserController {
 
     private final ApiClientService apiClientService;
+    private final SessionCookieService sessionCookies;
 
-    public UserController(ApiClientService apiClientService) {
+    public UserController(ApiClientService apiClientService, SessionCookieService sessionCookies) {
         this.apiClientService = apiClientService;
+        this.sessionCookies = sessionCookies;
     }
 
     /**
@@ -76,12 +79,18 @@ public class UserController {
 
         if (currentUser != null && currentUser.getId().equals(userForm.getId())) {
             // We pass the updated form data to API. API should handle selective updates or we merge here.
+            currentUser.setVersion(userForm.getVersion()); // versión leída al abrir el formulario
             currentUser.setName(userForm.getName());
             currentUser.setMobile(userForm.getMobile());
             if (userForm.getPassword() != null && !userForm.getPassword().isEmpty()) {
                 currentUser.setPassword(userForm.getPassword()); // Sending plain text, API hashes (if updated logic is there)
             }
-            apiClientService.updateUser(currentUser);
+            try {
+                apiClientService.updateUser(currentUser);
+            } catch (com.wallet.secure.service.ApiConflictException e) {
+                model.addAttribute("error", e.getMessage());
+                return "profile";
+            }
         }
         return "redirect:/profile?success";
     }
@@ -108,6 +117,20 @@ public class UserController {
         return "redirect:/profile";
     }
 
+    /**
+     * Descarga todos los datos del usuario actual, reenviados desde la API sin guardarlos en memoria.
+     *
+     * @param format {@code csv} (un ZIP con un CSV por conjunto) o {@code ndjson}.
+     * @param dataset Conjunto concreto (opcional).
+     * @param response Respuesta HTTP en la que se escribe la descarga.
+     */
+    @GetMapping("/profile/export")
+    public void exportData(@RequestParam(value = "format", defaultValue = "csv") String format,
+                           @RequestParam(value = "dataset", required = false) String dataset,
+                           jakarta.servlet.http.HttpServletResponse response) {
+        apiClientService.exportData(format, dataset, response);
+    }
+
     // @PostMapping("/profile/delete") - Fix compilation by using RequestParam correctly
     /**
      * Elimina la cuenta del usuario actual tras confirmación.
@@ -134,6 +157,7 @@ public class UserController {
             
             org.springframework.security.core.context.SecurityContextHolder.clearContext();
             new org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler().logout(request, response, null);
+            sessionCookies.clear(response);
         }
 
         return "redirect:/login?deleted";
@@ -0,0 +1,48 @@
+package com.wallet.secure.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación CSV de seguros.
+ * Indica cuántas filas se leyeron, cuántas se importaron y los errores de las rechazadas.
+ */
+public class ImportReport {
+
+    private long rows;
+    private long imported;
+    private long rejected;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    /**
+     * Errores de una fila del fichero (la cabecera es la fila 1).
+     */
+    public static class RowError {
+
+        private long row;
+        private List<String> messages = new ArrayList<>();
+
+        public long getRow() { return row; }
+        public void setRow(long row) { this.row = row; }
+
+        public List<String> getMessages() { return messages; }
+        public void setMessages(List<String> messages) { this.messages = messages; }
+    }
+
+    // Getters and Setters
+    public long getRows() { return rows; }
+    public void setRows(long rows) { this.rows = rows; }
+
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+}
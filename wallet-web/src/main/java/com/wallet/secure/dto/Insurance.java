@@ -19,6 +19,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 public class Insurance {
 
     private Long id;
+    private Long version; // Bloqueo optimista: se reenvía a la API al actualizar
 
     @NotBlank(message = "El título es obligatorio")
     private String title;
@@ -94,6 +95,9 @@ public class Insurance {
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
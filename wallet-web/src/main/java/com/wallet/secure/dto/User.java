@@ -17,16 +17,23 @@ import java.util.Collections;
 public class User implements UserDetails {
     
     private Long id;
+    private Long version; // Bloqueo optimista: se reenvía a la API al actualizar
     private String name;
     private String email;
     private String password;
     private String mobile;
     private String role;
     private boolean enabled;
+
+    /** Token de servicio firmado por la API para las llamadas de este usuario (no se envía en los cuerpos JSON). */
+    @com.fasterxml.jackson.annotation.JsonIgnore
+    private String apiToken;
     
     // --- Getters y Setters normales ---
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     public String getEmail() { return email; }
@@ -37,6 +44,8 @@ public class User implements UserDetails {
     public String getRole() { return role; }
     public void setRole(String role) { this.role = role; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getApiToken() { return apiToken; }
+    public void setApiToken(String apiToken) { this.apiToken = apiToken; }
 
     // --- MÉTODOS OBLIGATORIOS DE SPRING SECURITY (UserDetails) ---
     
@@ -50,10 +50,10 @@ public class ApiAuthenticationProvider implements AuthenticationProvider {
             role = "ROLE_" + role;
         }
 
-        // 3. Crear sesión válida en la Web
+        // 3. Crear sesión válida en la Web (sin la contraseña: la sesión va en una cookie)
         return new UsernamePasswordAuthenticationToken(
-                user, // Principal (UserDetails o User DTO)
-                password, // Credentials
+                user, // Principal (User DTO con el token de servicio)
+                null, // Credentials
                 Collections.singleton(new SimpleGrantedAuthority(role)) // Authority corregida
         );
     }
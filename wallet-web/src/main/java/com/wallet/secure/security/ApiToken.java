@@ -0,0 +1,90 @@
+package com.wallet.secure.security;
+
+import com.wallet.secure.dto.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Lectura de los tokens de servicio que emite wallet-api en el login.
+ * <p>
+ * El token es {@code base64url(id|rol|emitido|caduca|email).firma}. La web no conoce la clave,
+ * así que solo lee la parte de datos para decidir cuándo renovarlo, para identificar al usuario
+ * en la caché de respuestas y para reconstruirlo desde la cookie de sesión (que firma la propia web,
+ * {@link SessionCookieService}); quien comprueba la firma del token es la API.
+ * </p>
+ */
+public final class ApiToken {
+
+    private ApiToken() {
+    }
+
+    /**
+     * @param token Token de servicio.
+     * @return Email del usuario, o null si el token no se puede leer.
+     */
+    public static String email(String token) {
+        String[] parts = payload(token);
+        return parts != null ? parts[4] : null;
+    }
+
+    /**
+     * Usuario de la sesión a partir de los datos del token (sin el token).
+     *
+     * @param token Token de servicio.
+     * @return Usuario con id, email, rol y activo, o null si el token no se puede leer.
+     */
+    public static User user(String token) {
+        String[] parts = payload(token);
+        if (parts == null) {
+            return null;
+        }
+        try {
+            User user = new User();
+            user.setId(Long.valueOf(parts[0]));
+            user.setRole(parts[1]);
+            user.setEmail(parts[4]);
+            user.setEnabled(true);
+            return user;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Indica si el token ya ha consumido la mitad de su vida (o no se puede leer), de modo que
+     * se renueva con margen y nunca llega caducado a la API.
+     *
+     * @param token Token de servicio.
+     * @param nowSeconds Instante actual en segundos de época.
+     * @return true si conviene renovarlo.
+     */
+    public static boolean shouldRefresh(String token, long nowSeconds) {
+        String[] parts = payload(token);
+        if (parts == null) {
+            return true;
+        }
+        try {
+            long issuedAt = Long.parseLong(parts[2]);
+            long expiresAt = Long.parseLong(parts[3]);
+            return nowSeconds >= issuedAt + (expiresAt - issuedAt) / 2;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static String[] payload(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(dot > 0 ? token.substring(0, dot) : token),
+                    StandardCharsets.UTF_8);
+            String[] parts = payload.split("\\|", 5);
+            return parts.length == 5 ? parts : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.wallet.secure.security;
 
 import com.wallet.secure.dto.User;
 import com.wallet.secure.service.ApiClientService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,6 +19,8 @@ import java.util.Collections;
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
+
     private final ApiClientService apiClientService;
 
     public CustomUserDetailsService(ApiClientService apiClientService) {
@@ -34,12 +38,12 @@ public class CustomUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = apiClientService.getUserByEmail(email); // Requires API to expose this
         if (user == null) {
-            System.err.println("LOGIN ERROR: Usuario no encontrado via API: " + email);
+            logger.warn("Usuario no encontrado en la API: {}", email);
             throw new UsernameNotFoundException("User not found via API: " + email);
         }
 
-        System.out.println("INFO: Intento de inicio de sesión: " + email + " | Rol: " + user.getRole());
-        
+        logger.info("Intento de inicio de sesión: {} ({})", email, user.getRole());
+
         String roleName = user.getRole();
         if (roleName != null && !roleName.startsWith("ROLE_")) {
              roleName = "ROLE_" + roleName;
@@ -47,7 +51,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
-                user.getPassword(), // Hashed password from API
+                user.getPassword() != null ? user.getPassword() : "", // La API ya no expone el hash
                 user.isEnabled(),
                 true,
                 true,
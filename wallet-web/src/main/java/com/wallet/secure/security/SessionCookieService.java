@@ -0,0 +1,203 @@
+package com.wallet.secure.security;
+
+import com.wallet.secure.dto.User;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Sesión del usuario en una cookie firmada, en lugar de en la memoria del servidor.
+ * <p>
+ * La cookie lleva la caducidad de la sesión y el token de servicio de la API (que ya contiene id,
+ * rol y email), firmados con HMAC-SHA256 y la clave {@code app.session.secret}: con la misma clave,
+ * cualquier instancia de wallet-web atiende a cualquier usuario sin compartir nada más. La caducidad
+ * es por inactividad ({@code app.session.timeout}) y se alarga cada vez que se renueva el token.
+ * </p>
+ * <p>
+ * La misma firma protege la cookie de mensajes flash ({@link #sign} / {@link #unsign}).
+ * </p>
+ */
+@Component
+public class SessionCookieService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionCookieService.class);
+
+    public static final String COOKIE_NAME = "WALLET_SESSION";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> mac;
+    private final Duration timeout;
+    private final boolean secure;
+
+    /**
+     * @param secret Clave HMAC, igual en todas las instancias (vacía = aleatoria, solo vale para una).
+     * @param timeout Caducidad por inactividad.
+     * @param secure true para marcar las cookies como {@code Secure} (solo HTTPS).
+     */
+    public SessionCookieService(@Value("${app.session.secret:}") String secret,
+                                @Value("${app.session.timeout:30m}") Duration timeout,
+                                @Value("${app.session.secure-cookie:false}") boolean secure) {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            logger.warn("app.session.secret no configurado: las sesiones solo valen en esta instancia y hasta que se reinicie");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(key, "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 no disponible", e);
+            }
+        });
+        this.timeout = timeout;
+        this.secure = secure;
+    }
+
+    /**
+     * Reconstruye el usuario de la cookie de sesión.
+     *
+     * @param request Petición del navegador.
+     * @return Usuario (id, email, rol y token de la API), o null si no hay sesión válida.
+     */
+    public User read(HttpServletRequest request) {
+        String value = unsign(cookie(request, COOKIE_NAME));
+        int bar = value != null ? value.indexOf('|') : -1;
+        if (bar <= 0) {
+            return null;
+        }
+        try {
+            if (System.currentTimeMillis() / 1000 >= Long.parseLong(value.substring(0, bar))) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String token = value.substring(bar + 1);
+        User user = ApiToken.user(token);
+        if (user != null) {
+            user.setApiToken(token);
+        }
+        return user;
+    }
+
+    /**
+     * Escribe (o reescribe) la cookie de sesión del usuario.
+     *
+     * @param user Usuario con su token de servicio.
+     * @param response Respuesta al navegador.
+     */
+    public void write(User user, HttpServletResponse response) {
+        long expiresAt = System.currentTimeMillis() / 1000 + timeout.toSeconds();
+        addCookie(response, COOKIE_NAME, sign(expiresAt + "|" + user.getApiToken()), timeout);
+    }
+
+    /**
+     * Reescribe la cookie de la petición en curso, si la respuesta aún admite cabeceras.
+     * Se usa cuando el token se renueva en mitad de una petición.
+     *
+     * @param user Usuario de la sesión.
+     */
+    public void writeCurrent(User user) {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletResponse response = attributes.getResponse();
+            if (response != null && !response.isCommitted()) {
+                write(user, response);
+            }
+        }
+    }
+
+    /**
+     * Borra la cookie de sesión.
+     *
+     * @param response Respuesta al navegador.
+     */
+    public void clear(HttpServletResponse response) {
+        addCookie(response, COOKIE_NAME, "", Duration.ZERO);
+    }
+
+    /**
+     * @param value Texto a proteger (solo caracteres válidos en una cookie).
+     * @return {@code valor.firma}.
+     */
+    public String sign(String value) {
+        return value + "." + ENCODER.encodeToString(mac.get().doFinal(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param signed Texto firmado con {@link #sign}.
+     * @return El texto original, o null si falta o la firma no coincide.
+     */
+    public String unsign(String signed) {
+        int dot = signed != null ? signed.lastIndexOf('.') : -1;
+        if (dot <= 0) {
+            return null;
+        }
+        String value = signed.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(signed.substring(dot + 1));
+            return MessageDigest.isEqual(mac.get().doFinal(value.getBytes(StandardCharsets.UTF_8)), signature) ? value : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param request Petición del navegador.
+     * @param name Nombre de la cookie.
+     * @return Su valor o null.
+     */
+    public static String cookie(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (name.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Añade una cookie {@code HttpOnly} y {@code SameSite=Lax} para toda la aplicación.
+     *
+     * @param response Respuesta al navegador.
+     * @param name Nombre.
+     * @param value Valor.
+     * @param maxAge Vida de la cookie (cero la borra).
+     */
+    public void addCookie(HttpServletResponse response, String name, String value, Duration maxAge) {
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(name, value)
+                .path("/")
+                .httpOnly(true)
+                .secure(secure)
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build().toString());
+    }
+}
@@ -0,0 +1,78 @@
+package com.wallet.secure.security;
+
+import com.wallet.secure.dto.User;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Guarda el contexto de seguridad en la cookie de {@link SessionCookieService} en lugar de en la
+ * {@code HttpSession}.
+ * <p>
+ * Spring Security lo consulta al empezar cada petición y lo usa para guardar el login. El principal
+ * es un {@link User} reconstruido con los datos del token de la API; la contraseña no se guarda.
+ * </p>
+ */
+@Component
+public class SignedCookieSecurityContextRepository implements SecurityContextRepository {
+
+    private final SessionCookieService sessionCookies;
+
+    public SignedCookieSecurityContextRepository(SessionCookieService sessionCookies) {
+        this.sessionCookies = sessionCookies;
+    }
+
+    @Override
+    public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+        User user = sessionCookies.read(request);
+        return new DeferredSecurityContext() {
+            @Override
+            public SecurityContext get() {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                if (user != null) {
+                    context.setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+                }
+                return context;
+            }
+
+            @Override
+            public boolean isGenerated() {
+                return user == null;
+            }
+        };
+    }
+
+    /**
+     * @deprecated Spring Security usa {@link #loadDeferredContext(HttpServletRequest)}.
+     */
+    @Override
+    @Deprecated
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        return loadDeferredContext(requestResponseHolder.getRequest()).get();
+    }
+
+    /**
+     * Escribe la cookie tras el login o la borra al cerrar sesión (contexto vacío).
+     */
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user && user.getApiToken() != null) {
+            sessionCookies.write(user, response);
+        } else if (containsContext(request)) {
+            sessionCookies.clear(response);
+        }
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return SessionCookieService.cookie(request, SessionCookieService.COOKIE_NAME) != null;
+    }
+}
@@ -1,14 +1,16 @@
 package com.wallet.secure.service;
 
+import com.wallet.secure.dto.ImportReport;
 import com.wallet.secure.dto.Insurance;
 import com.wallet.secure.dto.Ticket;
 import com.wallet.secure.dto.User;
+import com.wallet.secure.security.ApiToken;
+import com.wallet.secure.security.SessionCookieService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
@@ -26,40 +28,104 @@ import java.util.Map;
 @Service
 public class ApiClientService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    
+    private final RestTemplate restTemplate;
+
+    /** Cookie de sesión, que se reescribe cuando cambia el token. */
+    private final SessionCookieService sessionCookies;
+
+    /** Tipo de contenido de los cuerpos enviados a la API (JSON o Smile según app.api.codec). */
+    private final MediaType apiMediaType;
+
     @org.springframework.beans.factory.annotation.Value("${app.api.url:http://localhost:8081/api}")
     private String API_URL;
 
     private static final Logger logger = LoggerFactory.getLogger(ApiClientService.class);
 
+    /** Cabecera de respuesta con la que la API entrega el token de servicio. */
+    private static final String TOKEN_HEADER = "X-Auth-Token";
+
+    public ApiClientService(RestTemplate restTemplate, SessionCookieService sessionCookies,
+                            @org.springframework.beans.factory.annotation.Value("${app.api.codec:json}") String apiCodec) {
+        this.restTemplate = restTemplate;
+        this.sessionCookies = sessionCookies;
+        this.apiMediaType = "smile".equalsIgnoreCase(apiCodec)
+                ? MediaType.valueOf("application/x-jackson-smile")
+                : MediaType.APPLICATION_JSON;
+    }
+
     /**
-     * Genera los encabezados HTTP incluyendo el Token de identificación (X-Auth-User).
-     * Este encabezado es necesario para que la API identifique al usuario que realiza la petición.
+     * Genera los encabezados HTTP con el token de servicio del usuario autenticado
+     * ({@code Authorization: Bearer ...}), que la API verifica sin consultar la base de datos.
+     * Si el token ha consumido la mitad de su vida, se renueva antes de usarlo.
      *
-     * @return HttpHeaders configurados con el Content-Type y el usuario autenticado.
+     * @return HttpHeaders configurados con el Content-Type y el token del usuario.
      */
     private HttpHeaders getHeaders() {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        
-        if (SecurityContextHolder.getContext().getAuthentication() != null) {
-            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            
-            // Lógica para extraer el email independientemente del tipo de objeto principal
-            if (principal instanceof UserDetails) {
-                UserDetails userDetails = (UserDetails) principal;
-                headers.set("X-Auth-User", userDetails.getUsername());
-            } else if (principal instanceof User) {
-                User u = (User) principal;
-                headers.set("X-Auth-User", u.getEmail());
-            } else if (principal instanceof String) {
-                headers.set("X-Auth-User", (String) principal);
+        headers.setContentType(apiMediaType);
+
+        if (SecurityContextHolder.getContext().getAuthentication() != null
+                && SecurityContextHolder.getContext().getAuthentication().getPrincipal() instanceof User u) {
+            String token = currentToken(u);
+            if (token != null) {
+                headers.setBearerAuth(token);
             }
         }
         return headers;
     }
 
+    /**
+     * Devuelve el token del usuario, renovándolo si ha pasado la mitad de su vida.
+     * <p>
+     * Sin cerrojo: el principal se reconstruye desde la cookie en cada petición, así que no hay un
+     * objeto compartido que proteger, y un {@code synchronized} alrededor de la llamada HTTP fijaría
+     * el hilo portador con hilos virtuales. Si llegan varias peticiones a la vez con el token a media
+     * vida, cada una pide el suyo; todos son válidos y la cookie se queda con el último.
+     * </p>
+     */
+    private String currentToken(User user) {
+        String token = user.getApiToken();
+        if (token != null && ApiToken.shouldRefresh(token, System.currentTimeMillis() / 1000)) {
+            refreshToken(user);
+            token = user.getApiToken();
+        }
+        return token;
+    }
+
+    /**
+     * Pide a la API un token nuevo para el usuario (con su rol actual) a partir del que tiene y
+     * actualiza con él la cookie de sesión.
+     * Si la API lo rechaza (usuario desactivado o token demasiado antiguo) se conserva el anterior
+     * y será la propia API la que deniegue las siguientes llamadas.
+     *
+     * @param user Usuario de la petición actual.
+     * @return true si se ha renovado.
+     */
+    public boolean refreshToken(User user) {
+        if (user.getApiToken() == null) {
+            return false;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(user.getApiToken());
+        try {
+            ResponseEntity<Void> response = restTemplate.exchange(
+                API_URL + "/auth/token",
+                HttpMethod.POST,
+                new HttpEntity<>(headers),
+                Void.class
+            );
+            String token = response.getHeaders().getFirst(TOKEN_HEADER);
+            if (token != null) {
+                user.setApiToken(token);
+                sessionCookies.writeCurrent(user);
+                return true;
+            }
+        } catch (Exception e) {
+            logger.warn("No se pudo renovar el token de servicio de {}: {}", user.getEmail(), e.getMessage());
+        }
+        return false;
+    }
+
     // --- Autenticación y Usuarios ---
 
     /**
@@ -67,7 +133,10 @@ public class ApiClientService {
      *
      * @param email Correo electrónico del usuario.
      * @param password Contraseña del usuario.
-     * @return El objeto User si las credenciales son válidas, null en caso contrario.
+     * @return El objeto User (con su token de servicio) si las credenciales son válidas, null en caso contrario.
+     * @throws org.springframework.security.authentication.AuthenticationServiceException Si la API está
+     *         saturada de inicios de sesión (503) o ha limitado los intentos de este email o IP (429)
+     *         y no ha comprobado la contraseña.
      */
     public User verifyLogin(String email, String password) {
         try {
@@ -76,7 +145,17 @@ public class ApiClientService {
                 Map.of("email", email, "password", password), 
                 User.class
             );
-            return response.getBody();
+            User user = response.getBody();
+            if (user != null) {
+                user.setApiToken(response.getHeaders().getFirst(TOKEN_HEADER));
+            }
+            return user;
+        } catch (org.springframework.web.client.HttpServerErrorException.ServiceUnavailable e) {
+            logger.warn("La API rechaza el login por saturación: {}", email);
+            throw new org.springframework.security.authentication.AuthenticationServiceException("API saturada", e);
+        } catch (org.springframework.web.client.HttpClientErrorException.TooManyRequests e) {
+            logger.warn("La API limita los intentos de login: {}", email);
+            throw new org.springframework.security.authentication.AuthenticationServiceException("Demasiados intentos", e);
         } catch (Exception e) {
             logger.error("Login fallido: " + e.getMessage());
             return null;
@@ -107,9 +186,14 @@ public class ApiClientService {
      * Registra un nuevo usuario en el sistema.
      *
      * @param user Objeto User con los datos de registro.
+     * @throws IllegalStateException Si la API ha limitado los registros de esta IP o email (429).
      */
     public void registerUser(User user) {
-        restTemplate.postForEntity(API_URL + "/auth/register", user, Map.class);
+        try {
+            restTemplate.postForEntity(API_URL + "/auth/register", user, Map.class);
+        } catch (org.springframework.web.client.HttpClientErrorException.TooManyRequests e) {
+            throw new IllegalStateException("Demasiados registros seguidos. Inténtalo de nuevo más tarde.", e);
+        }
     }
 
     /**
@@ -135,11 +219,7 @@ public class ApiClientService {
      */
     public User getUserByEmail(String email) {
         try {
-            // Nota: Enviamos el propio email en el header para "auto-autorizarnos" 
-            // y permitir que la API devuelva los datos del usuario.
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-Auth-User", email); 
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
+            HttpEntity<Void> entity = new HttpEntity<>(getHeaders());
             
             ResponseEntity<User> response = restTemplate.exchange(
                 API_URL + "/users/email/" + email, 
@@ -175,6 +255,28 @@ public class ApiClientService {
         }
     }
 
+    /**
+     * Obtiene sugerencias para autocompletar la compañía o la categoría de un seguro.
+     *
+     * @param field Campo: {@code company} o {@code category}.
+     * @param prefix Texto escrito por el usuario.
+     * @return Valores sugeridos, o lista vacía si la API no responde.
+     */
+    public List<String> suggestInsuranceValues(String field, String prefix) {
+        try {
+            ResponseEntity<List<String>> response = restTemplate.exchange(
+                API_URL + "/insurances/suggest?field={field}&prefix={prefix}",
+                HttpMethod.GET,
+                new HttpEntity<>(getHeaders()),
+                new ParameterizedTypeReference<List<String>>() {},
+                field, prefix
+            );
+            return response.getBody();
+        } catch (Exception e) {
+            return List.of();
+        }
+    }
+
     /**
      * Obtiene un seguro específico por su ID.
      *
@@ -198,12 +300,17 @@ public class ApiClientService {
      * Guarda (crea o actualiza) un seguro.
      *
      * @param insurance Objeto Insurance a guardar.
+     * @throws ApiConflictException Si el seguro fue modificado por otra sesión (409).
      */
     public void saveInsurance(Insurance insurance) {
         if (insurance.getId() == null) {
             restTemplate.postForEntity(API_URL + "/insurances", new HttpEntity<>(insurance, getHeaders()), Insurance.class);
         } else {
-            restTemplate.exchange(API_URL + "/insurances/" + insurance.getId(), HttpMethod.PUT, new HttpEntity<>(insurance, getHeaders()), Insurance.class);
+            try {
+                restTemplate.exchange(API_URL + "/insurances/" + insurance.getId(), HttpMethod.PUT, new HttpEntity<>(insurance, getHeaders()), Insurance.class);
+            } catch (org.springframework.web.client.HttpClientErrorException.Conflict e) {
+                throw new ApiConflictException("El seguro ha sido modificado por otra sesión. Recarga la página y vuelve a intentarlo.");
+            }
         }
     }
 
@@ -273,16 +380,69 @@ public class ApiClientService {
         return null;
     }
 
+    /**
+     * Envía a la API un fichero CSV de seguros para importarlos en bloque.
+     *
+     * @param file Fichero CSV subido por el usuario.
+     * @return Informe de la importación.
+     * @throws IllegalArgumentException Si la API rechaza el fichero (p. ej. faltan columnas).
+     */
+    public ImportReport importInsurances(MultipartFile file) {
+        HttpHeaders headers = getHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", file.getResource());
+        try {
+            return restTemplate.postForEntity(API_URL + "/insurances/import", new HttpEntity<>(body, headers), ImportReport.class).getBody();
+        } catch (org.springframework.web.client.HttpClientErrorException.BadRequest e) {
+            Map<?, ?> error = e.getResponseBodyAs(Map.class);
+            throw new IllegalArgumentException(error != null && error.get("message") != null
+                    ? error.get("message").toString() : "El fichero no es válido");
+        }
+    }
+
+    /**
+     * Descarga la exportación de datos del usuario y la reenvía al navegador según llega.
+     * <p>
+     * El cuerpo se copia de la respuesta de la API a la del navegador en bloques, sin guardarlo
+     * entero en memoria (la respuesta no lleva ETag, así que tampoco pasa por la caché de GET
+     * condicionales).
+     * </p>
+     *
+     * @param format {@code ndjson} o {@code csv}.
+     * @param dataset Conjunto de datos, o null para todos.
+     * @param target Respuesta del navegador.
+     */
+    public void exportData(String format, String dataset, jakarta.servlet.http.HttpServletResponse target) {
+        HttpHeaders headers = getHeaders();
+        String url = API_URL + "/export?format={format}" + (dataset != null ? "&dataset={dataset}" : "");
+        restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().putAll(headers),
+                response -> {
+                    target.setContentType(String.valueOf(response.getHeaders().getContentType()));
+                    target.setHeader(HttpHeaders.CONTENT_DISPOSITION, response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+                    target.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+                    org.springframework.util.StreamUtils.copy(response.getBody(), target.getOutputStream());
+                    return null;
+                },
+                dataset != null ? Map.of("format", format, "dataset", dataset) : Map.of("format", format));
+    }
+
     // --- Gestión de Usuario y Contraseña ---
 
     /**
      * Actualiza la información de un usuario.
      *
      * @param user Objeto User con los datos actualizados.
+     * @throws ApiConflictException Si el usuario fue modificado por otra sesión (409).
      */
     public void updateUser(User user) {
         if (user.getId() != null) {
-            restTemplate.put(API_URL + "/users/" + user.getId(), new HttpEntity<>(user, getHeaders()));
+            try {
+                restTemplate.put(API_URL + "/users/" + user.getId(), new HttpEntity<>(user, getHeaders()));
+            } catch (org.springframework.web.client.HttpClientErrorException.Conflict e) {
+                throw new ApiConflictException("Tu perfil ha sido modificado desde otra sesión. Revisa los datos y vuelve a guardar.");
+            }
         }
     }
 
@@ -437,10 +597,13 @@ public class ApiClientService {
      * Cierra un ticket existente.
      *
      * @param ticketId ID del ticket a cerrar.
+     * @throws ApiConflictException Si otro administrador modificó el ticket a la vez (409).
      */
     public void closeTicket(Long ticketId) {
         try {
             restTemplate.exchange(API_URL + "/tickets/" + ticketId + "/close", HttpMethod.PUT, new HttpEntity<>(getHeaders()), Void.class);
+        } catch (org.springframework.web.client.HttpClientErrorException.Conflict e) {
+            throw new ApiConflictException("El ticket ha sido modificado por otro administrador.");
         } catch (Exception e) {
             logger.error("Error cerrando ticket: " + e.getMessage());
         }
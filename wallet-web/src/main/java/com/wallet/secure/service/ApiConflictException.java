@@ -0,0 +1,15 @@
+package com.wallet.secure.service;
+
+/**
+ * Excepción lanzada por {@link ApiClientService} cuando la API responde 409 Conflict.
+ * <p>
+ * Indica que el recurso fue modificado por otra sesión desde que se leyó (bloqueo optimista);
+ * los controladores la capturan para pedir al usuario que recargue los datos.
+ * </p>
+ */
+public class ApiConflictException extends RuntimeException {
+
+    public ApiConflictException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,8 @@ package com.wallet.secure.service;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -16,6 +18,8 @@ import java.io.UnsupportedEncodingException;
 @Service
 public class EmailService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
     @Autowired
     private JavaMailSender mailSender;
 
@@ -52,7 +56,7 @@ public class EmailService {
         
         helper.setText(content, true);
         mailSender.send(message);
-        System.out.println("INFO: Correo enviado a: " + recipientEmail);
+        logger.info("Correo de verificación enviado a {}", recipientEmail);
     }
     
     /**
@@ -86,7 +90,7 @@ public class EmailService {
                 
         helper.setText(content, true);
         mailSender.send(message);
-        System.out.println("INFO: Correo de recuperación enviado a: " + recipientEmail);
+        logger.info("Correo de recuperación enviado a {}", recipientEmail);
     }
 
     /**
@@ -98,7 +102,7 @@ public class EmailService {
      * @throws MessagingException Error enviando el correo.
      */
     public void sendAdminRoleRequest(String userEmail, String desiredRole, String token) throws MessagingException {
-        System.out.println("INFO: Intentando enviar solicitud de admin. De: " + userEmail);
+        logger.info("Enviando solicitud de cambio de rol de {}", userEmail);
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
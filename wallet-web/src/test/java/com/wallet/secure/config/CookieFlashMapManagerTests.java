@@ -0,0 +1,43 @@
+package com.wallet.secure.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wallet.secure.security.SessionCookieService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.FlashMap;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CookieFlashMapManagerTests {
+
+    private final CookieFlashMapManager manager = new CookieFlashMapManager(
+            new SessionCookieService("secreto", Duration.ofMinutes(30), false), new ObjectMapper());
+
+    @Test
+    void flashAttributesSurviveTheRedirectInACookie() {
+        FlashMap flashMap = new FlashMap();
+        flashMap.put("success", "Póliza guardada");
+        flashMap.setTargetRequestPath("/dashboard");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        manager.saveOutputFlashMap(flashMap, new MockHttpServletRequest("POST", "/insurances"), response);
+        Cookie cookie = response.getCookie(CookieFlashMapManager.COOKIE_NAME);
+        assertThat(cookie).isNotNull();
+
+        MockHttpServletRequest next = new MockHttpServletRequest("GET", "/dashboard");
+        next.setCookies(cookie);
+        MockHttpServletResponse nextResponse = new MockHttpServletResponse();
+        FlashMap input = manager.retrieveAndUpdate(next, nextResponse);
+
+        assertThat(input).containsEntry("success", "Póliza guardada");
+        assertThat(nextResponse.getCookie(CookieFlashMapManager.COOKIE_NAME).getMaxAge()).isZero();
+    }
+
+    @Test
+    void requestsDoNotShareALock() {
+        assertThat(manager.getFlashMapsMutex(new MockHttpServletRequest())).isNull();
+    }
+}
@@ -0,0 +1,99 @@
+package com.wallet.secure.security;
+
+import com.wallet.secure.dto.User;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionCookieServiceTests {
+
+    private final SessionCookieService service = new SessionCookieService("secreto", Duration.ofMinutes(30), false);
+
+    @Test
+    void readsBackTheUserItWrote() {
+        String token = apiToken(7L, "ROLE_WORKER", "ana@wallet.com");
+
+        User user = service.read(request(written(token)));
+
+        assertThat(user).isNotNull();
+        assertThat(user.getId()).isEqualTo(7L);
+        assertThat(user.getEmail()).isEqualTo("ana@wallet.com");
+        assertThat(user.getRole()).isEqualTo("ROLE_WORKER");
+        assertThat(user.getApiToken()).isEqualTo(token);
+    }
+
+    @Test
+    void rejectsTamperedValueOrSignature() {
+        String cookie = written(apiToken(7L, "ROLE_WORKER", "ana@wallet.com"));
+        int dot = cookie.lastIndexOf('.');
+        String value = cookie.substring(0, dot);
+        String signature = cookie.substring(dot + 1);
+
+        // Mismo cuerpo con el rol cambiado, conservando la firma original
+        String promoted = value.substring(0, value.indexOf('|') + 1) + apiToken(7L, "ROLE_ADMIN", "ana@wallet.com");
+        assertThat(service.read(request(promoted + "." + signature))).isNull();
+
+        // El primer carácter es todo datos (el último lleva bits de relleno que el decodificador ignora)
+        String flipped = (signature.charAt(0) == 'A' ? 'B' : 'A') + signature.substring(1);
+        assertThat(service.read(request(value + "." + flipped))).isNull();
+
+        SessionCookieService other = new SessionCookieService("otro", Duration.ofMinutes(30), false);
+        assertThat(service.read(request(other.sign(value)))).isNull();
+    }
+
+    @Test
+    void rejectsExpiredCookie() {
+        long expired = System.currentTimeMillis() / 1000 - 1;
+        String cookie = service.sign(expired + "|" + apiToken(7L, "ROLE_WORKER", "ana@wallet.com"));
+
+        assertThat(service.read(request(cookie))).isNull();
+    }
+
+    @Test
+    void unsignRejectsMissingOrMalformedSignature() {
+        assertThat(service.unsign(service.sign("flash"))).isEqualTo("flash");
+
+        assertThat(service.unsign(null)).isNull();
+        assertThat(service.unsign("flash")).isNull();
+        assertThat(service.unsign("flash.")).isNull();
+        assertThat(service.unsign(".firma")).isNull();
+        assertThat(service.unsign("flash.!!no-es-base64!!")).isNull();
+        assertThat(service.unsign("flash.AAAA")).isNull();
+    }
+
+    private String written(String token) {
+        User user = new User();
+        user.setApiToken(token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.write(user, response);
+        return cookieValue(response);
+    }
+
+    static MockHttpServletRequest request(String cookie) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(SessionCookieService.COOKIE_NAME, cookie));
+        return request;
+    }
+
+    static String cookieValue(MockHttpServletResponse response) {
+        Cookie cookie = response.getCookie(SessionCookieService.COOKIE_NAME);
+        assertThat(cookie).isNotNull();
+        return cookie.getValue();
+    }
+
+    /**
+     * Token con el formato de wallet-api; la firma no importa porque la web no la comprueba.
+     */
+    static String apiToken(long id, String role, String email) {
+        long now = System.currentTimeMillis() / 1000;
+        String payload = id + "|" + role + "|" + now + "|" + (now + 900) + "|" + email;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".firma";
+    }
+}
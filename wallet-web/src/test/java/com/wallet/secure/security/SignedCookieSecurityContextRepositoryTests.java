@@ -0,0 +1,66 @@
+package com.wallet.secure.security;
+
+import com.wallet.secure.dto.User;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static com.wallet.secure.security.SessionCookieServiceTests.apiToken;
+import static com.wallet.secure.security.SessionCookieServiceTests.cookieValue;
+import static com.wallet.secure.security.SessionCookieServiceTests.request;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SignedCookieSecurityContextRepositoryTests {
+
+    private final SignedCookieSecurityContextRepository repository = new SignedCookieSecurityContextRepository(
+            new SessionCookieService("secreto", Duration.ofMinutes(30), false));
+
+    @Test
+    void saveAfterLoginWritesCookieThatLoadsTheUserBack() {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("ana@wallet.com");
+        user.setRole("ROLE_WORKER");
+        user.setApiToken(apiToken(7L, "ROLE_WORKER", "ana@wallet.com"));
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        repository.saveContext(context, new MockHttpServletRequest(), response);
+
+        MockHttpServletRequest next = request(cookieValue(response));
+        assertThat(repository.containsContext(next)).isTrue();
+        SecurityContext loaded = repository.loadDeferredContext(next).get();
+        assertThat(loaded.getAuthentication()).isNotNull();
+        assertThat(loaded.getAuthentication().getPrincipal()).isInstanceOfSatisfying(User.class, principal -> {
+            assertThat(principal.getId()).isEqualTo(7L);
+            assertThat(principal.getApiToken()).isEqualTo(user.getApiToken());
+        });
+        assertThat(loaded.getAuthentication().getAuthorities()).extracting("authority").containsExactly("ROLE_WORKER");
+    }
+
+    @Test
+    void saveAfterLogoutClearsTheCookie() {
+        MockHttpServletRequest request = request("cualquier-valor");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        repository.saveContext(SecurityContextHolder.createEmptyContext(), request, response);
+
+        Cookie cleared = response.getCookie(SessionCookieService.COOKIE_NAME);
+        assertThat(cleared).isNotNull();
+        assertThat(cleared.getValue()).isEmpty();
+        assertThat(cleared.getMaxAge()).isZero();
+    }
+
+    @Test
+    void invalidCookieLoadsAnEmptyContext() {
+        assertThat(repository.loadDeferredContext(request("basura.firma")).get().getAuthentication()).isNull();
+        assertThat(repository.loadDeferredContext(new MockHttpServletRequest()).isGenerated()).isTrue();
+    }
+}